@@ -0,0 +1,175 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.text.StrBuilder;
+
+/**
+ * Writes grid lines of a table as bytes, into a byte array or an output stream.
+ *
+ * For single-byte compatible charsets (US-ASCII, ISO-8859-1, and UTF-8 for ASCII characters) every character is written as one byte,
+ * without creating strings or running a charset encoder.
+ * A line with a character outside the range of the charset (for instance non-ASCII content in UTF-8) is encoded with the charset instead,
+ * all other lines stay on the direct path.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+class AT_ByteWriter extends AT_LineWriter {
+
+	/** The charset. */
+	protected final Charset charset;
+
+	/** Highest character written directly as a byte. */
+	protected final int limit;
+
+	/** The encoded line separator. */
+	protected final byte[] separatorBytes;
+
+	/** Stream to write lines to, null to collect all bytes in the buffer. */
+	protected final OutputStream stream;
+
+	/** Output buffer, all bytes or the current line for a stream. */
+	protected byte[] buffer;
+
+	/** Number of bytes in the buffer. */
+	protected int size;
+
+	/** Number of lines encoded with the charset. */
+	protected int encodedLines;
+
+	/**
+	 * Creates a new byte writer.
+	 * @param ctx the table context
+	 * @param separator the line separator
+	 * @param charset the charset, must be supported by {@link #limit(Charset)}
+	 * @param capacity the initial buffer size in bytes
+	 * @param stream stream to write to, null to collect all bytes
+	 */
+	AT_ByteWriter(AT_Context ctx, String separator, Charset charset, int capacity, OutputStream stream){
+		super(null, ctx, separator);
+		this.charset = charset;
+		this.limit = limit(charset);
+		this.separatorBytes = separator.getBytes(charset);
+		this.stream = stream;
+		this.buffer = new byte[Math.max(capacity, 16)];
+	}
+
+	/**
+	 * Returns the highest character that a charset encodes as the same single byte.
+	 * @param charset the charset
+	 * @return highest character, -1 if the charset is not supported for direct writing
+	 */
+	static int limit(Charset charset){
+		if(StandardCharsets.ISO_8859_1.equals(charset)){
+			return 0xFF;
+		}
+		if(StandardCharsets.US_ASCII.equals(charset) || StandardCharsets.UTF_8.equals(charset)){
+			return 0x7F;
+		}
+		return -1;
+	}
+
+	@Override
+	protected void write(StrBuilder line){
+		if(this.lineCount>0){
+			this.append(this.separatorBytes, this.separatorBytes.length);
+		}
+
+		int length = line.length();
+		this.ensure(length);
+		int start = this.size;
+		byte[] buf = this.buffer;
+		for(int i=0; i<length; i++){
+			char c = line.charAt(i);
+			if(c>this.limit){
+				//character outside the single byte range, encode the whole line
+				this.size = start;
+				byte[] encoded = line.toString().getBytes(this.charset);
+				this.append(encoded, encoded.length);
+				this.encodedLines++;
+				this.lineCount++;
+				this.flush();
+				return;
+			}
+			buf[start + i] = (byte)c;
+		}
+		this.size = start + length;
+		this.lineCount++;
+		this.flush();
+	}
+
+	/**
+	 * Appends bytes to the buffer.
+	 * @param bytes the bytes
+	 * @param length number of bytes to append
+	 */
+	protected void append(byte[] bytes, int length){
+		this.ensure(length);
+		System.arraycopy(bytes, 0, this.buffer, this.size, length);
+		this.size += length;
+	}
+
+	/**
+	 * Makes sure the buffer can take more bytes.
+	 * @param length number of bytes to add
+	 */
+	protected void ensure(int length){
+		if(this.size + length>this.buffer.length){
+			this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.size + length));
+		}
+	}
+
+	/**
+	 * Writes the buffer to the stream, if one is used.
+	 * @throws {@link AsciiTableException} if writing to the stream failed
+	 */
+	protected void flush(){
+		if(this.stream==null){
+			return;
+		}
+		try{
+			this.stream.write(this.buffer, 0, this.size);
+			this.size = 0;
+		}
+		catch(IOException ex){
+			throw new AsciiTableException(ex);
+		}
+	}
+
+	/**
+	 * Returns the number of lines that were encoded with the charset, because they had characters outside the single byte range.
+	 * @return number of encoded lines
+	 */
+	public int getEncodedLines(){
+		return this.encodedLines;
+	}
+
+	/**
+	 * Returns all written bytes, if no stream is used.
+	 * @return written bytes
+	 */
+	byte[] toByteArray(){
+		return (this.size==this.buffer.length) ? this.buffer : Arrays.copyOf(this.buffer, this.size);
+	}
+}
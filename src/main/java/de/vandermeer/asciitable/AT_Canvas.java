@@ -0,0 +1,697 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_CONTENT_LEFT;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_CONTENT_MID;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_CONTENT_RIGHT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.text.StrBuilder;
+
+import de.vandermeer.asciithemes.TA_Grid;
+import de.vandermeer.asciithemes.TA_GridConfig;
+import de.vandermeer.asciithemes.TA_GridHelpers;
+import de.vandermeer.asciithemes.TA_GridOptions;
+
+/**
+ * A canvas painting table rows with their grid directly into character arrays.
+ *
+ * The canvas produces the same lines as formatting rows with {@link AT_RenderHelpers#renderContentRow(AT_Row, int, int[])}
+ * and adding a grid with {@link TA_Grid#addGrid(Collection, int)}, but without the intermediate arrays and objects.
+ * Cell lines are copied into three reused frame lines (previous, current, next), borders are resolved in place,
+ * and every finished line (including frame margins) is painted into a single reused output array and handed to a {@link LineSink}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_Canvas {
+
+	/**
+	 * Receiver for painted lines.
+	 */
+	@FunctionalInterface
+	public interface LineSink {
+
+		/**
+		 * Receives a painted line.
+		 * The array is reused for the next line, so its content is only valid during this call.
+		 * @param line array with the line characters starting at index 0
+		 * @param length number of characters in the line
+		 */
+		void accept(char[] line, int length);
+	}
+
+	/**
+	 * A line of the frame with border positions and content characters.
+	 */
+	static final class FrameLine {
+
+		/** Border position/type for each position, -1 for content characters. */
+		int[] types;
+
+		/** Content character for each position, only valid if the type is -1. */
+		char[] chars;
+
+		/** Number of used positions. */
+		int length;
+
+		/** Rule set and position for a rule line, -1 for a content line. */
+		int rule = -1;
+
+		/**
+		 * Creates a new frame line.
+		 * @param capacity initial capacity
+		 */
+		FrameLine(int capacity){
+			this.types = new int[capacity];
+			this.chars = new char[capacity];
+		}
+
+		/**
+		 * Makes sure there is space for more positions.
+		 * @param more number of positions to add
+		 */
+		void ensure(int more){
+			if(this.length + more > this.types.length){
+				int cap = Math.max(this.types.length * 2, this.length + more);
+				int[] t = new int[cap];
+				char[] c = new char[cap];
+				System.arraycopy(this.types, 0, t, 0, this.length);
+				System.arraycopy(this.chars, 0, c, 0, this.length);
+				this.types = t;
+				this.chars = c;
+			}
+		}
+
+		/**
+		 * Adds a border position.
+		 * @param postype border position/type
+		 */
+		void border(int postype){
+			this.ensure(1);
+			this.types[this.length++] = postype;
+		}
+
+		/**
+		 * Adds a character repeatedly.
+		 * @param c the character
+		 * @param count number of repetitions
+		 */
+		void pad(char c, int count){
+			this.ensure(count);
+			for(int i=0; i<count; i++){
+				this.types[this.length] = -1;
+				this.chars[this.length++] = c;
+			}
+		}
+
+		/**
+		 * Adds the characters of a string.
+		 * @param s the string
+		 */
+		void text(CharSequence s){
+			int l = s.length();
+			this.ensure(l);
+			if(s instanceof StrBuilder){
+				((StrBuilder)s).getChars(0, l, this.chars, this.length);
+			}
+			else{
+				s.toString().getChars(0, l, this.chars, this.length);
+			}
+			for(int i=0; i<l; i++){
+				this.types[this.length++] = -1;
+			}
+		}
+
+		/**
+		 * Returns the position/type at an index of the line.
+		 * @param k index
+		 * @return position/type, -1 for a content character
+		 * @throws {@link IndexOutOfBoundsException} if the index is not in the line
+		 */
+		int typeAt(int k){
+			if(k>=this.length){
+				throw new IndexOutOfBoundsException("Index: " + k + ", Size: " + this.length);
+			}
+			return this.types[k];
+		}
+	}
+
+	/** The grid to draw. */
+	protected final TA_Grid grid;
+
+	/** The grid mode, theme and options. */
+	protected final int mode;
+
+	/** The column widths. */
+	protected final int[] colWidth;
+
+	/** Number of columns. */
+	protected final int colNumbers;
+
+	/** The table context with frame margin settings. */
+	protected final AT_Context ctx;
+
+	/** Receiver for painted lines. */
+	protected final LineSink sink;
+
+	/** The grid compiled for the mode, with all border characters. */
+	protected final AT_CompiledGrid compiled;
+
+	/** Frame line before the current line, null for the first line. */
+	protected FrameLine previous;
+
+	/** Frame line waiting for its next line. */
+	protected FrameLine current;
+
+	/** Frame line free for the next line. */
+	protected FrameLine spare;
+
+	/** Row waiting for the next one to know if it is the last row. */
+	protected AT_Row pendingRow;
+
+	/** Number of rows added. */
+	protected int rowCount;
+
+	/** Number of rows turned into frame lines. */
+	protected int framedRows;
+
+	/** Number of frame lines created. */
+	protected int framedLines;
+
+	/** Number of grid lines painted. */
+	protected int lineCount;
+
+	/** Number of lines handed to the sink, including frame margins. */
+	protected int outputCount;
+
+	/** Full width of the first line including margins, -1 before the first line. */
+	protected int max = -1;
+
+	/** Cache for rule lines, null if not used. */
+	protected AT_RuleCache ruleCache;
+
+	/** Cache for rendered cells, null if not used. */
+	protected AT_CellCache cellCache;
+
+	/** Pipeline for text cells. */
+	protected AT_CellPipeline cellPipeline = AT_CellPipeline.DEFAULT;
+
+	/** Reused output array. */
+	protected char[] canvas;
+
+	/** Reused cell lines of the current row, text cells. */
+	protected final ArrayList<?>[] cellText;
+
+	/** Reused cell lines of the current row, cells rendering themselves. */
+	protected final String[][] cellArray;
+
+	/** Reused cell width including padding for the current row. */
+	protected final int[] cellWidth;
+
+	/**
+	 * Creates a new canvas.
+	 * @param grid the grid to draw, must not be null
+	 * @param mode grid theme and options
+	 * @param colWidth width of each column, must not be null
+	 * @param colNumbers number of columns
+	 * @param ctx the table context, must not be null
+	 * @param sink receiver for painted lines, must not be null
+	 * @throws {@link NullPointerException} if any argument was null
+	 */
+	public AT_Canvas(TA_Grid grid, int mode, int[] colWidth, int colNumbers, AT_Context ctx, LineSink sink){
+		Validate.notNull(grid);
+		Validate.notNull(colWidth);
+		Validate.notNull(ctx);
+		Validate.notNull(sink);
+		this.grid = grid;
+		this.mode = mode;
+		this.colWidth = colWidth;
+		this.colNumbers = colNumbers;
+		this.ctx = ctx;
+		this.sink = sink;
+		this.compiled = AT_CompiledGrid.get(grid, mode);
+
+		int capacity = colNumbers + 1;
+		for(int w : colWidth){
+			capacity += w;
+		}
+		this.previous = new FrameLine(capacity);
+		this.current = new FrameLine(capacity);
+		this.spare = new FrameLine(capacity);
+		this.canvas = new char[capacity + ctx.getFrameLeftMargin() + ctx.getFrameRightMargin()];
+		this.cellText = new ArrayList<?>[colNumbers];
+		this.cellArray = new String[colNumbers][];
+		this.cellWidth = new int[colNumbers];
+	}
+
+	/**
+	 * Adds a row, painting all lines that are finished with it.
+	 * @param row the row, must not be null
+	 * @throws {@link NullPointerException} if row was null
+	 * @throws {@link AsciiTableException} if a row type or style was unknown
+	 */
+	public void add(AT_Row row){
+		Validate.notNull(row);
+		if(this.pendingRow!=null){
+			this.frameRow(this.pendingRow, false);
+		}
+		this.pendingRow = row;
+		this.rowCount++;
+	}
+
+	/**
+	 * Finishes the canvas, painting all remaining lines and the bottom frame margin.
+	 * @throws {@link IllegalStateException} if no row was added
+	 */
+	public void finish(){
+		Validate.validState(this.rowCount>0, "no content provided, size of collection was 0");
+		if(this.pendingRow!=null){
+			this.frameRow(this.pendingRow, true);
+			this.pendingRow = null;
+		}
+		if(this.lineCount<this.framedLines){
+			this.paint(null);
+		}
+		for(int k=0; k<this.ctx.getFrameBottomMargin(); k++){
+			this.fillCanvas(this.ctx.getFrameBottomChar(), this.max);
+		}
+	}
+
+	/**
+	 * Sets a cache for rule lines.
+	 * @param ruleCache the cache, null to paint every rule line
+	 * @return self to allow chaining
+	 */
+	public AT_Canvas setRuleCache(AT_RuleCache ruleCache){
+		this.ruleCache = ruleCache;
+		return this;
+	}
+
+	/**
+	 * Sets a cache for rendered cells.
+	 * Without a cache, cell text is copied into the frame straight from the formatted text.
+	 * With a cache, cells are rendered into lines (or taken from the cache) and then copied.
+	 * @param cellCache the cache, null to render all cells
+	 * @return self to allow chaining
+	 */
+	public AT_Canvas setCellCache(AT_CellCache cellCache){
+		this.cellCache = cellCache;
+		return this;
+	}
+
+	/**
+	 * Sets the pipeline for text cells.
+	 * @param cellPipeline the pipeline, null for the default pipeline
+	 * @return self to allow chaining
+	 */
+	public AT_Canvas setCellPipeline(AT_CellPipeline cellPipeline){
+		this.cellPipeline = (cellPipeline==null) ? AT_CellPipeline.DEFAULT : cellPipeline;
+		return this;
+	}
+
+	/**
+	 * Returns the number of lines handed to the sink, including frame margins.
+	 * @return number of lines
+	 */
+	public int getLineCount(){
+		return this.outputCount;
+	}
+
+	/**
+	 * Turns a row into frame lines.
+	 * @param row the row
+	 * @param isLast true if the row is the last row of the table
+	 */
+	protected void frameRow(AT_Row row, boolean isLast){
+		int ruleset = AT_RenderHelpers.ruleset(row);
+		switch(row.getType()){
+			case RULE:
+				this.grid.testRuleType(ruleset);
+				if(this.framedRows==0){
+					this.frameRule(AT_GridStream.TOP_RULE, ruleset | TA_GridConfig.CHAR_TOP_RULE);
+				}
+				else if(isLast){
+					this.frameRule(AT_GridStream.BOTTOM_RULE, ruleset | TA_GridConfig.CHAR_BOTTOM_RULE);
+				}
+				else{
+					this.frameRule(AT_GridStream.MID_RULE, ruleset | TA_GridConfig.CHAR_MID_RULE);
+				}
+				break;
+			case CONTENT:
+				this.frameContent(row, ruleset);
+				break;
+			case UNKNOWN:
+				throw new AsciiTableException("AT_Renderer: cannot render unknown row type", "table row type set to 'unknown'");
+			default:
+				throw new AsciiTableException("AT_Renderer: cannot render unknown row type", "table row type not specified or type not processed");
+		}
+		this.framedRows++;
+	}
+
+	/**
+	 * Creates the frame line of a rule, see {@link TA_GridHelpers#addRule(int[][], int, int, ArrayList, ArrayList)}.
+	 * @param type rule options
+	 * @param rowtype rule set and rule position
+	 */
+	protected void frameRule(int[][] type, int rowtype){
+		FrameLine fl = this.spare;
+		fl.length = 0;
+		fl.rule = rowtype;
+		this.frameBorder(fl, type[0][0], type[0][1] | rowtype, rowtype);
+		for(int k=0; k<this.colNumbers; k++){
+			for(int l=0; l<this.colWidth[k]; l++){
+				this.frameBorder(fl, type[1][0], type[1][1] | rowtype, rowtype);
+			}
+			if(k<(this.colNumbers-1)){
+				this.frameBorder(fl, type[2][0], type[2][1] | rowtype, rowtype);
+			}
+		}
+		this.frameBorder(fl, type[3][0], type[3][1] | rowtype, rowtype);
+		if(fl.length>0){
+			this.push();
+		}
+	}
+
+	/**
+	 * Adds a border position to a frame line if the grid mode requires or needs it.
+	 * @param fl the frame line
+	 * @param option the grid option for the border
+	 * @param postype the position/type if the option is set
+	 * @param rowtype the row type for an empty border
+	 */
+	protected void frameBorder(FrameLine fl, int option, int postype, int rowtype){
+		if(TA_GridOptions.testOption(option, this.mode)){
+			fl.border(postype);
+		}
+		else if(TA_GridOptions.optionNeeded(option, this.mode)){
+			fl.border(TA_GridConfig.TYPE_NONE | rowtype);
+		}
+	}
+
+	/**
+	 * Formats the cells of a content row and creates its frame lines.
+	 * @param row the row
+	 * @param ruleset the rule set of the row
+	 */
+	protected void frameContent(AT_Row row, int ruleset){
+		AT_Cell[] cells = row.getCellArray();
+		if(cells==null){
+			throw new AsciiTableException("cannot render table", "row content (cells) was null");
+		}
+
+		//format all cells and calculate the row height
+		int height = 0;
+		int length = 0;
+		int i = 0;
+		for(; i<cells.length; i++){
+			this.cellText[i] = null;
+			this.cellArray[i] = null;
+			length += this.colWidth[i];
+			Object content = cells[i].getContent();
+			if(content==null){
+				length++;
+				continue;
+			}
+			AT_CellContext cctx = cells[i].getContext();
+			this.cellWidth[i] = length;
+			length -= cctx.getPaddingLeft() + cctx.getPaddingRight();
+			this.cellArray[i] = (this.cellCache!=null)
+					? AT_RenderHelpers.renderCell(content, cctx, length, this.cellWidth[i], this.cellCache, this.cellPipeline)
+					: AT_RenderHelpers.renderToWidth(content, length);
+			if(this.cellArray[i]==null){
+				this.cellText[i] = (ArrayList<?>)this.cellPipeline.format(content, cctx, length);
+				height = Math.max(height, cctx.getPaddingTop() + this.cellText[i].size() + cctx.getPaddingBottom());
+			}
+			else{
+				height = Math.max(height, this.cellArray[i].length);
+			}
+			length = 0;
+		}
+		for(; i<this.colNumbers; i++){
+			this.cellText[i] = null;
+			this.cellArray[i] = null;
+		}
+		if(height==0){
+			height = 1;
+		}
+
+		int rowtype = ruleset | TA_GridConfig.CHAR_CONTENT_RULE;
+		this.grid.testRuleType(ruleset);
+		for(int line=0; line<height; line++){
+			FrameLine fl = this.spare;
+			fl.length = 0;
+			fl.rule = -1;
+			this.frameBorder(fl, HAS_CONTENT_LEFT, TA_GridConfig.PT_VERTICAL | rowtype, rowtype);
+			for(i=0; i<cells.length; i++){
+				if(this.cellText[i]!=null){
+					this.frameText(fl, this.cellText[i], cells[i].getContext(), this.cellWidth[i], line);
+				}
+				else if(this.cellArray[i]!=null){
+					String[] ar = this.cellArray[i];
+					if(line<ar.length){
+						fl.text(ar[line]);
+					}
+					else{
+						fl.pad(' ', (ar.length>0) ? ar[0].length() : 0);
+					}
+				}
+				if((this.cellText[i]!=null || this.cellArray[i]!=null) && i<(this.colNumbers-1)){
+					this.frameBorder(fl, HAS_CONTENT_MID, TA_GridConfig.PT_VERTICAL | rowtype, rowtype);
+				}
+			}
+			this.frameBorder(fl, HAS_CONTENT_RIGHT, TA_GridConfig.PT_VERTICAL | rowtype, rowtype);
+			if(fl.length>0){
+				this.push();
+			}
+		}
+	}
+
+	/**
+	 * Adds one line of a text cell with its padding to a frame line.
+	 * @param fl the frame line
+	 * @param text all lines of the formatted text
+	 * @param cctx the cell context
+	 * @param width the cell width including padding
+	 * @param line the line of the row to add
+	 */
+	protected void frameText(FrameLine fl, ArrayList<?> text, AT_CellContext cctx, int width, int line){
+		int top = cctx.getPaddingTop();
+		int bottom = cctx.getPaddingBottom();
+		if(line<top){
+			fl.pad(cctx.getPaddingTopChar(), width);
+		}
+		else if(line<top + text.size()){
+			fl.pad(cctx.getPaddingLeftChar(), cctx.getPaddingLeft());
+			fl.text((StrBuilder)text.get(line - top));
+			fl.pad(cctx.getPaddingRightChar(), cctx.getPaddingRight());
+		}
+		else if(line<top + text.size() + bottom){
+			fl.pad(cctx.getPaddingBottomChar(), width);
+		}
+		else{
+			//normalized empty line, as long as the first line of the cell
+			int first = 0;
+			if(top>0){
+				first = width;
+			}
+			else if(text.size()>0){
+				first = cctx.getPaddingLeft() + ((StrBuilder)text.get(0)).length() + cctx.getPaddingRight();
+			}
+			else if(bottom>0){
+				first = width;
+			}
+			fl.pad(' ', first);
+		}
+	}
+
+	/**
+	 * Pushes the spare frame line into the window, painting the current line if there is one.
+	 */
+	protected void push(){
+		FrameLine next = this.spare;
+		if(this.framedLines>this.lineCount){
+			this.paint(next);
+		}
+		this.spare = this.previous;
+		this.previous = this.current;
+		this.current = next;
+		this.framedLines++;
+	}
+
+	/**
+	 * Paints the current frame line into the canvas and hands it to the sink.
+	 * @param next the line after the current line, null if the current line is the last line
+	 */
+	protected void paint(FrameLine next){
+		FrameLine cur = this.current;
+		FrameLine prev = (this.lineCount>0) ? this.previous : null;
+		int left = this.ctx.getFrameLeftMargin();
+		int right = this.ctx.getFrameRightMargin();
+		int total = left + cur.length + right;
+		if(this.max==-1){
+			this.max = total;
+			for(int k=0; k<this.ctx.getFrameTopMargin(); k++){
+				this.fillCanvas(this.ctx.getFrameTopChar(), this.max);
+			}
+		}
+		if(this.canvas.length<total){
+			this.canvas = new char[total];
+		}
+
+		//position of the line for converting borders and connectors: only first, last, or in between matters
+		boolean isFirst = this.lineCount==0;
+		boolean isLast = next==null;
+		int pos = (isFirst) ? 0 : (isLast ? 2 : 1);
+		int vsize = (isFirst && isLast) ? 0 : 2;
+
+		char[] out = this.canvas;
+		char lc = this.ctx.getFrameLeftChar();
+		for(int k=0; k<left; k++){
+			out[k] = lc;
+		}
+		AT_RuleCache.Key key = (cur.rule>=0 && this.ruleCache!=null) ? this.ruleKey(cur, prev, next, pos, vsize) : null;
+		char[] cached = (key!=null) ? this.ruleCache.get(key) : null;
+		if(cached!=null){
+			System.arraycopy(cached, 0, out, left, cur.length);
+		}
+		else{
+			this.paintLine(cur, prev, next, pos, vsize, out, left);
+			if(key!=null){
+				this.ruleCache.put(key, Arrays.copyOfRange(out, left, left + cur.length));
+			}
+		}
+		char rc = this.ctx.getFrameRightChar();
+		for(int k=left + cur.length; k<total; k++){
+			out[k] = rc;
+		}
+		this.lineCount++;
+		this.outputCount++;
+		this.sink.accept(out, total);
+	}
+
+	/**
+	 * Paints the grid line of a frame line, resolving all borders.
+	 * @param cur the frame line to paint
+	 * @param prev the line before, null if the line is the first line
+	 * @param next the line after, null if the line is the last line
+	 * @param pos position of the line for converting borders and connectors (0 first, 2 last, 1 other)
+	 * @param vsize 0 if the line is the only line, 2 otherwise
+	 * @param out array to paint into
+	 * @param offset index in the array for the first character
+	 * @throws {@link IllegalStateException} if the grid has no character for a border
+	 */
+	protected void paintLine(FrameLine cur, FrameLine prev, FrameLine next, int pos, int vsize, char[] out, int offset){
+		int hsize = cur.length - 1;
+		int line = AT_CompiledGrid.line(pos, vsize);
+		for(int k=0; k<cur.length; k++){
+			int postype = cur.types[k];
+			if(postype<0){
+				out[offset + k] = cur.chars[k];
+				continue;
+			}
+
+			if(prev!=null){
+				postype = adjust(postype, prev.typeAt(k), TA_GridConfig.TYPE_UP);
+			}
+			if(next!=null){
+				postype = adjust(postype, next.typeAt(k), TA_GridConfig.TYPE_DOWN);
+			}
+			if(k>0){
+				postype = adjust(postype, cur.types[k-1], TA_GridConfig.TYPE_LEFT);
+			}
+			if(k<hsize){
+				postype = adjust(postype, cur.types[k+1], TA_GridConfig.TYPE_RIGHT);
+			}
+			out[offset + k] = this.compiled.character(postype, line, k, hsize);
+		}
+	}
+
+	/**
+	 * Creates the cache key for a rule line.
+	 * The key holds everything the painted line depends on: grid mode, rule set and position, column widths,
+	 * and which positions of the neighbor lines are borders (the spans of the neighboring rows).
+	 * @param cur the rule line
+	 * @param prev the line before, null if the line is the first line
+	 * @param next the line after, null if the line is the last line
+	 * @param pos position of the line for converting borders and connectors
+	 * @param vsize 0 if the line is the only line, 2 otherwise
+	 * @return the key, null if a neighbor line is shorter than the rule line (painting will fail, nothing to cache)
+	 */
+	protected AT_RuleCache.Key ruleKey(FrameLine cur, FrameLine prev, FrameLine next, int pos, int vsize){
+		if((prev!=null && prev.length<cur.length) || (next!=null && next.length<cur.length)){
+			return null;
+		}
+		int words = (cur.length + 31) / 32;
+		int[] layout = new int[6 + this.colWidth.length + 2 * words];
+		layout[0] = this.mode;
+		layout[1] = cur.rule;
+		layout[2] = pos;
+		layout[3] = vsize;
+		layout[4] = cur.length;
+		layout[5] = ((prev!=null) ? 1 : 0) | ((next!=null) ? 2 : 0);
+		System.arraycopy(this.colWidth, 0, layout, 6, this.colWidth.length);
+		int base = 6 + this.colWidth.length;
+		for(int k=0; k<cur.length; k++){
+			if(prev!=null && prev.types[k]>=0){
+				layout[base + k / 32] |= 1 << (k % 32);
+			}
+			if(next!=null && next.types[k]>=0){
+				layout[base + words + k / 32] |= 1 << (k % 32);
+			}
+		}
+		return new AT_RuleCache.Key(this.grid, layout);
+	}
+
+	/**
+	 * Adjusts a border for one neighbor, see {@link TA_GridHelpers#adjustBorder(int, int, int, int, ArrayList)}.
+	 * @param postype the border position/type
+	 * @param neighbor the position/type of the neighbor, -1 for a character
+	 * @param direction the type of the direction to the neighbor
+	 * @return adjusted position/type
+	 */
+	protected static int adjust(int postype, int neighbor, int direction){
+		if(neighbor<0){
+			return postype & ~direction;
+		}
+		if(TA_GridHelpers.hasType(postype)){
+			return postype | direction;
+		}
+		return postype;
+	}
+
+	/**
+	 * Fills the canvas with a margin character and hands it to the sink.
+	 * @param c the character
+	 * @param length the line length
+	 */
+	protected void fillCanvas(char c, int length){
+		if(this.canvas.length<length){
+			this.canvas = new char[length];
+		}
+		for(int k=0; k<length; k++){
+			this.canvas[k] = c;
+		}
+		this.outputCount++;
+		this.sink.accept(this.canvas, length);
+	}
+}
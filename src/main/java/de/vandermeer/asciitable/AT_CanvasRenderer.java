@@ -0,0 +1,250 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.text.StrBuilder;
+
+/**
+ * A renderer painting tables on a single pre-sized {@link AT_Canvas}.
+ *
+ * The output is the same as for the standard renderer ({@link AT_Renderer#create()}),
+ * but lines are painted straight from the formatted cell text into one reused character array,
+ * without the intermediate cell arrays, frame object lists, and per-line string builders.
+ * Rule lines are kept in an {@link AT_RuleCache} and copied when the same rule appears again, in the same or a later render.
+ * Tables with cells that do not fill their columns (for instance nested tables or content rendering itself to a width)
+ * are rendered as by the standard renderer, since their grid depends on the formatted lines.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_CanvasRenderer implements AT_Renderer {
+
+	/** The column width calculator. */
+	protected AT_ColumnWidthCalculator cwc = new CWC_AbsoluteEven();
+
+	/** The line separator, null if not set. */
+	protected String lineSeparator = null;
+
+	/** Cache for rule lines, kept between renders, null if not used. */
+	protected AT_RuleCache ruleCache = new AT_RuleCache();
+
+	/** Cache for rendered cells, null if not used. */
+	protected AT_CellCache cellCache = null;
+
+	/** Pipeline for text cells. */
+	protected AT_CellPipeline cellPipeline = AT_CellPipeline.DEFAULT;
+
+	/** Control for stopping renders, null if not used. */
+	protected AT_RenderControl renderControl = null;
+
+	@Override
+	public AT_ColumnWidthCalculator getCWC(){
+		return this.cwc;
+	}
+
+	@Override
+	public String getLineSeparator() {
+		return this.lineSeparator;
+	}
+
+	@Override
+	public AT_Renderer setCWC(AT_ColumnWidthCalculator cwc) {
+		if(cwc!=null){
+			this.cwc = cwc;
+		}
+		return this;
+	}
+
+	@Override
+	public AT_Renderer setLineSeparator(String separator) {
+		if(!StringUtils.isBlank(separator)){
+			this.lineSeparator = separator;
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the cache for rule lines.
+	 * @return rule cache, null if not used
+	 */
+	public AT_RuleCache getRuleCache(){
+		return this.ruleCache;
+	}
+
+	/**
+	 * Sets the cache for rule lines, for instance to share one cache between several renderers.
+	 * @param ruleCache the new cache, null to paint every rule line
+	 * @return self to allow chaining
+	 */
+	public AT_CanvasRenderer setRuleCache(AT_RuleCache ruleCache){
+		this.ruleCache = ruleCache;
+		return this;
+	}
+
+	@Override
+	public AT_CellCache getCellCache(){
+		return this.cellCache;
+	}
+
+	@Override
+	public AT_Renderer setCellCache(AT_CellCache cache){
+		this.cellCache = cache;
+		return this;
+	}
+
+	@Override
+	public AT_CellPipeline getCellPipeline(){
+		return this.cellPipeline;
+	}
+
+	@Override
+	public AT_Renderer setCellPipeline(AT_CellPipeline pipeline){
+		this.cellPipeline = (pipeline==null) ? AT_CellPipeline.DEFAULT : pipeline;
+		return this;
+	}
+
+	@Override
+	public AT_RenderControl getRenderControl(){
+		return this.renderControl;
+	}
+
+	@Override
+	public AT_Renderer setRenderControl(AT_RenderControl control){
+		this.renderControl = control;
+		return this;
+	}
+
+	@Override
+	public String render(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx, int width){
+		StrBuilder ret = new StrBuilder();
+		try{
+			return this.renderTo(ret, rows, colNumbers, ctx, width).build();
+		}
+		catch(AsciiTableCancelledException ex){
+			throw ex.keepPartial(ret);
+		}
+	}
+
+	@Override
+	public <A extends Appendable> A renderTo(A out, LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx, int width){
+		Validate.notNull(out);
+		Validate.notNull(rows);
+		Validate.notNull(ctx);
+		if(!AT_RenderHelpers.hasFixedColumns(rows, colNumbers)){
+			return AT_Renderer.super.renderTo(out, rows, colNumbers, ctx, width);
+		}
+
+		String separator = AT_RenderHelpers.lineSeparator(this, ctx);
+		int[] count = new int[]{0};
+		this.paint(rows, colNumbers, ctx, width, (line, length) -> {
+			try{
+				if(count[0]++>0){
+					out.append(separator);
+				}
+				if(out instanceof Writer){
+					((Writer)out).write(line, 0, length);
+				}
+				else if(out instanceof StrBuilder){
+					((StrBuilder)out).append(line, 0, length);
+				}
+				else if(out instanceof StringBuilder){
+					((StringBuilder)out).append(line, 0, length);
+				}
+				else{
+					out.append(CharBuffer.wrap(line, 0, length));
+				}
+			}
+			catch(IOException ex){
+				throw new AsciiTableException(ex);
+			}
+		});
+
+		return out;
+	}
+
+	@Override
+	public Collection<StrBuilder> renderAsCollection(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx, int width){
+		Validate.notNull(rows);
+		Validate.notNull(ctx);
+		if(!AT_RenderHelpers.hasFixedColumns(rows, colNumbers)){
+			return AT_Renderer.super.renderAsCollection(rows, colNumbers, ctx, width);
+		}
+
+		ArrayList<StrBuilder> ret = new ArrayList<>();
+		this.paint(rows, colNumbers, ctx, width, (line, length) -> ret.add(new StrBuilder(length).append(line, 0, length)));
+		return ret;
+	}
+
+	@Override
+	public Stream<String> lines(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx, int width){
+		Validate.notNull(rows);
+		Validate.notNull(ctx);
+		if(!AT_RenderHelpers.hasFixedColumns(rows, colNumbers)){
+			return AT_Renderer.super.lines(rows, colNumbers, ctx, width);
+		}
+
+		int[] colWidth = this.getCWC().calculateColumnWidths(rows, colNumbers, ctx.getTextWidth(width));
+		AT_LineIterator ret = new AT_LineIterator(rows.iterator(), this.renderControl);
+		AT_Canvas canvas = new AT_Canvas(ctx.getGrid(), ctx.getGridTheme() | ctx.getGridThemeOptions(), colWidth, colNumbers, ctx, (line, length) -> ret.offer(new String(line, 0, length)));
+		canvas.setRuleCache(this.ruleCache);
+		canvas.setCellCache(this.cellCache);
+		canvas.setCellPipeline(this.cellPipeline);
+		return ret.setSteps(canvas::add, canvas::finish).stream();
+	}
+
+	/**
+	 * Paints all rows of a table on a canvas.
+	 * @param rows table rows to render
+	 * @param colNumbers number of columns in the table
+	 * @param ctx context of the original table with relevant settings
+	 * @param width maximum line width, excluding any extra padding
+	 * @param sink receiver for painted lines
+	 */
+	protected void paint(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx, int width, AT_Canvas.LineSink sink){
+		int[] colWidth = this.getCWC().calculateColumnWidths(rows, colNumbers, ctx.getTextWidth(width));
+		AT_RenderControl control = this.renderControl;
+		if(control!=null){
+			control.start();
+			AT_Canvas.LineSink target = sink;
+			sink = (line, length) -> {
+				control.line();
+				target.accept(line, length);
+			};
+		}
+		AT_Canvas canvas = new AT_Canvas(ctx.getGrid(), ctx.getGridTheme() | ctx.getGridThemeOptions(), colWidth, colNumbers, ctx, sink);
+		canvas.setRuleCache(this.ruleCache);
+		canvas.setCellCache(this.cellCache);
+		canvas.setCellPipeline(this.cellPipeline);
+		for(AT_Row row : rows){
+			if(control!=null){
+				control.row();
+			}
+			canvas.add(row);
+		}
+		canvas.finish();
+	}
+}
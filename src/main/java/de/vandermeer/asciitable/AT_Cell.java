@@ -32,6 +32,9 @@ public class AT_Cell implements IsTableCell {
 	/** The content of the cell. */
 	protected Object content;
 
+	/** Modification version of the content, incremented when the content is set. */
+	protected long version;
+
 	/**
 	 * Creates a new cell with content and default context.
 	 * @param content the cell content, can be null indicating column spans
@@ -65,6 +68,26 @@ public class AT_Cell implements IsTableCell {
 		return this.ctx;
 	}
 
+	/**
+	 * Sets new content for the cell, for instance to update a table that is rendered repeatedly.
+	 * Changes inside the content object itself are not tracked, set the content again to mark the cell as modified.
+	 * @param content new cell content, can be null indicating column spans
+	 * @return this to allow chaining
+	 */
+	public AT_Cell setContent(Object content){
+		this.content = content;
+		this.version++;
+		return this;
+	}
+
+	/**
+	 * Returns the modification version of the cell.
+	 * @return version, changes whenever the content is set or the cell context is changed
+	 */
+	public long getVersion(){
+		return this.version + this.ctx.getVersion();
+	}
+
 	@Override
 	public String toString(){
 		if(this.content!=null){
@@ -0,0 +1,377 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.Validate;
+
+import de.vandermeer.skb.interfaces.transformers.textformat.TextAlignment;
+
+/**
+ * A bounded cache of rendered cells, for tables that are rendered again and again with mostly unchanged cells.
+ *
+ * The cache maps cell content, width, text alignment, padding, translators, and cell pipeline to the finished lines of the cell including padding.
+ * A cell found in the cache costs a lookup instead of text conversion, white space removal, translation, and wrapping.
+ * Only content of immutable value types (strings, numbers, booleans, characters, enumerates) is cached by default,
+ * other objects can change without the cache noticing and are always rendered.
+ *
+ * Content rendering itself (nested tables, templates, objects rendering to a width) can be expensive.
+ * With {@link #setMemoizeRenderables(boolean)} such content is cached as well, by object identity and width.
+ * Content implementing {@link AT_Memoizable} is rendered again when its render version changes,
+ * other content must be removed with {@link #invalidate(Object)} after a change.
+ *
+ * The cache is thread safe and can be shared by several renderers.
+ * When full, the least recently used cell is removed.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_CellCache {
+
+	/** Default maximum number of cached cells. */
+	public static final int DEFAULT_SIZE = 4096;
+
+	/**
+	 * Key of a cached cell.
+	 */
+	static final class Key {
+
+		/** The cell content. */
+		final Object content;
+
+		/** True if the content is compared by identity, false if compared by value. */
+		final boolean identity;
+
+		/** Render version of memoizable content, 0 for all other content. */
+		final long version;
+
+		/** Width for the text, without padding. */
+		final int width;
+
+		/** Width of the cell, including padding and spanned columns. */
+		final int realWidth;
+
+		/** The text alignment. */
+		final TextAlignment alignment;
+
+		/** Padding top, bottom, left, right. */
+		final int padTop, padBottom, padLeft, padRight;
+
+		/** Padding characters top, bottom, left, right. */
+		final long paddingChars;
+
+		/** Translators of the cell, compared by identity. */
+		final Object target, html, chars;
+
+		/** The cell pipeline, compared by identity. */
+		final AT_CellPipeline pipeline;
+
+		/** Maximum number of text lines. */
+		final int maxLines;
+
+		/** Ellipsis for truncated text. */
+		final String ellipsis;
+
+		/** Pre-calculated hash code. */
+		final int hash;
+
+		/**
+		 * Creates a new key.
+		 * @param content the cell content
+		 * @param ctx the cell context
+		 * @param width width for the text, without padding
+		 * @param realWidth width of the cell
+		 * @param pipeline the pipeline processing the cell
+		 */
+		Key(Object content, AT_CellContext ctx, int width, int realWidth, AT_CellPipeline pipeline){
+			this.content = content;
+			this.identity = !AT_CellCache.isCacheable(content);
+			this.version = (content instanceof AT_Memoizable) ? ((AT_Memoizable)content).getRenderVersion() : 0;
+			this.width = width;
+			this.realWidth = realWidth;
+			this.alignment = ctx.getTextAlignment();
+			this.padTop = ctx.getPaddingTop();
+			this.padBottom = ctx.getPaddingBottom();
+			this.padLeft = ctx.getPaddingLeft();
+			this.padRight = ctx.getPaddingRight();
+			this.paddingChars = (long)ctx.getPaddingTopChar() << 48 | (long)ctx.getPaddingBottomChar() << 32 | (long)ctx.getPaddingLeftChar() << 16 | ctx.getPaddingRightChar();
+			this.target = ctx.getTargetTranslator();
+			this.html = ctx.getHtmlElementTranslator();
+			this.chars = ctx.getCharTranslator();
+			this.pipeline = pipeline;
+			this.maxLines = ctx.getMaxLines();
+			this.ellipsis = ctx.getEllipsis();
+
+			int h = this.identity ? System.identityHashCode(content) : content.hashCode();
+			h = 31 * h + Long.hashCode(this.version);
+			h = 31 * h + width;
+			h = 31 * h + realWidth;
+			h = 31 * h + Objects.hashCode(this.alignment);
+			h = 31 * h + this.padTop;
+			h = 31 * h + this.padBottom;
+			h = 31 * h + this.padLeft;
+			h = 31 * h + this.padRight;
+			h = 31 * h + Long.hashCode(this.paddingChars);
+			h = 31 * h + System.identityHashCode(this.target);
+			h = 31 * h + System.identityHashCode(this.html);
+			h = 31 * h + System.identityHashCode(this.chars);
+			h = 31 * h + System.identityHashCode(this.pipeline);
+			h = 31 * h + this.maxLines;
+			h = 31 * h + this.ellipsis.hashCode();
+			this.hash = h;
+		}
+
+		@Override
+		public int hashCode(){
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj){
+			if(!(obj instanceof Key)){
+				return false;
+			}
+			Key other = (Key)obj;
+			return this.hash==other.hash
+					&& this.width==other.width
+					&& this.realWidth==other.realWidth
+					&& this.padTop==other.padTop
+					&& this.padBottom==other.padBottom
+					&& this.padLeft==other.padLeft
+					&& this.padRight==other.padRight
+					&& this.paddingChars==other.paddingChars
+					&& this.alignment==other.alignment
+					&& this.target==other.target
+					&& this.html==other.html
+					&& this.chars==other.chars
+					&& this.pipeline==other.pipeline
+					&& this.maxLines==other.maxLines
+					&& this.ellipsis.equals(other.ellipsis)
+					&& this.identity==other.identity
+					&& this.version==other.version
+					&& (this.identity
+							? this.content==other.content
+							: this.content.getClass()==other.content.getClass() && this.content.equals(other.content))
+			;
+		}
+	}
+
+	/** The cached cells, in access order. */
+	protected final LinkedHashMap<Key, String[]> cells;
+
+	/** Maximum number of cached cells. */
+	protected final int maxSize;
+
+	/** Flag for caching content that is not of a value type by identity. */
+	protected boolean memoizeRenderables;
+
+	/** Number of lookups that found a cell. */
+	protected long hits;
+
+	/** Number of lookups that did not find a cell. */
+	protected long misses;
+
+	/** Lock guarding cells and counters, not blocking the carrier thread of a virtual thread. */
+	protected final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Creates a new cache with the default size.
+	 */
+	public AT_CellCache(){
+		this(DEFAULT_SIZE);
+	}
+
+	/**
+	 * Creates a new cache.
+	 * @param maxSize maximum number of cached cells, must be larger than 0
+	 * @throws {@link IllegalStateException} if the size was smaller than 1
+	 */
+	public AT_CellCache(int maxSize){
+		Validate.validState(maxSize>0, "cache size must be larger than 0, found <" + maxSize + ">");
+		this.maxSize = maxSize;
+		this.cells = new LinkedHashMap<Key, String[]>(16, 0.75f, true){
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, String[]> eldest){
+				return this.size() > AT_CellCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Tests if content can be cached.
+	 * @param content the cell content
+	 * @return true if the content is of an immutable value type, false otherwise
+	 */
+	public static boolean isCacheable(Object content){
+		return content instanceof String
+				|| content instanceof Number
+				|| content instanceof Boolean
+				|| content instanceof Character
+				|| content instanceof Enum
+		;
+	}
+
+	/**
+	 * Tests if content is cached by this cache.
+	 * @param content the cell content
+	 * @return true if the content is of an immutable value type or if renderables are memoized, false otherwise
+	 */
+	public boolean accepts(Object content){
+		return this.memoizeRenderables || AT_CellCache.isCacheable(content);
+	}
+
+	/**
+	 * Sets memoization of content that is not of an immutable value type, by object identity and width.
+	 * Changed content is only rendered again if it implements {@link AT_Memoizable} or after {@link #invalidate(Object)}.
+	 * @param memoize true to cache all content, false to cache value types only
+	 * @return this to allow chaining
+	 */
+	public AT_CellCache setMemoizeRenderables(boolean memoize){
+		this.memoizeRenderables = memoize;
+		return this;
+	}
+
+	/**
+	 * Returns the flag for memoization of content that is not of an immutable value type.
+	 * @return true if all content is cached, false if value types only
+	 */
+	public boolean isMemoizeRenderables(){
+		return this.memoizeRenderables;
+	}
+
+	/**
+	 * Removes all cached cells of content cached by identity, for instance after the content has changed.
+	 * @param content the content, nothing happens for null or value types
+	 */
+	public void invalidate(Object content){
+		this.lock.lock();
+		try{
+			if(content!=null && !AT_CellCache.isCacheable(content)){
+				this.cells.keySet().removeIf(key -> key.content==content);
+			}
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns a cached cell.
+	 * @param key the key of the cell
+	 * @return the lines of the cell, null if not cached
+	 */
+	String[] get(Key key){
+		this.lock.lock();
+		try{
+			String[] ret = this.cells.get(key);
+			if(ret==null){
+				this.misses++;
+			}
+			else{
+				this.hits++;
+			}
+			return ret;
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Adds a cell to the cache.
+	 * @param key the key of the cell
+	 * @param lines the lines of the cell, not changed after this call
+	 */
+	void put(Key key, String[] lines){
+		this.lock.lock();
+		try{
+			this.cells.put(key, lines);
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes all cached cells, the hit and miss counters are not changed.
+	 */
+	public void clear(){
+		this.lock.lock();
+		try{
+			this.cells.clear();
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of lookups that found a cached cell.
+	 * @return number of hits
+	 */
+	public long getHits(){
+		this.lock.lock();
+		try{
+			return this.hits;
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of lookups that did not find a cached cell.
+	 * @return number of misses
+	 */
+	public long getMisses(){
+		this.lock.lock();
+		try{
+			return this.misses;
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the maximum number of cached cells.
+	 * @return maximum size
+	 */
+	public int getMaxSize(){
+		return this.maxSize;
+	}
+
+	/**
+	 * Returns the number of cached cells.
+	 * @return number of cached cells
+	 */
+	public int size(){
+		this.lock.lock();
+		try{
+			return this.cells.size();
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+}
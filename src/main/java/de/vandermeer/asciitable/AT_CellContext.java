@@ -35,9 +35,15 @@ public class AT_CellContext implements IsTableCellContext {
 	/** A simple character translator. */
 	protected CharacterTranslator charTranslator;
 
+	/** Ellipsis added to truncated text, default is three dots. */
+	protected String ellipsis = "...";
+
 	/** A translator for HTML elements. */
 	protected HtmlElementTranslator htmlElementTranslator;
 
+	/** Maximum number of text lines, text beyond is truncated, 0 for no limit. */
+	protected int maxLines = 0;
+
 	/** The padding for the bottom of a text line. */
 	protected int paddingBottom = 0;
 
@@ -68,6 +74,9 @@ public class AT_CellContext implements IsTableCellContext {
 	/** Text alignment, default is {@link TextAlignment#JUSTIFIED_LEFT}. */
 	protected TextAlignment textAlignment = TextAlignment.JUSTIFIED_LEFT;
 
+	/** Modification version, incremented by every setter. */
+	protected long version;
+
 	/**
 	 * Returns the character translator
 	 * @return character translator
@@ -76,6 +85,14 @@ public class AT_CellContext implements IsTableCellContext {
 		return this.charTranslator;
 	}
 
+	/**
+	 * Returns the ellipsis added to truncated text.
+	 * @return ellipsis
+	 */
+	public String getEllipsis(){
+		return this.ellipsis;
+	}
+
 	/**
 	 * Returns the HTML entity translator.
 	 * @return HTML entity
@@ -84,6 +101,14 @@ public class AT_CellContext implements IsTableCellContext {
 		return this.htmlElementTranslator;
 	}
 
+	/**
+	 * Returns the maximum number of text lines.
+	 * @return maximum number of lines without padding, 0 for no limit
+	 */
+	public int getMaxLines(){
+		return this.maxLines;
+	}
+
 	/**
 	 * Returns the bottom padding.
 	 * @return bottom padding, 0 if none set
@@ -164,6 +189,14 @@ public class AT_CellContext implements IsTableCellContext {
 		return this.textAlignment;
 	}
 
+	/**
+	 * Returns the modification version of the context.
+	 * @return version, changes whenever a setter is called
+	 */
+	public long getVersion(){
+		return this.version;
+	}
+
 	/**
 	 * Sets the character translator.
 	 * It will also remove any other translator set.
@@ -171,6 +204,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @param charTranslator translator
 	 */
 	public void setCharTranslator(CharacterTranslator charTranslator) {
+		this.version++;
 		if(charTranslator!=null){
 			this.charTranslator = charTranslator;
 			this.htmlElementTranslator = null;
@@ -178,6 +212,19 @@ public class AT_CellContext implements IsTableCellContext {
 		}
 	}
 
+	/**
+	 * Sets the ellipsis added to truncated text.
+	 * @param ellipsis new ellipsis, an empty string to truncate without ellipsis, ignored if null
+	 * @return this to allow chaining
+	 */
+	public AT_CellContext setEllipsis(String ellipsis){
+		this.version++;
+		if(ellipsis!=null){
+			this.ellipsis = ellipsis;
+		}
+		return this;
+	}
+
 	/**
 	 * Sets the HTML entity translator.
 	 * It will also remove any other translator set.
@@ -185,6 +232,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @param htmlElementTranslator translator
 	 */
 	public void setHtmlElementTranslator(HtmlElementTranslator htmlElementTranslator) {
+		this.version++;
 		if(htmlElementTranslator!=null){
 			this.htmlElementTranslator = htmlElementTranslator;
 			this.charTranslator = null;
@@ -192,12 +240,28 @@ public class AT_CellContext implements IsTableCellContext {
 		}
 	}
 
+	/**
+	 * Sets the maximum number of text lines (not counting top and bottom padding).
+	 * Text with more lines is truncated, with the ellipsis at the end of the last line.
+	 * With 1, text is never wrapped: it is written as a single line cut to the width, justified alignments are then used as left or right alignment.
+	 * @param maxLines new maximum, 0 for no limit, ignored if smaller than 0
+	 * @return this to allow chaining
+	 */
+	public AT_CellContext setMaxLines(int maxLines){
+		this.version++;
+		if(maxLines>-1){
+			this.maxLines = maxLines;
+		}
+		return this;
+	}
+
 	/**
 	 * Sets all padding to the same value.
 	 * @param padding new padding for top, bottom, left, and right, ignored if smaller than 0
 	 * @return this to allow chaining
 	 */
 	public AT_CellContext setPadding(int padding){
+		this.version++;
 		if(padding>-1){
 			this.paddingTop = padding;
 			this.paddingBottom = padding;
@@ -213,6 +277,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @return this to allow chaining
 	 */
 	public AT_CellContext setPaddingBottom(int paddingBottom) {
+		this.version++;
 		if(paddingBottom>-1){
 			this.paddingBottom = paddingBottom;
 		}
@@ -225,6 +290,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @return this to allow chaining
 	 */
 	public AT_CellContext setPaddingBottomChar(Character paddingBottomChar) {
+		this.version++;
 		if(paddingBottomChar!=null){
 			this.paddingBottomChar = paddingBottomChar;
 		}
@@ -237,6 +303,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @return this to allow chaining
 	 */
 	public AT_CellContext setPaddingLeft(int paddingLeft) {
+		this.version++;
 		if(paddingLeft>-1){
 			this.paddingLeft = paddingLeft;
 		}
@@ -249,6 +316,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @return this to allow chaining
 	 */
 	public AT_CellContext setPaddingLeftChar(Character paddingLeftChar) {
+		this.version++;
 		if(paddingLeftChar!=null){
 			this.paddingLeftChar = paddingLeftChar;
 		}
@@ -261,6 +329,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @return this to allow chaining
 	 */
 	public AT_CellContext setPaddingLeftRight(int padding){
+		this.version++;
 		if(padding>-1){
 			this.paddingLeft = padding;
 			this.paddingRight = padding;
@@ -275,6 +344,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @return this to allow chaining
 	 */
 	public AT_CellContext setPaddingLeftRight(int paddingLeft, int paddingRight){
+		this.version++;
 		if(paddingLeft>-1 && paddingRight>-1){
 			this.paddingLeft = paddingLeft;
 			this.paddingRight = paddingRight;
@@ -288,6 +358,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @return this to allow chaining
 	 */
 	public AT_CellContext setPaddingRight(int paddingRight) {
+		this.version++;
 		if(paddingRight>-1){
 			this.paddingRight = paddingRight;
 		}
@@ -300,6 +371,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @return this to allow chaining
 	 */
 	public AT_CellContext setPaddingRightChar(Character paddingRightChar) {
+		this.version++;
 		if(paddingRightChar!=null){
 			this.paddingRightChar = paddingRightChar;
 		}
@@ -312,6 +384,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @return this to allow chaining
 	 */
 	public AT_CellContext setPaddingTop(int paddingTop) {
+		this.version++;
 		if(paddingTop>-1){
 			this.paddingTop = paddingTop;
 		}
@@ -324,6 +397,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @return this to allow chaining
 	 */
 	public AT_CellContext setPaddingTopBottom(int padding){
+		this.version++;
 		if(padding>-1){
 			this.paddingTop = padding;
 			this.paddingBottom = padding;
@@ -338,6 +412,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @return this to allow chaining
 	 */
 	public AT_CellContext setPaddingTopBottom(int paddingTop, int paddingBottom){
+		this.version++;
 		if(paddingTop>-1 && paddingBottom>-1){
 			this.paddingTop = paddingTop;
 			this.paddingBottom = paddingBottom;
@@ -351,6 +426,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @return this to allow chaining
 	 */
 	public AT_CellContext setPaddingTopChar(Character paddingTopChar) {
+		this.version++;
 		if(paddingTopChar!=null){
 			this.paddingTopChar = paddingTopChar;
 		}
@@ -364,6 +440,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 * @param targetTranslator translator
 	 */
 	public void setTargetTranslator(TargetTranslator targetTranslator) {
+		this.version++;
 		if(targetTranslator!=null){
 			this.targetTranslator = targetTranslator;
 			this.charTranslator = null;
@@ -380,6 +457,7 @@ public class AT_CellContext implements IsTableCellContext {
 	 */
 	public AT_CellContext setTextAlignment(TextAlignment textAlignment){
 		Validate.notNull(textAlignment);
+		this.version++;
 		this.textAlignment = textAlignment;
 		return this;
 	}
@@ -0,0 +1,353 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.text.StrBuilder;
+
+import de.vandermeer.skb.interfaces.transformers.Object_To_StrBuilder;
+import de.vandermeer.skb.interfaces.transformers.String_To_ConditionalBreak;
+import de.vandermeer.skb.interfaces.transformers.textformat.TextAlignment;
+import de.vandermeer.skb.interfaces.transformers.textformat.TextFormat;
+import de.vandermeer.skb.interfaces.transformers.textformat.Text_To_FormattedText;
+
+/**
+ * The processing pipeline for text cells: normalize, translate, (custom stages), wrap, and pad.
+ *
+ * White space is normalized in a single pass without regular expressions.
+ * Translators are applied in the same order of precedence as before (target, HTML element, character translator).
+ * Text wrappers are created once for each combination of width and text alignment and then used for all cells,
+ * for widths up to {@link #MAX_WRAPPER_WIDTH}; wider cells get a new wrapper on each use, so the memory used by a pipeline is bounded.
+ * Custom stages can be added with {@link #withStage(Stage)}, they run after translation and before wrapping,
+ * the built-in stages are not changed by them.
+ *
+ * Pipelines are immutable and thread safe, a pipeline can be shared by any number of renderers.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_CellPipeline {
+
+	/** The default pipeline without custom stages. */
+	public static final AT_CellPipeline DEFAULT = new AT_CellPipeline(new Stage[0]);
+
+	/**
+	 * A custom stage of the pipeline, processing the text of a cell before it is wrapped.
+	 */
+	@FunctionalInterface
+	public interface Stage {
+
+		/**
+		 * Processes the text of a cell.
+		 * @param text the normalized and translated text
+		 * @param ctx the cell context
+		 * @return processed text, must not be null
+		 */
+		String apply(String text, AT_CellContext ctx);
+	}
+
+	/** Custom stages in order. */
+	protected final Stage[] stages;
+
+	/** True if all text is fitted into a single line, ignoring the maximum number of lines of the cells. */
+	protected final boolean singleLine;
+
+	/** Maximum width (exclusive) for which text wrappers are kept. */
+	public static final int MAX_WRAPPER_WIDTH = 256;
+
+	/** Text wrappers indexed by width and alignment, for widths below {@link #MAX_WRAPPER_WIDTH}. */
+	protected final AtomicReferenceArray<Text_To_FormattedText> wrappers = new AtomicReferenceArray<>(MAX_WRAPPER_WIDTH * TextAlignment.values().length);
+
+	/**
+	 * Creates a new pipeline.
+	 * @param stages custom stages
+	 */
+	protected AT_CellPipeline(Stage[] stages){
+		this(stages, false);
+	}
+
+	/**
+	 * Creates a new pipeline.
+	 * @param stages custom stages
+	 * @param singleLine true to fit all text into a single line
+	 */
+	protected AT_CellPipeline(Stage[] stages, boolean singleLine){
+		this.stages = stages;
+		this.singleLine = singleLine;
+	}
+
+	/**
+	 * Returns a new pipeline with all stages of this pipeline plus a new stage at the end.
+	 * @param stage the stage to add, must not be null
+	 * @return new pipeline
+	 * @throws {@link NullPointerException} if stage was null
+	 */
+	public AT_CellPipeline withStage(Stage stage){
+		Validate.notNull(stage);
+		Stage[] ar = Arrays.copyOf(this.stages, this.stages.length + 1);
+		ar[this.stages.length] = stage;
+		return new AT_CellPipeline(ar, this.singleLine);
+	}
+
+	/**
+	 * Returns a new pipeline with all stages of this pipeline that fits all text into a single line,
+	 * as if the maximum number of lines of every cell was 1 (see {@link AT_CellContext#setMaxLines(int)}).
+	 * @return new pipeline
+	 */
+	public AT_CellPipeline asSingleLine(){
+		return new AT_CellPipeline(this.stages, true);
+	}
+
+	/**
+	 * Converts cell content to text: converts it to a string, normalizes white space, and applies translators and custom stages.
+	 * @param content the cell content, must not be null
+	 * @param ctx the cell context with translators
+	 * @return text before wrapping
+	 */
+	public String text(Object content, AT_CellContext ctx){
+		String text = (content instanceof String) ? (String)content : Object_To_StrBuilder.convert(content).toString();
+		text = normalizeWhitespace(text);
+		text = translate(text, ctx);
+		for(Stage stage : this.stages){
+			text = stage.apply(text, ctx);
+		}
+		return text;
+	}
+
+	/**
+	 * Formats cell content as text: converts it to a string, normalizes white space, applies translators and custom stages, and wraps it to the given width.
+	 * @param content the cell content, must not be null
+	 * @param ctx the cell context with translators and text alignment
+	 * @param width the width for the text, without padding
+	 * @return formatted lines of the text
+	 */
+	public Collection<StrBuilder> format(Object content, AT_CellContext ctx, int width){
+		String text = this.text(content, ctx);
+
+		int maxLines = this.singleLine ? 1 : ctx.getMaxLines();
+		if(maxLines==1){
+			//single line, no wrapping; text after a conditional line break is cut as if it was on a following line
+			boolean truncated = false;
+			if(text.contains("<br")){
+				String[] paragraphs = String_To_ConditionalBreak.convert(text);
+				text = paragraphs[0];
+				for(int i=1; i<paragraphs.length; i++){
+					if(!StringUtils.isBlank(paragraphs[i])){
+						truncated = true;
+						break;
+					}
+				}
+			}
+			ArrayList<StrBuilder> ret = new ArrayList<>(1);
+			ret.add(fitLine(StringUtils.strip(text, " "), width, ctx.getTextAlignment(), ctx.getEllipsis(), truncated));
+			return ret;
+		}
+
+		Collection<StrBuilder> ret = this.wrapper(width, ctx.getTextAlignment()).transform(text);
+		if(maxLines>1 && ret.size()>maxLines){
+			ArrayList<StrBuilder> lines = new ArrayList<>(maxLines);
+			for(StrBuilder line : ret){
+				if(lines.size()==maxLines-1){
+					//blanks added by justified alignments are removed before the ellipsis is added
+					lines.add(fitLine(StringUtils.normalizeSpace(line.toString()), width, ctx.getTextAlignment(), ctx.getEllipsis(), true));
+					break;
+				}
+				lines.add(line);
+			}
+			ret = lines;
+		}
+		return ret;
+	}
+
+	/**
+	 * Fits text into a single line of the given width, cutting it if required.
+	 * A cut text ends with the ellipsis, unless the width cannot hold the ellipsis plus one character.
+	 * The line is aligned and padded to the width, justified alignments are used as left and right alignment.
+	 * @param text the text, without leading or trailing blanks
+	 * @param width the width of the line
+	 * @param alignment the text alignment
+	 * @param ellipsis the ellipsis for cut text
+	 * @param truncated true if text was removed already (from following lines), so the ellipsis is required even if the text fits
+	 * @return the line
+	 */
+	static StrBuilder fitLine(String text, int width, TextAlignment alignment, String ellipsis, boolean truncated){
+		width = Math.max(width, 0);
+		if(truncated || text.length()>width){
+			if(ellipsis.length()<width){
+				int keep = Math.min(text.length(), width - ellipsis.length());
+				text = StringUtils.stripEnd(text.substring(0, keep), " ") + ellipsis;
+			}
+			else if(text.length()>width){
+				text = text.substring(0, width);
+			}
+		}
+
+		int space = width - text.length();
+		StrBuilder ret = new StrBuilder(width);
+		switch(alignment){
+			case RIGHT:
+			case JUSTIFIED_RIGHT:
+				ret.appendPadding(space, ' ').append(text);
+				break;
+			case CENTER:
+				ret.appendPadding(space / 2, ' ').append(text).appendPadding(space - space / 2, ' ');
+				break;
+			default:
+				ret.append(text).appendPadding(space, ' ');
+				break;
+		}
+		return ret;
+	}
+
+	/**
+	 * Renders cell content as text including padding.
+	 * @param content the cell content, must not be null
+	 * @param ctx the cell context
+	 * @param width the width for the text, without padding
+	 * @param realWidth the width of the cell, including padding and spanned columns
+	 * @return lines of the cell
+	 */
+	public String[] render(Object content, AT_CellContext ctx, int width, int realWidth){
+		Collection<StrBuilder> csb = this.format(content, ctx, width);
+		String[] ret = new String[ctx.getPaddingTop() + csb.size() + ctx.getPaddingBottom()];
+		int i = 0;
+		for(int k=0; k<ctx.getPaddingTop(); k++){
+			ret[i++] = new StrBuilder(realWidth).appendPadding(realWidth, ctx.getPaddingTopChar()).toString();
+		}
+		for(StrBuilder sb : csb){
+			ret[i++] = new StrBuilder(sb.length() + ctx.getPaddingLeft() + ctx.getPaddingRight())
+					.appendPadding(ctx.getPaddingLeft(), ctx.getPaddingLeftChar())
+					.append(sb)
+					.appendPadding(ctx.getPaddingRight(), ctx.getPaddingRightChar())
+					.toString()
+			;
+		}
+		for(int k=0; k<ctx.getPaddingBottom(); k++){
+			ret[i++] = new StrBuilder(realWidth).appendPadding(realWidth, ctx.getPaddingBottomChar()).toString();
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the text wrapper for a width and a text alignment, creating it on first use.
+	 * Wrappers for widths of {@link #MAX_WRAPPER_WIDTH} or more are not kept.
+	 * @param width the width
+	 * @param alignment the text alignment
+	 * @return text wrapper
+	 */
+	protected Text_To_FormattedText wrapper(int width, TextAlignment alignment){
+		if(width<0 || width>=MAX_WRAPPER_WIDTH){
+			return this.createWrapper(width, alignment);
+		}
+		int index = width * TextAlignment.values().length + alignment.ordinal();
+		Text_To_FormattedText ret = this.wrappers.get(index);
+		if(ret==null){
+			ret = this.createWrapper(width, alignment);
+			this.wrappers.set(index, ret);
+		}
+		return ret;
+	}
+
+	/**
+	 * Creates a new text wrapper for a width and a text alignment.
+	 * @param width the width
+	 * @param alignment the text alignment
+	 * @return new text wrapper
+	 */
+	protected Text_To_FormattedText createWrapper(int width, TextAlignment alignment){
+		return Text_To_FormattedText.create(
+				width,
+				alignment.getMapping(),
+				TextFormat.NONE.getMapping(),
+				null, null, null, 0, 0, null, 0, 0, null
+		);
+	}
+
+	/**
+	 * Applies the translator of a cell context, if any.
+	 * @param text the text to translate
+	 * @param ctx the cell context
+	 * @return translated text
+	 */
+	public static String translate(String text, AT_CellContext ctx){
+		if(ctx.getTargetTranslator()!=null){
+			if(ctx.getTargetTranslator().getCombinedTranslator()!=null){
+				return ctx.getTargetTranslator().getCombinedTranslator().translate(text);
+			}
+		}
+		else if(ctx.getHtmlElementTranslator()!=null){
+			return ctx.getHtmlElementTranslator().translateHtmlElements(text);
+		}
+		else if(ctx.getCharTranslator()!=null){
+			return ctx.getCharTranslator().translateCharacters(text);
+		}
+		return text;
+	}
+
+	/**
+	 * Replaces every sequence of white space characters with a single blank, in a single pass.
+	 * The result is the same as `text.replaceAll("\\s+", " ")`.
+	 * @param text the text, must not be null
+	 * @return normalized text, the same string if nothing had to be replaced
+	 */
+	public static String normalizeWhitespace(String text){
+		int length = text.length();
+		int i = 0;
+		for(; i<length; i++){
+			char c = text.charAt(i);
+			if(isWhitespace(c) && (c!=' ' || (i+1<length && isWhitespace(text.charAt(i+1))))){
+				break;
+			}
+		}
+		if(i==length){
+			return text;
+		}
+
+		StringBuilder sb = new StringBuilder(length);
+		sb.append(text, 0, i);
+		boolean inSpace = false;
+		for(; i<length; i++){
+			char c = text.charAt(i);
+			if(isWhitespace(c)){
+				if(!inSpace){
+					sb.append(' ');
+					inSpace = true;
+				}
+			}
+			else{
+				sb.append(c);
+				inSpace = false;
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Tests for a white space character as defined by `\s` in regular expressions.
+	 * @param c the character
+	 * @return true if the character is blank, tab, new line, vertical tab, form feed, or carriage return
+	 */
+	static boolean isWhitespace(char c){
+		return c==' ' || c=='\t' || c=='\n' || c=='\u000B' || c=='\f' || c=='\r';
+	}
+}
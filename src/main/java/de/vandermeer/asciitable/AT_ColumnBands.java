@@ -0,0 +1,376 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.text.StrBuilder;
+import org.apache.commons.lang3.tuple.Pair;
+
+import de.vandermeer.skb.interfaces.document.TableRowType;
+
+/**
+ * Renders tables with too many columns for the available width as column bands, one after the other.
+ *
+ * The columns of the table are split into bands so that every band fits the width.
+ * Key columns (for instance a name or an identifier) are repeated as first columns of every band,
+ * all other columns are taken in the order of the table, as many as fit into a band.
+ * Bands are separated by empty lines (see {@link #setBandGap(int)}).
+ *
+ * Column widths are calculated once for the whole table with the column width calculator of the bands, by default {@link CWC_LongestLine},
+ * columns wider than a band are limited to the width of a band.
+ * Every cell is formatted once with these widths and then used in every band showing its columns.
+ * Cells spanning columns that end up in different bands (or that are not next to each other in a band) are clipped at the boundaries:
+ * the part with the first column of the cell shows the cell formatted again for its width, all other parts are empty.
+ * The table is rendered with its own context (grid, theme, frame margins) and the cell cache, cell pipeline, render control, and line separator of its renderer.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_ColumnBands {
+
+	/** Key columns repeated in every band, sorted. */
+	protected int[] keyColumns = new int[0];
+
+	/** Calculator for the column widths of the whole table. */
+	protected AT_ColumnWidthCalculator cwc = new CWC_LongestLine();
+
+	/** Number of empty lines between bands. */
+	protected int bandGap = 1;
+
+	/**
+	 * Returns the key columns repeated in every band.
+	 * @return key columns, sorted, empty if none
+	 */
+	public int[] getKeyColumns(){
+		return this.keyColumns.clone();
+	}
+
+	/**
+	 * Sets the key columns repeated in every band, columns not in a table are ignored when it is rendered.
+	 * @param columns indexes of the key columns, starting at 0
+	 * @return this to allow chaining
+	 * @throws {@link IllegalStateException} if a column was negative
+	 */
+	public AT_ColumnBands setKeyColumns(int ...columns){
+		int[] keys = (columns==null) ? new int[0] : Arrays.stream(columns).sorted().distinct().toArray();
+		Validate.validState(keys.length==0 || keys[0]>=0, "key columns must not be negative, found <" + ((keys.length==0) ? 0 : keys[0]) + ">");
+		this.keyColumns = keys;
+		return this;
+	}
+
+	/**
+	 * Returns the column width calculator for the whole table.
+	 * @return calculator
+	 */
+	public AT_ColumnWidthCalculator getCWC(){
+		return this.cwc;
+	}
+
+	/**
+	 * Sets the column width calculator for the whole table, it gets the width of a single band.
+	 * @param cwc the calculator, ignored if null
+	 * @return this to allow chaining
+	 */
+	public AT_ColumnBands setCWC(AT_ColumnWidthCalculator cwc){
+		if(cwc!=null){
+			this.cwc = cwc;
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the number of empty lines between bands.
+	 * @return band gap
+	 */
+	public int getBandGap(){
+		return this.bandGap;
+	}
+
+	/**
+	 * Sets the number of empty lines between bands.
+	 * @param bandGap number of empty lines, 0 or larger
+	 * @return this to allow chaining
+	 * @throws {@link IllegalStateException} if the gap was negative
+	 */
+	public AT_ColumnBands setBandGap(int bandGap){
+		Validate.validState(bandGap>=0, "band gap must not be negative, found <" + bandGap + ">");
+		this.bandGap = bandGap;
+		return this;
+	}
+
+	/**
+	 * Calculates the column widths for the whole table, limiting every column that is not a key column to the width left in a band next to the key columns.
+	 * @param table the table, must not be null
+	 * @param width maximum line width of a band, excluding any extra padding
+	 * @return width of each column
+	 * @throws {@link NullPointerException} if table was null
+	 * @throws {@link IllegalStateException} if the key columns did not leave space for another column
+	 */
+	public int[] calculateColumnWidths(AsciiTable table, int width){
+		Validate.notNull(table);
+		int textWidth = table.getContext().getTextWidth(width);
+		int[] ret = this.cwc.calculateColumnWidths(table.getRawContent(), table.getColNumber(), textWidth);
+		int[] keys = this.keys(ret.length);
+		int available = textWidth - this.keyWidth(ret, keys) - 1;
+		Validate.validState(available>0 || keys.length==ret.length, "key columns leave no space for other columns in width <" + width + ">");
+		for(int i=0; i<ret.length; i++){
+			if(ret[i]>available && Arrays.binarySearch(keys, i)<0){
+				ret[i] = available;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Splits columns into bands.
+	 * @param colWidth width of each column
+	 * @param textWidth width available for a band including borders
+	 * @return columns of each band, key columns first
+	 */
+	public int[][] getBands(int[] colWidth, int textWidth){
+		Validate.notNull(colWidth);
+		int[] keys = this.keys(colWidth.length);
+		int keyWidth = this.keyWidth(colWidth, keys);
+
+		ArrayList<int[]> ret = new ArrayList<>();
+		int[] band = new int[colWidth.length];
+		int size = 0;
+		int bandWidth = keyWidth;
+		for(int col=0; col<colWidth.length; col++){
+			if(Arrays.binarySearch(keys, col)>=0){
+				continue;
+			}
+			if(size>0 && bandWidth + colWidth[col] + 1>textWidth){
+				ret.add(this.band(keys, band, size));
+				size = 0;
+				bandWidth = keyWidth;
+			}
+			band[size++] = col;
+			bandWidth += colWidth[col] + 1;
+		}
+		if(size>0 || ret.isEmpty()){
+			ret.add(this.band(keys, band, size));
+		}
+		return ret.toArray(new int[ret.size()][]);
+	}
+
+	/**
+	 * Renders a table as column bands with the width of its context.
+	 * @param table the table, must not be null
+	 * @return rendered bands
+	 * @throws {@link NullPointerException} if table was null
+	 */
+	public String render(AsciiTable table){
+		Validate.notNull(table);
+		return this.render(table, table.getContext().getWidth());
+	}
+
+	/**
+	 * Renders a table as column bands.
+	 * @param table the table, must not be null
+	 * @param width maximum line width of a band, excluding any extra padding
+	 * @return rendered bands
+	 * @throws {@link NullPointerException} if table was null
+	 */
+	public String render(AsciiTable table, int width){
+		return this.renderTo(new StrBuilder(), table, width).build();
+	}
+
+	/**
+	 * Renders a table as column bands directly into an appendable, writing each line as soon as it is finished.
+	 * @param out the appendable to render to, must not be null
+	 * @param table the table, must not be null
+	 * @param width maximum line width of a band, excluding any extra padding
+	 * @return the given appendable
+	 * @throws {@link NullPointerException} if out or table was null
+	 * @throws {@link AsciiTableException} if a row could not be rendered or writing to the appendable failed
+	 */
+	public <A extends Appendable> A renderTo(A out, AsciiTable table, int width){
+		Validate.notNull(out);
+		Validate.notNull(table);
+
+		AT_Context ctx = table.getContext();
+		AT_Renderer renderer = table.getRenderer();
+		LinkedList<AT_Row> rows = table.getRawContent();
+		int colNumbers = table.getColNumber();
+		int[] colWidth = this.calculateColumnWidths(table, width);
+		int[][] bands = this.getBands(colWidth, ctx.getTextWidth(width));
+		AT_CellCache cache = renderer.getCellCache();
+		AT_CellPipeline pipeline = renderer.getCellPipeline();
+		AT_RenderControl control = renderer.getRenderControl();
+		if(control!=null){
+			control.start();
+		}
+
+		//format all cells once: rule sets for rules, cell lines for content
+		AT_Row[] rowAr = rows.toArray(new AT_Row[rows.size()]);
+		Object[] formatted = new Object[rowAr.length];
+		for(int i=0; i<rowAr.length; i++){
+			if(control!=null){
+				control.row();
+			}
+			formatted[i] = (rowAr[i].getType()==TableRowType.CONTENT)
+					? AT_RenderHelpers.renderCells(rowAr[i], colNumbers, colWidth, cache, pipeline)
+					: AT_RenderHelpers.renderRow(rowAr[i], colNumbers, colWidth)
+			;
+		}
+
+		String separator = AT_RenderHelpers.lineSeparator(renderer, ctx);
+		int mode = ctx.getGridTheme() | ctx.getGridThemeOptions();
+		for(int b=0; b<bands.length; b++){
+			if(b>0){
+				try{
+					for(int k=0; k<=this.bandGap; k++){
+						out.append(separator);
+					}
+				}
+				catch(IOException ex){
+					throw new AsciiTableException(ex);
+				}
+			}
+			int[] band = bands[b];
+			int[] bandWidth = new int[band.length];
+			for(int j=0; j<band.length; j++){
+				bandWidth[j] = colWidth[band[j]];
+			}
+			ArrayList<Object> bandRows = new ArrayList<>(rowAr.length);
+			for(int i=0; i<rowAr.length; i++){
+				if(formatted[i] instanceof String[][]){
+					String[][] cells = this.project(rowAr[i], (String[][])formatted[i], band, colWidth, cache, pipeline);
+					bandRows.add(Pair.of(AT_RenderHelpers.ruleset(rowAr[i]), AT_RenderHelpers.toRowLines(cells, band.length)));
+				}
+				else{
+					bandRows.add(formatted[i]);
+				}
+			}
+			AT_LineWriter writer = new AT_LineWriter(out, ctx, separator).setControl(control);
+			AT_GridStream grid = new AT_GridStream(ctx.getGrid(), mode, AT_RenderHelpers.gridColumns(bandRows, bandWidth), writer);
+			bandRows.forEach(grid::add);
+			grid.finish();
+			writer.finish();
+		}
+		return out;
+	}
+
+	/**
+	 * Selects the cells of a band from the formatted cells of a row.
+	 * Band columns following each other in the table and showing the same cell are joined to a single cell, as in the table.
+	 * A cell is taken as formatted if all its columns are joined.
+	 * Otherwise the cell is clipped: the part with its first column shows it formatted again for the columns of the part, other parts are empty.
+	 * @param row the row
+	 * @param formatted formatted cells of the row, spanned columns are null
+	 * @param band columns of the band
+	 * @param colWidth width of each column
+	 * @param cache cache for rendered cells, null to render all cells
+	 * @param pipeline pipeline for text cells
+	 * @return cells of the band, spanned columns are null
+	 */
+	protected String[][] project(AT_Row row, String[][] formatted, int[] band, int[] colWidth, AT_CellCache cache, AT_CellPipeline pipeline){
+		String[][] ret = new String[band.length][];
+		AT_Cell[] cells = row.getCellArray();
+		int[] owner = this.owners(formatted);
+		int j = 0;
+		while(j<band.length){
+			int cell = owner[band[j]];
+			int k = j;
+			while(k+1<band.length && band[k+1]==band[k] + 1 && owner[band[k+1]]==cell){
+				k++;
+			}
+			if(cell!=-1){
+				int first = cell;
+				while(first>0 && owner[first - 1]==cell){
+					first--;
+				}
+				int realWidth = k - j;
+				for(int i=j; i<=k; i++){
+					realWidth += colWidth[band[i]];
+				}
+				if(band[j]==first && band[k]==cell){
+					ret[k] = formatted[cell];
+				}
+				else if(band[j]!=first){
+					ret[k] = new String[]{StringUtils.repeat(' ', realWidth)};
+				}
+				else{
+					AT_CellContext cctx = cells[cell].getContext();
+					ret[k] = AT_RenderHelpers.renderCell(cells[cell].getContent(), cctx, realWidth - cctx.getPaddingLeft() - cctx.getPaddingRight(), realWidth, cache, pipeline);
+				}
+			}
+			j = k + 1;
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the cell shown in each column, the next cell with content at or after the column.
+	 * @param formatted formatted cells of the row, spanned columns are null
+	 * @return index of the cell for each column, -1 if no cell is shown in the column
+	 */
+	protected int[] owners(String[][] formatted){
+		int[] ret = new int[formatted.length];
+		int cell = -1;
+		for(int i=formatted.length - 1; i>=0; i--){
+			if(formatted[i]!=null){
+				cell = i;
+			}
+			ret[i] = cell;
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the key columns within a number of columns.
+	 * @param colNumbers number of columns
+	 * @return sorted key columns smaller than the number of columns
+	 */
+	protected int[] keys(int colNumbers){
+		return Arrays.stream(this.keyColumns).filter(col -> col<colNumbers).toArray();
+	}
+
+	/**
+	 * Returns the width of the key columns including their borders and the left border of the band.
+	 * @param colWidth width of each column
+	 * @param keys key columns
+	 * @return width of the key columns
+	 */
+	protected int keyWidth(int[] colWidth, int[] keys){
+		int ret = 1;
+		for(int key : keys){
+			ret += colWidth[key] + 1;
+		}
+		return ret;
+	}
+
+	/**
+	 * Creates the columns of a band.
+	 * @param keys key columns
+	 * @param band other columns
+	 * @param size number of other columns
+	 * @return key columns followed by the other columns
+	 */
+	protected int[] band(int[] keys, int[] band, int size){
+		int[] ret = Arrays.copyOf(keys, keys.length + size);
+		System.arraycopy(band, 0, ret, keys.length, size);
+		return ret;
+	}
+}
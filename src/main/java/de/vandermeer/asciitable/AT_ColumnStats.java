@@ -0,0 +1,177 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+import org.apache.commons.lang3.StringUtils;
+
+import de.vandermeer.skb.interfaces.document.TableRowType;
+import de.vandermeer.skb.interfaces.transformers.Object_To_StrBuilder;
+import de.vandermeer.skb.interfaces.transformers.String_To_ConditionalBreak;
+
+/**
+ * Minimum and preferred width of a table, measured from the cell content and the column width calculator of the table.
+ *
+ * For tables with evenly distributed columns ({@link CWC_AbsoluteEven}) every column is measured:
+ * its minimum width is its longest word, its preferred width its longest line, both plus cell padding.
+ * Cells spanning several columns widen the last spanned column if the spanned columns are too narrow.
+ * Since all columns get the same width, the widest column determines the table width.
+ * All other calculators produce column widths independent of the table width, so minimum and preferred width are the width calculated by them.
+ *
+ * Content implementing {@link AT_Measurable} is asked for its widths instead of being measured as text.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+final class AT_ColumnStats {
+
+	/** Minimum table width, without frame margins. */
+	final int minWidth;
+
+	/** Preferred table width, without frame margins. */
+	final int preferredWidth;
+
+	/** The calculator the widths were measured for. */
+	final AT_ColumnWidthCalculator cwc;
+
+	/**
+	 * Creates new statistics.
+	 * @param minWidth minimum table width
+	 * @param preferredWidth preferred table width
+	 * @param cwc the calculator the widths were measured for
+	 */
+	private AT_ColumnStats(int minWidth, int preferredWidth, AT_ColumnWidthCalculator cwc){
+		this.minWidth = minWidth;
+		this.preferredWidth = preferredWidth;
+		this.cwc = cwc;
+	}
+
+	/**
+	 * Measures a table.
+	 * @param rows the table rows
+	 * @param colNumbers number of columns in the table
+	 * @param cwc the column width calculator of the table
+	 * @param textWidth the width of the table without frame margins, used for calculators other than {@link CWC_AbsoluteEven}
+	 * @return table statistics
+	 */
+	static AT_ColumnStats create(LinkedList<AT_Row> rows, int colNumbers, AT_ColumnWidthCalculator cwc, int textWidth){
+		if(!(cwc instanceof CWC_AbsoluteEven)){
+			int width = sum(cwc.calculateColumnWidths(rows, colNumbers, textWidth));
+			return new AT_ColumnStats(width, width, cwc);
+		}
+
+		int[] min = new int[colNumbers];
+		int[] pref = new int[colNumbers];
+		ArrayList<int[]> spans = new ArrayList<>();
+		for(AT_Row row : rows){
+			if(row.getType()!=TableRowType.CONTENT){
+				continue;
+			}
+			AT_Cell[] cells = row.getCellArray();
+			int start = 0;
+			for(int i=0; i<cells.length && i<colNumbers; i++){
+				Object content = cells[i].getContent();
+				if(content==null){
+					continue;
+				}
+				AT_CellContext ctx = cells[i].getContext();
+				int padding = ctx.getPaddingLeft() + ctx.getPaddingRight();
+				int cellMin = Math.max(minWidth(content), 0) + padding;
+				int cellPref = Math.max(preferredWidth(content), 0) + padding;
+				if(start==i){
+					min[i] = Math.max(min[i], cellMin);
+					pref[i] = Math.max(pref[i], cellPref);
+				}
+				else{
+					spans.add(new int[]{start, i, cellMin, cellPref});
+				}
+				start = i + 1;
+			}
+		}
+
+		//spanned cells include the borders between their columns
+		for(int[] span : spans){
+			int minSum = span[1] - span[0];
+			int prefSum = span[1] - span[0];
+			for(int i=span[0]; i<=span[1]; i++){
+				minSum += min[i];
+				prefSum += pref[i];
+			}
+			min[span[1]] += Math.max(span[2] - minSum, 0);
+			pref[span[1]] += Math.max(span[3] - prefSum, 0);
+		}
+
+		//all columns get the same width, at least 3 characters
+		int minCol = 3;
+		int prefCol = 3;
+		for(int i=0; i<colNumbers; i++){
+			minCol = Math.max(minCol, min[i]);
+			prefCol = Math.max(prefCol, pref[i]);
+		}
+		return new AT_ColumnStats(
+				colNumbers * minCol + colNumbers + 1,
+				colNumbers * Math.max(minCol, prefCol) + colNumbers + 1,
+				cwc
+		);
+	}
+	/**
+	 * Returns the minimum width of cell content, the length of its longest word.
+	 * @param content the cell content, must not be null
+	 * @return minimum width without padding, -1 if the content has no words
+	 */
+	static int minWidth(Object content){
+		if(content instanceof AT_Measurable){
+			return ((AT_Measurable)content).getMinWidth();
+		}
+		int ret = -1;
+		for(String word : StringUtils.split(Object_To_StrBuilder.convert(content).toString())){
+			ret = Math.max(ret, word.length());
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the preferred width of cell content, the length of its longest line.
+	 * @param content the cell content, must not be null
+	 * @return preferred width without padding, -1 if the content has no lines
+	 */
+	static int preferredWidth(Object content){
+		if(content instanceof AT_Measurable){
+			return ((AT_Measurable)content).getPreferredWidth();
+		}
+		int ret = -1;
+		for(String line : String_To_ConditionalBreak.convert(Object_To_StrBuilder.convert(content).toString())){
+			ret = Math.max(ret, line.length());
+		}
+		return ret;
+	}
+
+	/**
+	 * Adds column widths and borders.
+	 * @param widths column widths
+	 * @return table width
+	 */
+	private static int sum(int[] widths){
+		int ret = widths.length + 1;
+		for(int w : widths){
+			ret += w;
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,273 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.Validate;
+
+import de.vandermeer.asciithemes.TA_Grid;
+import de.vandermeer.asciithemes.TA_GridConfig;
+import de.vandermeer.asciithemes.TA_GridHelpers;
+
+/**
+ * A grid compiled for one theme and set of options, with lookup tables for all border characters.
+ *
+ * A border position/type (direction, rule position, and rule set) has 12 bits.
+ * For every position/type, every vertical line position (only line, first, middle, last), and every horizontal position
+ * (left or right border, inner connector) the compiled grid holds the final character: border and connector conversion
+ * of the theme options and the character map lookup (including the fallback to the rule set without rule position) are done once,
+ * the first time an entry is used.
+ * Renderers only adjust a border to its neighbors and then read the character from an array.
+ *
+ * Compiled grids are cached by the contents of the grid's character map and the mode, see {@link #get(TA_Grid, int)},
+ * so grids created again by the grid factories (for instance for every new table) share one compiled grid.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public final class AT_CompiledGrid {
+
+	/** Number of position/types covered by the tables, all type, rule position, and rule set bits. */
+	static final int POSTYPES = 1 << 12;
+
+	/** Maximum number of compiled grids in the cache. */
+	static final int CACHE_SIZE = 64;
+
+	/** Vertical line position: the line is the only line. */
+	public static final int LINE_SINGLE = 0;
+
+	/** Vertical line position: the line is the first of several lines. */
+	public static final int LINE_FIRST = 1;
+
+	/** Vertical line position: the line is neither first nor last. */
+	public static final int LINE_MID = 2;
+
+	/** Vertical line position: the line is the last of several lines. */
+	public static final int LINE_LAST = 3;
+
+	/** Position arguments for {@link TA_GridHelpers} (line position and max vertical index) per line position. */
+	private static final int[][] LINE_ARGS = new int[][]{{0, 0}, {0, 2}, {1, 2}, {2, 2}};
+
+	/** Table entry not yet resolved. */
+	private static final int UNKNOWN = 0;
+
+	/** Table entry without a character in the map. */
+	private static final int MISSING = -1;
+
+	/** Error message for a missing border character, as used by the grid. */
+	private static final String MISSING_MSG = "problem creating a border character, did not find character for <null>";
+
+	/** Cache of compiled grids, least recently used are removed first. */
+	private static final Map<Key, AT_CompiledGrid> CACHE = new LinkedHashMap<Key, AT_CompiledGrid>(16, 0.75f, true){
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, AT_CompiledGrid> eldest){
+			return this.size()>CACHE_SIZE;
+		}
+	};
+
+	/** Lock for the cache. */
+	private static final ReentrantLock LOCK = new ReentrantLock();
+
+	/**
+	 * Cache key of character map contents and mode.
+	 */
+	static final class Key {
+
+		/** The character map. */
+		final Map<Integer, Character> cmap;
+
+		/** The grid theme and options. */
+		final int mode;
+
+		/** The hash code. */
+		final int hash;
+
+		/**
+		 * Creates a new key.
+		 * @param cmap the character map
+		 * @param mode the grid theme and options
+		 */
+		Key(Map<Integer, Character> cmap, int mode){
+			this.cmap = cmap;
+			this.mode = mode;
+			this.hash = 31 * cmap.hashCode() + mode;
+		}
+
+		@Override
+		public int hashCode(){
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj){
+			if(!(obj instanceof Key)){
+				return false;
+			}
+			Key other = (Key)obj;
+			return this.mode==other.mode && this.hash==other.hash && this.cmap.equals(other.cmap);
+		}
+	}
+
+	/** Snapshot of the grid's character map. */
+	private final Map<Integer, Character> cmap;
+
+	/** The grid theme and options. */
+	private final int mode;
+
+	/** Resolved entries for line position, horizontal position (border or inner), and position/type: character + 1, or a marker. */
+	private final int[] chars;
+
+	/**
+	 * Creates a new compiled grid.
+	 * @param cmap snapshot of the character map
+	 * @param mode the grid theme and options
+	 */
+	private AT_CompiledGrid(Map<Integer, Character> cmap, int mode){
+		this.cmap = cmap;
+		this.mode = mode;
+		this.chars = new int[8 * POSTYPES];
+	}
+
+	/**
+	 * Returns the compiled grid for a grid and mode, creating it if not cached.
+	 * @param grid the grid, must not be null
+	 * @param mode the grid theme and options
+	 * @return compiled grid
+	 * @throws {@link NullPointerException} if grid was null
+	 */
+	public static AT_CompiledGrid get(TA_Grid grid, int mode){
+		Validate.notNull(grid);
+		Map<Integer, Character> cmap = grid.getCharacterMap();
+		LOCK.lock();
+		try{
+			AT_CompiledGrid ret = CACHE.get(new Key(cmap, mode));
+			if(ret==null){
+				Map<Integer, Character> snapshot = new HashMap<>(cmap);
+				ret = new AT_CompiledGrid(snapshot, mode);
+				CACHE.put(new Key(snapshot, mode), ret);
+			}
+			return ret;
+		}
+		finally{
+			LOCK.unlock();
+		}
+	}
+
+	/**
+	 * Removes all compiled grids from the cache.
+	 */
+	public static void clearCache(){
+		LOCK.lock();
+		try{
+			CACHE.clear();
+		}
+		finally{
+			LOCK.unlock();
+		}
+	}
+
+	/**
+	 * Returns the vertical line position for the position arguments used by {@link TA_GridHelpers}.
+	 * @param pos position of the line (0 first, 2 last, 1 other)
+	 * @param vsize 0 if the line is the only line, 2 otherwise
+	 * @return line position, one of the `LINE_` constants
+	 */
+	public static int line(int pos, int vsize){
+		if(vsize==0){
+			return LINE_SINGLE;
+		}
+		return (pos==0) ? LINE_FIRST : ((pos==2) ? LINE_LAST : LINE_MID);
+	}
+
+	/**
+	 * Returns the character for a border, after border and connector conversion.
+	 * @param postype the position/type adjusted to its neighbors
+	 * @param line the line position, see {@link #line(int, int)}
+	 * @param h horizontal position in the line
+	 * @param hsize max horizontal index of the line
+	 * @return grid character
+	 * @throws {@link IllegalStateException} if the grid has no character for the position/type
+	 */
+	public char character(int postype, int line, int h, int hsize){
+		if((postype & ~(POSTYPES - 1))!=0){
+			//outside the tables, resolve directly
+			return this.resolve(postype, line, h, hsize);
+		}
+
+		//inner positions are resolved with h=1 and borders with h=0, using a max horizontal index of 2
+		int inner = (h==0 || h==hsize) ? 0 : 1;
+		int index = (((line << 1) | inner) * POSTYPES) + postype;
+		int c = this.chars[index];
+		if(c==UNKNOWN){
+			//entries are deterministic, so concurrent writes of the same value are harmless
+			try{
+				c = this.resolve(postype, line, inner, 2) + 1;
+			}
+			catch(IllegalStateException ex){
+				c = MISSING;
+			}
+			this.chars[index] = c;
+		}
+		if(c==MISSING){
+			throw new IllegalStateException(MISSING_MSG);
+		}
+		return (char)(c - 1);
+	}
+
+	/**
+	 * Resolves the character for a border: converts borders and connectors and looks up the character.
+	 * @param postype the position/type adjusted to its neighbors
+	 * @param line the line position
+	 * @param h horizontal position in the line
+	 * @param hsize max horizontal index of the line
+	 * @return grid character
+	 * @throws {@link IllegalStateException} if the grid has no character for the position/type
+	 */
+	private char resolve(int postype, int line, int h, int hsize){
+		int[] args = LINE_ARGS[line];
+		postype = TA_GridHelpers.convertBorders(postype, args[0], h, args[1], hsize, this.mode);
+		postype = TA_GridHelpers.convertConnectors(postype, args[0], h, args[1], hsize, this.mode);
+
+		Character c = this.cmap.get(postype);
+		if(c==null){
+			//remove added rulesets (top, middle, bottom, content) and try again
+			postype = postype & ~TA_GridConfig.CHAR_TOP_RULE;
+			postype = postype & ~TA_GridConfig.CHAR_MID_RULE;
+			postype = postype & ~TA_GridConfig.CHAR_BOTTOM_RULE;
+			postype = postype & ~TA_GridConfig.CHAR_CONTENT_RULE;
+			c = this.cmap.get(postype);
+		}
+		if(c==null){
+			throw new IllegalStateException(MISSING_MSG);
+		}
+		return c;
+	}
+
+	/**
+	 * Returns the grid theme and options.
+	 * @return mode
+	 */
+	public int getMode(){
+		return this.mode;
+	}
+}
@@ -71,6 +71,9 @@ public class AT_Context implements IsTableContext {
 	/** Options for the grid, for instance show empty lines. */
 	protected int gridThemeOptions = TA_GridThemeOptions.SHOW_EMPTY_ALL.get();
 
+	/** Modification version, incremented by every setter. */
+	protected long version;
+
 	/**
 	 * Returns the bottom frame margin character.
 	 * @return bottom frame margin character
@@ -141,6 +144,14 @@ public class AT_Context implements IsTableContext {
 		return ret;
 	}
 
+	/**
+	 * Returns the modification version of the context.
+	 * @return version, changes whenever a setter is called
+	 */
+	public long getVersion(){
+		return this.version;
+	}
+
 	@Override
 	public int getWidth() {
 		return this.width;
@@ -155,6 +166,7 @@ public class AT_Context implements IsTableContext {
 		if(frameBottom!=null){
 			this.frameBottomMarginChar = frameBottom;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -167,6 +179,7 @@ public class AT_Context implements IsTableContext {
 		if(frameBottom>-1){
 			this.frameBottomMargin = frameBottom;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -179,6 +192,7 @@ public class AT_Context implements IsTableContext {
 		if(frameLeft!=null){
 			this.frameLeftChar = frameLeft;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -191,6 +205,7 @@ public class AT_Context implements IsTableContext {
 		if(frameLeft>-1){
 			this.frameLeftMargin = frameLeft;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -204,6 +219,7 @@ public class AT_Context implements IsTableContext {
 			this.frameLeftChar = frameChar;
 			this.frameRightChar = frameChar;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -218,6 +234,7 @@ public class AT_Context implements IsTableContext {
 			this.frameLeftChar = frameLeft;
 			this.frameRightChar = frameRight;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -231,6 +248,7 @@ public class AT_Context implements IsTableContext {
 			this.frameLeftMargin = frameMargin;
 			this.frameRightMargin = frameMargin;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -245,6 +263,7 @@ public class AT_Context implements IsTableContext {
 			this.frameLeftMargin = frameLeft;
 			this.frameRightMargin = frameRight;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -257,6 +276,7 @@ public class AT_Context implements IsTableContext {
 		if(frameRight!=null){
 			this.frameRightChar = frameRight;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -269,6 +289,7 @@ public class AT_Context implements IsTableContext {
 		if(frameRight>-1){
 			this.frameRightMargin = frameRight;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -282,6 +303,7 @@ public class AT_Context implements IsTableContext {
 			this.frameTopMargin = frameMargin;
 			this.frameBottomMargin = frameMargin;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -296,6 +318,7 @@ public class AT_Context implements IsTableContext {
 			this.frameTopMargin = frameTop;
 			this.frameBottomMargin = frameBottom;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -308,6 +331,7 @@ public class AT_Context implements IsTableContext {
 		if(frameTop!=null){
 			this.frameTopMarginChar = frameTop;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -320,6 +344,7 @@ public class AT_Context implements IsTableContext {
 		if(frameTop>-1){
 			this.frameTopMargin = frameTop;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -330,6 +355,7 @@ public class AT_Context implements IsTableContext {
 	 */
 	public AT_Context setWidth(int width) {
 		this.width = width;
+		this.version++;
 		return this;
 	}
 
@@ -342,6 +368,7 @@ public class AT_Context implements IsTableContext {
 		if(grid!=null){
 			this.grid = grid;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -362,6 +389,7 @@ public class AT_Context implements IsTableContext {
 		if(theme!=null){
 			this.setGridTheme(theme.get());
 		}
+		this.version++;
 		return this;
 	}
 
@@ -374,6 +402,7 @@ public class AT_Context implements IsTableContext {
 		if(theme>=0){
 			this.gridTheme = theme;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -386,6 +415,7 @@ public class AT_Context implements IsTableContext {
 		if(options!=null){
 			this.setGridThemeOptions(options.get());
 		}
+		this.version++;
 		return this;
 	}
 
@@ -398,6 +428,7 @@ public class AT_Context implements IsTableContext {
 		if(options>=0){
 			this.gridThemeOptions = options;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -427,6 +458,7 @@ public class AT_Context implements IsTableContext {
 		if(!StringUtils.isBlank(separator)){
 			this.lineSeparator = separator;
 		}
+		this.version++;
 		return this;
 	}
 
@@ -0,0 +1,282 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_BOTTOM_CONNECTOR;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_BOTTOM_CORNER_LEFT;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_BOTTOM_CORNER_RIGHT;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_BOTTOM_LINE;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_MID_BORDER_LEFT;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_MID_BORDER_RIGHT;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_MID_CONNECTOR;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_MID_LINE;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_TOP_CONNECTOR;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_TOP_CORNER_LEFT;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_TOP_CORNER_RIGHT;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_TOP_LINE;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.text.StrBuilder;
+import org.apache.commons.lang3.tuple.Pair;
+
+import de.vandermeer.asciithemes.TA_Grid;
+import de.vandermeer.asciithemes.TA_GridConfig;
+import de.vandermeer.asciithemes.TA_GridHelpers;
+
+/**
+ * Adds a grid to table content row by row, emitting every finished line as soon as it is known.
+ *
+ * The result is the same as {@link TA_Grid#addGrid(java.util.Collection, int)} with the column widths given up front.
+ * Only the previous, the current, and the next line of the frame are kept, so memory does not grow with the table.
+ * Rows are given with {@link #add(Object)} in the same form as for the grid,
+ * that is an `Integer` with the rule set for rules and a `Pair` of rule set and `String[][]` for content.
+ * Calling {@link #finish()} emits the remaining lines.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_GridStream {
+
+	/** Options for adding a top rule. */
+	static final int[][] TOP_RULE = new int[][]{
+			{HAS_TOP_CORNER_LEFT, TA_GridConfig.PT_TOP_LEFT},
+			{HAS_TOP_LINE, TA_GridConfig.PT_HORIZONTAL},
+			{HAS_TOP_CONNECTOR, TA_GridConfig.PT_MID_DOWN},
+			{HAS_TOP_CORNER_RIGHT, TA_GridConfig.PT_TOP_RIGHT},
+	};
+
+	/** Options for adding a mid rule. */
+	static final int[][] MID_RULE = new int[][]{
+			{HAS_MID_BORDER_LEFT, TA_GridConfig.PT_MID_LEFT},
+			{HAS_MID_LINE, TA_GridConfig.PT_HORIZONTAL},
+			{HAS_MID_CONNECTOR, TA_GridConfig.PT_MID_BOTH},
+			{HAS_MID_BORDER_RIGHT, TA_GridConfig.PT_MID_RIGHT},
+	};
+
+	/** Options for adding a bottom rule. */
+	static final int[][] BOTTOM_RULE = new int[][]{
+			{HAS_BOTTOM_CORNER_LEFT, TA_GridConfig.PT_BOTTOM_LEFT},
+			{HAS_BOTTOM_LINE, TA_GridConfig.PT_HORIZONTAL},
+			{HAS_BOTTOM_CONNECTOR, TA_GridConfig.PT_MID_UP},
+			{HAS_BOTTOM_CORNER_RIGHT, TA_GridConfig.PT_BOTTOM_RIGHT},
+	};
+
+	/** The grid to draw. */
+	protected final TA_Grid grid;
+
+	/** The grid mode, theme and options. */
+	protected final int mode;
+
+	/** The grid compiled for the mode, with all border characters. */
+	protected final AT_CompiledGrid compiled;
+
+	/** The column widths used for rules. */
+	protected final ArrayList<Integer> columns;
+
+	/** Receiver for finished lines. */
+	protected final Consumer<StrBuilder> out;
+
+	/** Row waiting for the next one to know if it is the last row. */
+	protected Object pendingRow;
+
+	/** Number of rows added so far. */
+	protected int rowCount;
+
+	/** Number of rows turned into frame lines so far. */
+	protected int framedRows;
+
+	/** The frame line before the current line, null if the current line is the first line. */
+	protected ArrayList<Object> previousLine;
+
+	/** The frame line waiting for its next line to be known. */
+	protected ArrayList<Object> currentLine;
+
+	/** Number of lines emitted so far. */
+	protected int lineCount;
+
+	/**
+	 * Creates a new grid stream.
+	 * @param grid the grid to draw, must not be null
+	 * @param mode the grid theme and options
+	 * @param colWidth the width of each column, must not be null
+	 * @param out receiver for finished lines, must not be null
+	 * @throws {@link NullPointerException} if any argument was null
+	 */
+	public AT_GridStream(TA_Grid grid, int mode, int[] colWidth, Consumer<StrBuilder> out){
+		Validate.notNull(grid);
+		Validate.notNull(colWidth);
+		Validate.notNull(out);
+		this.grid = grid;
+		this.mode = mode;
+		this.compiled = AT_CompiledGrid.get(grid, mode);
+		this.out = out;
+		this.columns = new ArrayList<>(colWidth.length);
+		for(int w : colWidth){
+			this.columns.add(w);
+		}
+	}
+
+	/**
+	 * Adds a row, emitting all lines that are finished with it.
+	 * @param row the row, an `Integer` for a rule or a `Pair` of rule set and `String[][]` for content
+	 * @throws {@link NullPointerException} if row was null
+	 * @throws {@link IllegalArgumentException} if row was of unknown type
+	 */
+	public void add(Object row){
+		Validate.notNull(row);
+		if(this.pendingRow!=null){
+			this.addFrame(this.pendingRow, false);
+		}
+		this.pendingRow = row;
+		this.rowCount++;
+	}
+
+	/**
+	 * Finishes the stream emitting all remaining lines.
+	 * @throws {@link IllegalStateException} if no row was added
+	 */
+	public void finish(){
+		Validate.validState(this.rowCount>0, "no content provided, size of collection was 0");
+		if(this.pendingRow!=null){
+			this.addFrame(this.pendingRow, true);
+			this.pendingRow = null;
+		}
+		if(this.currentLine!=null){
+			this.emit(null);
+			this.currentLine = null;
+		}
+	}
+
+	/**
+	 * Starts the stream in the middle of a table, before any row is added.
+	 * The next row is treated as the row with the given index, and its first line as the line with the given index.
+	 * The first line of that row is painted without the line before it, it should not be used.
+	 * @param rowIndex index of the next row in the table
+	 * @param lineIndex index of the first grid line of the next row in the table
+	 */
+	void startAt(int rowIndex, int lineIndex){
+		Validate.validState(this.rowCount==0, "stream already started");
+		this.framedRows = rowIndex;
+		this.lineCount = lineIndex;
+	}
+
+	/**
+	 * Stops the stream at a row that is not the last row of the table.
+	 * All lines with a known next line are emitted, the lines of the last added row are not.
+	 */
+	void stop(){
+		if(this.pendingRow!=null){
+			this.addFrame(this.pendingRow, false);
+			this.pendingRow = null;
+		}
+	}
+
+	/**
+	 * Returns the number of lines emitted so far.
+	 * @return number of emitted lines
+	 */
+	public int getLineCount(){
+		return this.lineCount;
+	}
+
+	/**
+	 * Calculates the frame lines of a row and pushes them into the line window.
+	 * @param row the row
+	 * @param isLast true if this is the last row of the table
+	 */
+	protected void addFrame(Object row, boolean isLast){
+		ArrayList<ArrayList<Object>> frame = new ArrayList<>();
+		if(row instanceof Integer){
+			int ruletype = (Integer)row;
+			this.grid.testRuleType(ruletype);
+			if(this.framedRows==0){
+				TA_GridHelpers.addRule(TOP_RULE, this.mode, ruletype | TA_GridConfig.CHAR_TOP_RULE, this.columns, frame);
+			}
+			else if(isLast){
+				TA_GridHelpers.addRule(BOTTOM_RULE, this.mode, ruletype | TA_GridConfig.CHAR_BOTTOM_RULE, this.columns, frame);
+			}
+			else{
+				TA_GridHelpers.addRule(MID_RULE, this.mode, ruletype | TA_GridConfig.CHAR_MID_RULE, this.columns, frame);
+			}
+		}
+		else if(row instanceof Pair){
+			if(((Pair<?, ?>)row).getValue().getClass().isInstance(new String[][]{})){
+				String[][] ar = (String[][])((Pair<?, ?>)row).getValue();
+				int ruletype = (Integer)((Pair<?, ?>)row).getKey();
+				this.grid.testRuleType(ruletype);
+				TA_GridHelpers.addContentRow(ar, this.mode, ruletype | TA_GridConfig.CHAR_CONTENT_RULE, frame);
+			}
+		}
+		else{
+			throw new IllegalArgumentException("unknown object type in content, found: <" + row.getClass().getSimpleName() + ">");
+		}
+
+		this.framedRows++;
+
+		for(ArrayList<Object> line : frame){
+			if(this.currentLine!=null){
+				this.emit(line);
+			}
+			this.currentLine = line;
+		}
+	}
+
+	/**
+	 * Paints the current line and moves the window one line down.
+	 * @param nextLine the line after the current line, null if the current line is the last line
+	 */
+	protected void emit(ArrayList<Object> nextLine){
+		ArrayList<ArrayList<Object>> window = new ArrayList<>(3);
+		if(this.previousLine!=null){
+			window.add(this.previousLine);
+		}
+		int v = window.size();
+		window.add(this.currentLine);
+		if(nextLine!=null){
+			window.add(nextLine);
+		}
+
+		//position of the line for converting borders and connectors: only first, last, or in between matters
+		boolean isFirst = this.lineCount==0;
+		boolean isLast = nextLine==null;
+		int pos = (isFirst) ? 0 : (isLast ? 2 : 1);
+		int vsize = (isFirst && isLast) ? 0 : 2;
+
+		int line = AT_CompiledGrid.line(pos, vsize);
+		int hsize = this.currentLine.size() - 1;
+		StrBuilder sb = new StrBuilder(this.currentLine.size());
+		for(int k=0; k<this.currentLine.size(); k++){
+			Object o = this.currentLine.get(k);
+			if(o instanceof Integer){
+				int postype = (Integer)o;
+				postype = TA_GridHelpers.adjustBorder(postype, v, k, this.mode, window);
+				sb.append(this.compiled.character(postype, line, k, hsize));
+			}
+			if(o instanceof Character){
+				sb.append(o);
+			}
+		}
+
+		this.lineCount++;
+		this.previousLine = this.currentLine;
+		this.currentLine = nextLine;
+		this.out.accept(sb);
+	}
+}
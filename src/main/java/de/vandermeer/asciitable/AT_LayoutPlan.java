@@ -0,0 +1,346 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_CONTENT_LEFT;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_CONTENT_MID;
+import static de.vandermeer.asciithemes.TA_GridOptions.HAS_CONTENT_RIGHT;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import de.vandermeer.asciithemes.TA_GridOptions;
+
+/**
+ * The measured layout of a table, calculated by {@link AT_Renderer#layout(java.util.LinkedList, int, AT_Context, int)}.
+ *
+ * A plan holds the column widths, the number of lines of each row, the total number of lines,
+ * and the exact number of characters of the rendered table, including frame margins and line separators.
+ * All cells are formatted while measuring, and the plan keeps them.
+ * Rendering a plan ({@link AT_Renderer#render(AT_LayoutPlan)}) only adds the grid and writes into an output buffer allocated once.
+ * Callers can also use the size to prepare files, buffers, or a content length before rendering.
+ *
+ * A plan can be rendered any number of times.
+ * It is a snapshot: it does not change when the table, its rows, or its context change, a new layout is required then.
+ * For this, the plan keeps a copy of the context settings used for painting (grid, grid theme and options, frame margins and characters).
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_LayoutPlan {
+
+	/** Copy of the table context used for the layout. */
+	protected final AT_Context ctx;
+
+	/** Number of columns. */
+	protected final int colNumbers;
+
+	/** The calculated column widths. */
+	protected final int[] colWidth;
+
+	/** The columns of the grid, the calculated column widths unless cells render to lines of another length, see {@link AT_RenderHelpers#gridColumns(Collection, int[])}. */
+	protected final int[] gridColumns;
+
+	/** The line separator used for the character count. */
+	protected final String lineSeparator;
+
+	/** The rows formatted for the grid, an `Integer` for rules and a `Pair` of rule set and lines for content. */
+	protected final List<Object> rows;
+
+	/** Number of grid lines of each row. */
+	protected final int[] rowHeights;
+
+	/** Number of lines including frame margins. */
+	protected final int lineCount;
+
+	/** Number of characters including frame margins and line separators. */
+	protected final long charCount;
+
+	/** Control for stopping the render, taken from the renderer creating the plan, null if not used. */
+	protected AT_RenderControl control;
+
+	/**
+	 * Creates a new plan measuring formatted rows.
+	 * @param ctx the table context, copied
+	 * @param colNumbers number of columns
+	 * @param colWidth the calculated column widths
+	 * @param lineSeparator the line separator of the renderer
+	 * @param rows the rows formatted for the grid, see {@link AT_RenderHelpers#renderRow(AT_Row, int, int[])}
+	 */
+	AT_LayoutPlan(AT_Context ctx, int colNumbers, int[] colWidth, String lineSeparator, List<Object> rows){
+		ctx = copy(ctx);
+		this.ctx = ctx;
+		this.colNumbers = colNumbers;
+		this.colWidth = colWidth;
+		this.gridColumns = AT_RenderHelpers.gridColumns(rows, colWidth);
+		this.lineSeparator = lineSeparator;
+		this.rows = rows;
+		this.rowHeights = new int[rows.size()];
+
+		int mode = ctx.getGridTheme() | ctx.getGridThemeOptions();
+		int left = ctx.getFrameLeftMargin();
+		int right = ctx.getFrameRightMargin();
+		int lines = 0;
+		long chars = 0;
+		int first = -1;
+		for(int i=0; i<rows.size(); i++){
+			Object row = rows.get(i);
+			if(row instanceof Integer){
+				int[][] type = (i==0) ? AT_GridStream.TOP_RULE : ((i==rows.size()-1) ? AT_GridStream.BOTTOM_RULE : AT_GridStream.MID_RULE);
+				int length = ruleLength(type, mode, this.gridColumns);
+				if(length>0){
+					this.rowHeights[i] = 1;
+					lines++;
+					chars += left + length + right;
+					if(first==-1){
+						first = length;
+					}
+				}
+			}
+			else if(row instanceof Pair){
+				for(String[] line : (String[][])((Pair<?, ?>)row).getValue()){
+					int length = contentLength(line, mode);
+					if(length>0){
+						this.rowHeights[i]++;
+						lines++;
+						chars += left + length + right;
+						if(first==-1){
+							first = length;
+						}
+					}
+				}
+			}
+		}
+
+		if(lines>0){
+			int max = first + left + right;
+			int margins = ctx.getFrameTopMargin() + ctx.getFrameBottomMargin();
+			lines += margins;
+			chars += (long)margins * max;
+			chars += (long)(lines - 1) * lineSeparator.length();
+		}
+		this.lineCount = lines;
+		this.charCount = chars;
+	}
+
+	/**
+	 * Copies the settings of a table context, so that later changes of the table do not change the plan.
+	 * @param ctx the table context
+	 * @return new context with the same settings
+	 */
+	static AT_Context copy(AT_Context ctx){
+		AT_Context ret = new AT_Context();
+		ret.lineSeparator = ctx.getLineSeparator();
+		ret.width = ctx.getWidth();
+		ret.grid = ctx.getGrid();
+		ret.gridTheme = ctx.getGridTheme();
+		ret.gridThemeOptions = ctx.getGridThemeOptions();
+		ret.frameTopMargin = ctx.getFrameTopMargin();
+		ret.frameBottomMargin = ctx.getFrameBottomMargin();
+		ret.frameLeftMargin = ctx.getFrameLeftMargin();
+		ret.frameRightMargin = ctx.getFrameRightMargin();
+		ret.frameTopMarginChar = ctx.getFrameTopChar();
+		ret.frameBottomMarginChar = ctx.getFrameBottomChar();
+		ret.frameLeftChar = ctx.getFrameLeftChar();
+		ret.frameRightChar = ctx.getFrameRightChar();
+		return ret;
+	}
+
+	/**
+	 * Returns the length of a rule line.
+	 * @param type the rule options (top, mid, or bottom)
+	 * @param mode grid theme and options
+	 * @param colWidth the column widths of the grid, -1 for columns without a line
+	 * @return number of characters in the rule line, 0 if the grid mode produces no line for the rule
+	 */
+	static int ruleLength(int[][] type, int mode, int[] colWidth){
+		int ret = 0;
+		if(present(type[0][0], mode)){
+			ret++;
+		}
+		if(present(type[1][0], mode)){
+			for(int w : colWidth){
+				ret += Math.max(w, 0);
+			}
+		}
+		if(present(type[2][0], mode) && colWidth.length>0){
+			ret += colWidth.length - 1;
+		}
+		if(present(type[3][0], mode)){
+			ret++;
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the length of a content line.
+	 * @param line the cell lines of the content line, null for spanned columns
+	 * @param mode grid theme and options
+	 * @return number of characters in the content line
+	 */
+	static int contentLength(String[] line, int mode){
+		int ret = 0;
+		if(present(HAS_CONTENT_LEFT, mode)){
+			ret++;
+		}
+		boolean mid = present(HAS_CONTENT_MID, mode);
+		for(int l=0; l<line.length; l++){
+			if(line[l]!=null){
+				ret += line[l].length();
+				if(mid && l<(line.length-1)){
+					ret++;
+				}
+			}
+		}
+		if(present(HAS_CONTENT_RIGHT, mode)){
+			ret++;
+		}
+		return ret;
+	}
+
+	/**
+	 * Tests if a grid option adds a position to a line, as a border or as an empty border.
+	 * @param option the option
+	 * @param mode grid theme and options
+	 * @return true if the option adds a position, false otherwise
+	 */
+	static boolean present(int option, int mode){
+		return TA_GridOptions.testOption(option, mode) || TA_GridOptions.optionNeeded(option, mode);
+	}
+
+	/**
+	 * Returns the number of characters of the rendered table, including frame margins and line separators.
+	 * @return exact size of the rendered table
+	 */
+	public long getCharCount(){
+		return this.charCount;
+	}
+
+	/**
+	 * Returns the number of columns.
+	 * @return number of columns
+	 */
+	public int getColNumbers(){
+		return this.colNumbers;
+	}
+
+	/**
+	 * Returns the calculated column widths.
+	 * @return copy of the column widths
+	 */
+	public int[] getColumnWidths(){
+		return this.colWidth.clone();
+	}
+
+	/**
+	 * Returns the table context used for the layout.
+	 * @return copy of the table context as it was when the plan was created
+	 */
+	public AT_Context getContext(){
+		return this.ctx;
+	}
+
+	/**
+	 * Returns the number of lines of the rendered table, including frame margins.
+	 * @return number of lines
+	 */
+	public int getLineCount(){
+		return this.lineCount;
+	}
+
+	/**
+	 * Returns the line separator used for the layout.
+	 * @return line separator
+	 */
+	public String getLineSeparator(){
+		return this.lineSeparator;
+	}
+
+	/**
+	 * Returns the number of grid lines of each row, 0 for rules the grid theme does not draw.
+	 * @return copy of the row heights, one entry for each row in table order
+	 */
+	public int[] getRowHeights(){
+		return this.rowHeights.clone();
+	}
+
+	/**
+	 * Returns the rows formatted for the grid.
+	 * @return formatted rows, an `Integer` for rules and a `Pair` of rule set and lines for content
+	 */
+	List<Object> getRows(){
+		return this.rows;
+	}
+
+	/**
+	 * Paints the grid lines of the plan into a line writer and finishes the writer (bottom frame margin).
+	 * @param writer the line writer, adding frame margins
+	 * @return the given writer
+	 */
+	<W extends AT_LineWriter> W paint(W writer){
+		if(this.control!=null){
+			this.control.startLines();
+			writer.setControl(this.control);
+		}
+		AT_GridStream grid = new AT_GridStream(this.ctx.getGrid(), this.ctx.getGridTheme() | this.ctx.getGridThemeOptions(), this.gridColumns, writer);
+		for(Object row : this.rows){
+			grid.add(row);
+		}
+		grid.finish();
+		writer.finish();
+		return writer;
+	}
+
+	/**
+	 * Creates a plan from table rows.
+	 * @param renderer the renderer, used for the executor, caches, and line separator
+	 * @param rows the table rows
+	 * @param colNumbers number of columns
+	 * @param colWidth the calculated column widths
+	 * @param ctx the table context
+	 * @return new plan
+	 */
+	static AT_LayoutPlan create(AT_Renderer renderer, Collection<AT_Row> rows, int colNumbers, int[] colWidth, AT_Context ctx){
+		return AT_LayoutPlan.create(renderer, rows, colNumbers, colWidth, ctx, true);
+	}
+
+	/**
+	 * Creates a plan from table rows.
+	 * @param renderer the renderer, used for the executor, caches, and line separator
+	 * @param rows the table rows
+	 * @param colNumbers number of columns
+	 * @param colWidth the calculated column widths
+	 * @param ctx the table context
+	 * @param rowCache true to use the row cache of the renderer, false to format the rows without it
+	 * @return new plan
+	 */
+	static AT_LayoutPlan create(AT_Renderer renderer, Collection<AT_Row> rows, int colNumbers, int[] colWidth, AT_Context ctx, boolean rowCache){
+		ArrayList<Object> formatted = new ArrayList<>(rows.size());
+		if(rowCache){
+			AT_RenderHelpers.renderRows(renderer, rows, colNumbers, colWidth, formatted::add);
+		}
+		else{
+			AT_RenderHelpers.renderRows(rows, colNumbers, colWidth, renderer.getExecutor(), renderer.getCellCache(), renderer.getCellPipeline(), AT_RenderHelpers.controlled(renderer, formatted::add));
+		}
+		AT_LayoutPlan ret = new AT_LayoutPlan(ctx, colNumbers, colWidth, AT_RenderHelpers.lineSeparator(renderer, ctx), formatted);
+		ret.control = renderer.getRenderControl();
+		return ret;
+	}
+}
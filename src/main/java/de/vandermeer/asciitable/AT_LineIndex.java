@@ -0,0 +1,310 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.lang3.text.StrBuilder;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * An index of the output lines of a table, to render any range of lines without rendering the whole table,
+ * see {@link AT_Renderer#renderLines(AT_LineIndex, int, int)}.
+ *
+ * Creating an index formats all rows once to measure them, but keeps only the column widths and the number of lines of each row.
+ * Rendering a range then formats only the rows covering the range and their direct neighbors (for the grid junctions),
+ * so the cost of a range depends on the size of the range, not the size of the table.
+ *
+ * Line numbers count all output lines, including the frame margins, as returned by {@link AsciiTable#renderAsCollection()}.
+ * An index is a snapshot of the table: changes of rows or context require a new index.
+ * The context settings used for painting are copied when the index is created, see {@link AT_LayoutPlan}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_LineIndex {
+
+	/** Copy of the table context used for the index. */
+	protected final AT_Context ctx;
+
+	/** Number of columns. */
+	protected final int colNumbers;
+
+	/** The calculated column widths. */
+	protected final int[] colWidth;
+
+	/** The columns of the grid, see {@link AT_RenderHelpers#gridColumns(Collection, int[])}. */
+	protected final int[] gridColumns;
+
+	/** The table rows. */
+	protected final List<AT_Row> rows;
+
+	/** Number of grid lines of each row. */
+	protected final int[] rowHeights;
+
+	/** Index of the first grid line of each row. */
+	protected final int[] rowStarts;
+
+	/** Number of grid lines. */
+	protected final int gridLines;
+
+	/** Length of the first grid line, used for the top and bottom frame margins. */
+	protected final int firstLength;
+
+	/**
+	 * Creates a new index.
+	 * @param ctx the table context, copied
+	 * @param colNumbers number of columns
+	 * @param colWidth the calculated column widths
+	 * @param gridColumns the columns of the grid
+	 * @param rows the table rows
+	 * @param rowHeights number of grid lines of each row
+	 * @param firstLength length of the first grid line
+	 */
+	AT_LineIndex(AT_Context ctx, int colNumbers, int[] colWidth, int[] gridColumns, List<AT_Row> rows, int[] rowHeights, int firstLength){
+		this.ctx = AT_LayoutPlan.copy(ctx);
+		this.colNumbers = colNumbers;
+		this.colWidth = colWidth;
+		this.gridColumns = gridColumns;
+		this.rows = rows;
+		this.rowHeights = rowHeights;
+		this.firstLength = firstLength;
+		this.rowStarts = new int[rowHeights.length];
+		int lines = 0;
+		for(int i=0; i<rowHeights.length; i++){
+			this.rowStarts[i] = lines;
+			lines += rowHeights[i];
+		}
+		this.gridLines = lines;
+	}
+
+	/**
+	 * Creates an index for table rows.
+	 * @param renderer the renderer, used for the executor, caches, and pipeline
+	 * @param rows the table rows
+	 * @param colNumbers number of columns
+	 * @param colWidth the calculated column widths
+	 * @param ctx the table context
+	 * @return new index
+	 */
+	static AT_LineIndex create(AT_Renderer renderer, Collection<AT_Row> rows, int colNumbers, int[] colWidth, AT_Context ctx){
+		ArrayList<AT_Row> list = new ArrayList<>(rows);
+		int mode = ctx.getGridTheme() | ctx.getGridThemeOptions();
+		int[] heights = new int[list.size()];
+		//index of the next row and index of the first row with lines
+		int[] state = new int[]{0, -1};
+		Object[] first = new Object[1];
+		int[][] shortest = new int[1][];
+		AT_RenderHelpers.renderRows(renderer, list, colNumbers, colWidth, row -> {
+			int i = state[0]++;
+			heights[i] = rowHeight(row, i, heights.length, mode, colWidth);
+			if(state[1]==-1 && heights[i]>0){
+				state[1] = i;
+				first[0] = row;
+			}
+			shortest[0] = AT_RenderHelpers.shortestLines(row, shortest[0]);
+		});
+		int[] gridColumns = AT_RenderHelpers.gridColumns(shortest[0], colWidth);
+		int firstLength = (state[1]==-1) ? -1 : firstLength(first[0], state[1], heights.length, mode, gridColumns);
+		return new AT_LineIndex(ctx, colNumbers, colWidth, gridColumns, list, heights, firstLength);
+	}
+
+	/**
+	 * Returns the number of grid lines of a formatted row, see {@link AT_LayoutPlan}.
+	 * @param row the formatted row
+	 * @param index index of the row in the table
+	 * @param count number of rows in the table
+	 * @param mode grid theme and options
+	 * @param colWidth the column widths
+	 * @return number of grid lines
+	 */
+	static int rowHeight(Object row, int index, int count, int mode, int[] colWidth){
+		if(row instanceof Integer){
+			int[][] type = (index==0) ? AT_GridStream.TOP_RULE : ((index==count-1) ? AT_GridStream.BOTTOM_RULE : AT_GridStream.MID_RULE);
+			return (AT_LayoutPlan.ruleLength(type, mode, colWidth)>0) ? 1 : 0;
+		}
+		int ret = 0;
+		if(row instanceof Pair){
+			for(String[] line : (String[][])((Pair<?, ?>)row).getValue()){
+				if(AT_LayoutPlan.contentLength(line, mode)>0){
+					ret++;
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the length of the first grid line of a formatted row.
+	 * @param row the formatted row, with at least one grid line
+	 * @param index index of the row in the table
+	 * @param count number of rows in the table
+	 * @param mode grid theme and options
+	 * @param colWidth the column widths
+	 * @return length of the first line
+	 */
+	static int firstLength(Object row, int index, int count, int mode, int[] colWidth){
+		if(row instanceof Integer){
+			int[][] type = (index==0) ? AT_GridStream.TOP_RULE : ((index==count-1) ? AT_GridStream.BOTTOM_RULE : AT_GridStream.MID_RULE);
+			return AT_LayoutPlan.ruleLength(type, mode, colWidth);
+		}
+		for(String[] line : (String[][])((Pair<?, ?>)row).getValue()){
+			int length = AT_LayoutPlan.contentLength(line, mode);
+			if(length>0){
+				return length;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the number of output lines, including frame margins.
+	 * @return number of lines, 0 if the table has no grid lines
+	 */
+	public int getLineCount(){
+		return (this.gridLines==0) ? 0 : this.gridLines + this.ctx.getFrameTopMargin() + this.ctx.getFrameBottomMargin();
+	}
+
+	/**
+	 * Returns the number of grid lines of each row.
+	 * @return number of lines per row
+	 */
+	public int[] getRowHeights(){
+		return this.rowHeights.clone();
+	}
+
+	/**
+	 * Returns the calculated column widths.
+	 * @return column widths
+	 */
+	public int[] getColumnWidths(){
+		return this.colWidth.clone();
+	}
+
+	/**
+	 * Returns the row of an output line.
+	 * @param line the output line, including frame margins
+	 * @return index of the row, -1 if the line is a frame margin or out of range
+	 */
+	public int getRow(int line){
+		int grid = line - this.ctx.getFrameTopMargin();
+		if(grid<0 || grid>=this.gridLines){
+			return -1;
+		}
+		return this.gridRow(grid);
+	}
+
+	/**
+	 * Returns the row of a grid line.
+	 * @param grid the grid line, not counting frame margins, must be a valid grid line
+	 * @return index of the row
+	 */
+	protected int gridRow(int grid){
+		int ret = Arrays.binarySearch(this.rowStarts, grid);
+		if(ret<0){
+			return -ret - 2;
+		}
+		//rows without lines share their start with the next row
+		while(this.rowHeights[ret]==0){
+			ret++;
+		}
+		return ret;
+	}
+
+	/**
+	 * Renders a range of output lines.
+	 * @param renderer the renderer, used for the executor, cell cache, and pipeline
+	 * @param fromLine first line, inclusive
+	 * @param toLine last line, exclusive
+	 * @return rendered lines
+	 */
+	AT_Lines render(AT_Renderer renderer, int fromLine, int toLine){
+		AT_Lines.Collector out = new AT_Lines.Collector(this.ctx, 0, toLine - fromLine);
+		if(fromLine==toLine){
+			return out.toLines();
+		}
+
+		int top = this.ctx.getFrameTopMargin();
+		int paintFrom = Math.max(fromLine - top, 0);
+		int paintTo = Math.min(toLine - top, this.gridLines);
+		ArrayList<StrBuilder> painted = (paintFrom<paintTo) ? this.paint(renderer, paintFrom, paintTo) : new ArrayList<>();
+
+		int left = this.ctx.getFrameLeftMargin();
+		int right = this.ctx.getFrameRightMargin();
+		int max = this.firstLength + left + right;
+		for(int l=fromLine; l<toLine; l++){
+			int g = l - top;
+			if(g<0){
+				out.write(new StrBuilder(max).appendPadding(max, this.ctx.getFrameTopChar()));
+			}
+			else if(g>=this.gridLines){
+				out.write(new StrBuilder(max).appendPadding(max, this.ctx.getFrameBottomChar()));
+			}
+			else{
+				StrBuilder line = painted.get(g - paintFrom);
+				line.insert(0, new StrBuilder().appendPadding(left, this.ctx.getFrameLeftChar()));
+				line.appendPadding(right, this.ctx.getFrameRightChar());
+				out.write(line);
+			}
+		}
+		return out.toLines();
+	}
+
+	/**
+	 * Paints a range of grid lines, formatting only the rows covering the range and their neighbor rows with lines.
+	 * @param renderer the renderer, used for the executor, cell cache, and pipeline
+	 * @param paintFrom first grid line, inclusive
+	 * @param paintTo last grid line, exclusive
+	 * @return painted grid lines, without frame margins
+	 */
+	protected ArrayList<StrBuilder> paint(AT_Renderer renderer, int paintFrom, int paintTo){
+		//rows covering the range, plus the neighbor rows with lines
+		int first = this.gridRow(paintFrom);
+		int last = this.gridRow(paintTo - 1);
+		do{
+			first--;
+		}
+		while(first>0 && this.rowHeights[first]==0);
+		first = Math.max(first, 0);
+		do{
+			last++;
+		}
+		while(last<this.rows.size()-1 && this.rowHeights[last]==0);
+		last = Math.min(last, this.rows.size() - 1);
+
+		ArrayList<StrBuilder> painted = new ArrayList<>(paintTo - paintFrom);
+		int[] lineIndex = new int[]{this.rowStarts[first]};
+		AT_GridStream grid = new AT_GridStream(this.ctx.getGrid(), this.ctx.getGridTheme() | this.ctx.getGridThemeOptions(), this.gridColumns, line -> {
+			if(lineIndex[0]>=paintFrom && lineIndex[0]<paintTo){
+				painted.add(line);
+			}
+			lineIndex[0]++;
+		});
+		grid.startAt(first, this.rowStarts[first]);
+		AT_RenderHelpers.renderRows(this.rows.subList(first, last + 1), this.colNumbers, this.colWidth, renderer.getExecutor(), renderer.getCellCache(), renderer.getCellPipeline(), AT_RenderHelpers.controlled(renderer, grid::add));
+		if(last==this.rows.size()-1){
+			grid.finish();
+		}
+		else{
+			grid.stop();
+		}
+		return painted;
+	}
+}
@@ -0,0 +1,138 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over the lines of a table, laying out and painting the next row only when all lines painted so far are taken.
+ *
+ * A renderer creates the iterator for the rows of a table, then sets the steps painting a row and finishing the table.
+ * Both steps hand their finished lines to {@link #offer(String)}.
+ * Only the lines of the rows required for the next line are kept.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+class AT_LineIterator implements Iterator<String> {
+
+	/** The rows not yet painted. */
+	protected final Iterator<AT_Row> rows;
+
+	/** Control for stopping the iteration, null if not used. */
+	protected final AT_RenderControl control;
+
+	/** Painted lines not yet taken. */
+	protected final ArrayDeque<String> lines = new ArrayDeque<>();
+
+	/** Step painting a row. */
+	protected Consumer<AT_Row> add;
+
+	/** Step painting the remaining lines after the last row. */
+	protected Runnable finish;
+
+	/** Flag for iteration started. */
+	protected boolean started;
+
+	/** Flag for all rows and the remaining lines painted. */
+	protected boolean finished;
+
+	/**
+	 * Creates a new iterator.
+	 * @param rows the rows of the table
+	 * @param control control for stopping the iteration, null for none
+	 */
+	AT_LineIterator(Iterator<AT_Row> rows, AT_RenderControl control){
+		this.rows = rows;
+		this.control = control;
+	}
+
+	/**
+	 * Sets the steps painting the table.
+	 * @param add step painting a row
+	 * @param finish step painting the remaining lines after the last row
+	 * @return this to allow chaining
+	 */
+	AT_LineIterator setSteps(Consumer<AT_Row> add, Runnable finish){
+		this.add = add;
+		this.finish = finish;
+		return this;
+	}
+
+	/**
+	 * Adds a painted line.
+	 * @param line the line including frame margins
+	 * @throws {@link AsciiTableCancelledException} if the control stopped the iteration
+	 */
+	void offer(String line){
+		if(this.control!=null){
+			this.control.line();
+		}
+		this.lines.add(line);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @throws {@link AsciiTableCancelledException} if the control stopped the iteration
+	 */
+	@Override
+	public boolean hasNext(){
+		if(!this.started){
+			this.started = true;
+			if(this.control!=null){
+				this.control.start();
+			}
+		}
+		while(this.lines.isEmpty() && !this.finished){
+			if(this.rows.hasNext()){
+				AT_Row row = this.rows.next();
+				if(this.control!=null){
+					this.control.row();
+				}
+				this.add.accept(row);
+			}
+			else{
+				this.finished = true;
+				this.finish.run();
+			}
+		}
+		return !this.lines.isEmpty();
+	}
+
+	@Override
+	public String next(){
+		if(!this.hasNext()){
+			throw new NoSuchElementException();
+		}
+		return this.lines.poll();
+	}
+
+	/**
+	 * Returns a sequential stream over the lines of this iterator.
+	 * @return stream of lines
+	 */
+	Stream<String> stream(){
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+}
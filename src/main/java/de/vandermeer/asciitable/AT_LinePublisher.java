@@ -0,0 +1,255 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Publishes the lines of a table to subscribers, rendering only as many lines as the subscribers request.
+ *
+ * Subscriber and subscription follow the contract of `java.util.concurrent.Flow` and of Reactive Streams:
+ * the subscriber gets a subscription, requests lines, and receives at most the requested number of lines, followed by completion or an error.
+ * This library is built for Java 1.8, so the interfaces are declared here with the same methods;
+ * adapting them to `Flow` or Reactive Streams only requires forwarding the four subscriber and two subscription methods.
+ *
+ * Every subscriber gets its own render of the table, see {@link AsciiTable#lines(int)}.
+ * Rows are laid out and painted only when more lines are requested than painted so far,
+ * so a slow subscriber slows down rendering and never more than the lines of a single row are kept.
+ * The table must not be changed while subscribers render it.
+ *
+ * Without an executor, lines are emitted on the thread requesting them.
+ * With an executor, lines are emitted by tasks on the executor.
+ * In both cases the subscriber is called by one thread at a time, and requests from inside {@link Subscriber#onNext(String)} do not recurse.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_LinePublisher {
+
+	/**
+	 * Receiver of lines, with the same methods as `java.util.concurrent.Flow.Subscriber`.
+	 */
+	public interface Subscriber {
+
+		/**
+		 * Called once before any other method with the subscription used to request lines.
+		 * @param subscription the subscription
+		 */
+		void onSubscribe(Subscription subscription);
+
+		/**
+		 * Called for every line, never more often than requested.
+		 * @param line the line including frame margins, without line separator
+		 */
+		void onNext(String line);
+
+		/**
+		 * Called once if the render failed, no further calls follow.
+		 * @param error the error
+		 */
+		void onError(Throwable error);
+
+		/**
+		 * Called once after the last line, no further calls follow.
+		 */
+		void onComplete();
+	}
+
+	/**
+	 * Link between publisher and subscriber, with the same methods as `java.util.concurrent.Flow.Subscription`.
+	 */
+	public interface Subscription {
+
+		/**
+		 * Requests more lines.
+		 * @param n number of additional lines, must be larger than 0, otherwise the subscriber gets an error
+		 */
+		void request(long n);
+
+		/**
+		 * Stops sending lines, the render is not continued.
+		 */
+		void cancel();
+	}
+
+	/** The table to publish. */
+	protected final AsciiTable table;
+
+	/** The width to render the table with. */
+	protected final int width;
+
+	/** Executor for emitting lines, null to emit on the requesting thread. */
+	protected Executor executor;
+
+	/**
+	 * Creates a new publisher for a table with the width of its context.
+	 * @param table the table, must not be null
+	 * @throws {@link NullPointerException} if table was null
+	 */
+	public AT_LinePublisher(AsciiTable table){
+		this(table, Validate.notNull(table).getContext().getWidth());
+	}
+
+	/**
+	 * Creates a new publisher for a table.
+	 * @param table the table, must not be null
+	 * @param width maximum line width, excluding any extra padding
+	 * @throws {@link NullPointerException} if table was null
+	 */
+	public AT_LinePublisher(AsciiTable table, int width){
+		Validate.notNull(table);
+		this.table = table;
+		this.width = width;
+	}
+
+	/**
+	 * Returns the executor used for emitting lines.
+	 * @return executor, null if lines are emitted on the requesting thread
+	 */
+	public Executor getExecutor(){
+		return this.executor;
+	}
+
+	/**
+	 * Sets the executor for emitting lines, used for all following subscriptions.
+	 * @param executor the executor, null to emit lines on the requesting thread
+	 * @return this to allow chaining
+	 */
+	public AT_LinePublisher setExecutor(Executor executor){
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * Adds a subscriber, which gets its subscription before this method returns.
+	 * @param subscriber the subscriber, must not be null
+	 * @throws {@link NullPointerException} if subscriber was null
+	 */
+	public void subscribe(Subscriber subscriber){
+		Validate.notNull(subscriber);
+		subscriber.onSubscribe(new LineSubscription(subscriber, this.executor));
+	}
+
+	/**
+	 * Subscription emitting the lines of one render.
+	 */
+	protected class LineSubscription implements Subscription {
+
+		/** The subscriber. */
+		protected final Subscriber subscriber;
+
+		/** Executor for emitting, null for the requesting thread. */
+		protected final Executor executor;
+
+		/** Lines requested and not yet emitted. */
+		protected final AtomicLong requested = new AtomicLong();
+
+		/** Number of pending drain calls, only the call raising it from 0 emits lines. */
+		protected final AtomicInteger pending = new AtomicInteger();
+
+		/** Lines of the render, created with the first request. */
+		protected Iterator<String> lines;
+
+		/** Error of a request with a wrong number of lines, null if none. */
+		protected volatile Throwable error;
+
+		/** Flag for cancelled, completed, or failed. */
+		protected volatile boolean done;
+
+		/**
+		 * Creates a new subscription.
+		 * @param subscriber the subscriber
+		 * @param executor executor for emitting, null for the requesting thread
+		 */
+		protected LineSubscription(Subscriber subscriber, Executor executor){
+			this.subscriber = subscriber;
+			this.executor = executor;
+		}
+
+		@Override
+		public void request(long n){
+			if(n<=0){
+				this.error = new IllegalArgumentException("number of requested lines must be larger than 0, found <" + n + ">");
+			}
+			else{
+				this.requested.accumulateAndGet(n, (a, b) -> (a + b<0) ? Long.MAX_VALUE : a + b);
+			}
+			if(this.pending.getAndIncrement()==0){
+				if(this.executor==null){
+					this.drain();
+				}
+				else{
+					this.executor.execute(this::drain);
+				}
+			}
+		}
+
+		@Override
+		public void cancel(){
+			this.done = true;
+		}
+
+		/**
+		 * Emits requested lines until no lines are requested or the render is finished, repeating while requests came in meanwhile.
+		 */
+		protected void drain(){
+			int missed = 1;
+			do{
+				if(this.done){
+					return;
+				}
+				if(this.error!=null){
+					this.done = true;
+					this.subscriber.onError(this.error);
+					return;
+				}
+				try{
+					if(this.lines==null){
+						this.lines = AT_LinePublisher.this.table.lines(AT_LinePublisher.this.width).iterator();
+					}
+					long r = this.requested.get();
+					long e = 0;
+					while(e!=r && !this.done && this.lines.hasNext()){
+						this.subscriber.onNext(this.lines.next());
+						e++;
+					}
+					if(!this.done && !this.lines.hasNext()){
+						this.done = true;
+						this.subscriber.onComplete();
+						return;
+					}
+					if(e!=0 && r!=Long.MAX_VALUE){
+						this.requested.addAndGet(-e);
+					}
+				}
+				catch(RuntimeException ex){
+					if(!this.done){
+						this.done = true;
+						this.subscriber.onError(ex);
+					}
+					return;
+				}
+				missed = this.pending.addAndGet(-missed);
+			} while(missed!=0);
+		}
+	}
+}
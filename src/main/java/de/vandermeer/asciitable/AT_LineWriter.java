@@ -0,0 +1,143 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.text.StrBuilder;
+
+/**
+ * Writes grid lines of a table to an appendable, adding frame margins and line separators, or hands them one by one to a consumer.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+class AT_LineWriter implements Consumer<StrBuilder> {
+
+	/** The appendable to write to, null if lines are handed to a consumer. */
+	protected final Appendable out;
+
+	/** The consumer of single lines, null if lines are written to an appendable. */
+	protected final Consumer<String> lines;
+
+	/** The table context with the frame margin settings. */
+	protected final AT_Context ctx;
+
+	/** Separator written between lines. */
+	protected final String separator;
+
+	/** Length of a full line including margins, -1 before the first line. */
+	protected int max = -1;
+
+	/** Number of lines written so far. */
+	protected int lineCount;
+
+	/** Control for stopping the render, null if not used. */
+	protected AT_RenderControl control;
+
+	/**
+	 * Creates a new line writer.
+	 * @param out the appendable to write to
+	 * @param ctx the table context
+	 * @param separator the line separator
+	 */
+	AT_LineWriter(Appendable out, AT_Context ctx, String separator){
+		this.out = out;
+		this.lines = null;
+		this.ctx = ctx;
+		this.separator = separator;
+	}
+
+	/**
+	 * Creates a new line writer handing every line including frame margins as a string to a consumer, without line separators.
+	 * @param lines the consumer of the lines
+	 * @param ctx the table context
+	 */
+	AT_LineWriter(Consumer<String> lines, AT_Context ctx){
+		this.out = null;
+		this.lines = lines;
+		this.ctx = ctx;
+		this.separator = null;
+	}
+
+	/**
+	 * Sets a control, tested before every written line.
+	 * @param control the control, null for none
+	 * @return this to allow chaining
+	 */
+	AT_LineWriter setControl(AT_RenderControl control){
+		this.control = control;
+		return this;
+	}
+
+	@Override
+	public void accept(StrBuilder line){
+		if(this.max==-1){
+			this.max = line.length() + this.ctx.getFrameLeftMargin() + this.ctx.getFrameRightMargin();
+			for(int k=0; k<this.ctx.getFrameTopMargin(); k++){
+				this.write(new StrBuilder(this.max).appendPadding(this.max, this.ctx.getFrameTopChar()));
+			}
+		}
+		line.insert(0, new StrBuilder().appendPadding(this.ctx.getFrameLeftMargin(), this.ctx.getFrameLeftChar()));
+		line.appendPadding(this.ctx.getFrameRightMargin(), this.ctx.getFrameRightChar());
+		this.write(line);
+	}
+
+	/**
+	 * Writes the bottom frame margin, call once after the last grid line.
+	 */
+	public void finish(){
+		for(int k=0; k<this.ctx.getFrameBottomMargin(); k++){
+			this.write(new StrBuilder(this.max).appendPadding(this.max, this.ctx.getFrameBottomChar()));
+		}
+	}
+
+	/**
+	 * Returns the number of lines written so far, including frame margins.
+	 * @return number of written lines
+	 */
+	public int getLineCount(){
+		return this.lineCount;
+	}
+
+	/**
+	 * Writes a single line, prefixed by a separator for all but the first line.
+	 * @param line the line to write
+	 * @throws {@link AsciiTableException} if the appendable failed
+	 */
+	protected void write(StrBuilder line){
+		if(this.control!=null){
+			this.control.line();
+		}
+		if(this.lines!=null){
+			this.lines.accept(line.toString());
+			this.lineCount++;
+			return;
+		}
+		try{
+			if(this.lineCount>0){
+				this.out.append(this.separator);
+			}
+			this.out.append(line);
+			this.lineCount++;
+		}
+		catch(IOException ex){
+			throw new AsciiTableException(ex);
+		}
+	}
+}
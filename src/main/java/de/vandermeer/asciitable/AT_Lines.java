@@ -0,0 +1,236 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import org.apache.commons.lang3.text.StrBuilder;
+
+/**
+ * Lines of a rendered table as read-only character sequences over a single backing character array.
+ *
+ * All lines (including frame margins) are stored one after the other in one array, with the offset of each line.
+ * Getting a line creates a small view object, no characters are copied.
+ * The lines stay valid after further renders, each render creates a new array.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_Lines extends AbstractList<CharSequence> implements RandomAccess {
+
+	/**
+	 * A read-only view of characters in the backing array.
+	 */
+	static final class View implements CharSequence {
+
+		/** The backing array. */
+		final char[] chars;
+
+		/** Start of the view in the array. */
+		final int start;
+
+		/** Length of the view. */
+		final int length;
+
+		/**
+		 * Creates a new view.
+		 * @param chars the backing array
+		 * @param start start in the array
+		 * @param length number of characters
+		 */
+		View(char[] chars, int start, int length){
+			this.chars = chars;
+			this.start = start;
+			this.length = length;
+		}
+
+		@Override
+		public int length(){
+			return this.length;
+		}
+
+		@Override
+		public char charAt(int index){
+			if(index<0 || index>=this.length){
+				throw new IndexOutOfBoundsException("index: " + index + ", length: " + this.length);
+			}
+			return this.chars[this.start + index];
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end){
+			if(start<0 || end>this.length || start>end){
+				throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + this.length);
+			}
+			return new View(this.chars, this.start + start, end - start);
+		}
+
+		@Override
+		public String toString(){
+			return new String(this.chars, this.start, this.length);
+		}
+	}
+
+	/**
+	 * Collects lines from a line writer into the backing array.
+	 */
+	static final class Collector extends AT_LineWriter {
+
+		/** The backing array. */
+		char[] chars;
+
+		/** Start of each line, plus the end of the last line. */
+		int[] offsets;
+
+		/**
+		 * Creates a new collector.
+		 * @param ctx the table context for frame margins
+		 * @param chars expected number of characters of all lines
+		 * @param lines expected number of lines
+		 */
+		Collector(AT_Context ctx, int chars, int lines){
+			super(null, ctx, "");
+			this.chars = new char[Math.max(chars, 16)];
+			this.offsets = new int[Math.max(lines, 1) + 1];
+		}
+
+		@Override
+		protected void write(StrBuilder line){
+			int start = this.offsets[this.lineCount];
+			int length = line.length();
+			if(start + length>this.chars.length){
+				char[] ar = new char[Math.max(this.chars.length * 2, start + length)];
+				System.arraycopy(this.chars, 0, ar, 0, start);
+				this.chars = ar;
+			}
+			if(this.lineCount + 2>this.offsets.length){
+				int[] ar = new int[this.offsets.length * 2];
+				System.arraycopy(this.offsets, 0, ar, 0, this.lineCount + 1);
+				this.offsets = ar;
+			}
+			line.getChars(0, length, this.chars, start);
+			this.lineCount++;
+			this.offsets[this.lineCount] = start + length;
+		}
+
+		/**
+		 * Returns the collected lines.
+		 * @return lines
+		 */
+		AT_Lines toLines(){
+			return new AT_Lines(this.chars, this.offsets, this.lineCount);
+		}
+	}
+
+	/** The backing array. */
+	protected final char[] chars;
+
+	/** Start of each line, plus the end of the last line. */
+	protected final int[] offsets;
+
+	/** Number of lines. */
+	protected final int size;
+
+	/**
+	 * Creates new lines.
+	 * @param chars the backing array
+	 * @param offsets start of each line, plus the end of the last line
+	 * @param size number of lines
+	 */
+	AT_Lines(char[] chars, int[] offsets, int size){
+		this.chars = chars;
+		this.offsets = offsets;
+		this.size = size;
+	}
+
+	@Override
+	public CharSequence get(int index){
+		if(index<0 || index>=this.size){
+			throw new IndexOutOfBoundsException("index: " + index + ", size: " + this.size);
+		}
+		return new View(this.chars, this.offsets[index], this.offsets[index + 1] - this.offsets[index]);
+	}
+
+	@Override
+	public int size(){
+		return this.size;
+	}
+
+	/**
+	 * Returns the number of characters of all lines, without any line separators.
+	 * @return number of characters
+	 */
+	public int getCharCount(){
+		return this.offsets[this.size];
+	}
+
+	/**
+	 * Writes all lines to an appendable, straight from the backing array.
+	 * @param out the appendable, for a writer or builder the characters are written without intermediate strings
+	 * @param separator the separator to write between lines
+	 * @return the given appendable
+	 * @throws {@link AsciiTableException} if writing to the appendable failed
+	 */
+	public <A extends Appendable> A writeTo(A out, String separator){
+		try{
+			for(int i=0; i<this.size; i++){
+				if(i>0){
+					out.append(separator);
+				}
+				this.appendLine(out, i);
+			}
+		}
+		catch(IOException ex){
+			throw new AsciiTableException(ex);
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the length of a single line.
+	 * @param index the line index
+	 * @return number of characters of the line
+	 */
+	int lineLength(int index){
+		return this.offsets[index + 1] - this.offsets[index];
+	}
+
+	/**
+	 * Appends a single line to an appendable, straight from the backing array.
+	 * @param out the appendable, for a writer or builder the characters are written without intermediate strings
+	 * @param index the line index
+	 * @throws IOException if writing to the appendable failed
+	 */
+	void appendLine(Appendable out, int index) throws IOException{
+		int start = this.offsets[index];
+		int length = this.offsets[index + 1] - start;
+		if(out instanceof java.io.Writer){
+			((java.io.Writer)out).write(this.chars, start, length);
+		}
+		else if(out instanceof StringBuilder){
+			((StringBuilder)out).append(this.chars, start, length);
+		}
+		else if(out instanceof StrBuilder){
+			((StrBuilder)out).append(this.chars, start, length);
+		}
+		else{
+			out.append(new View(this.chars, start, length));
+		}
+	}
+}
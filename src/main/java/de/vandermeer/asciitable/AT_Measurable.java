@@ -0,0 +1,42 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+/**
+ * Cell content that knows the width it requires, for instance a nested table.
+ * 
+ * Column width calculators measuring content (longest line, longest word) use these widths
+ * instead of converting the content to text and measuring the text.
+ * Implementations should answer without rendering, for instance from cached statistics.
+ * 
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public interface AT_Measurable {
+
+	/**
+	 * Returns the smallest width the content can be rendered to without breaking words.
+	 * @return minimum width
+	 */
+	int getMinWidth();
+
+	/**
+	 * Returns the width the content requires to be rendered without wrapping.
+	 * @return preferred width
+	 */
+	int getPreferredWidth();
+}
@@ -0,0 +1,35 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+/**
+ * Cell content that can be memoized by an {@link AT_CellCache}, rendered again only when it has changed.
+ * 
+ * A cell cache memoizing renderables (see {@link AT_CellCache#setMemoizeRenderables(boolean)}) keeps the rendered lines of content by object identity and width.
+ * The render version is part of the key, so content is rendered again as soon as its version has changed.
+ * 
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public interface AT_Memoizable {
+
+	/**
+	 * Returns the render version of the content, which must change whenever the rendered output would change.
+	 * @return render version
+	 */
+	long getRenderVersion();
+}
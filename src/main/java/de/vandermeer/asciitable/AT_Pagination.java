@@ -0,0 +1,178 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import de.vandermeer.skb.interfaces.document.TableRowStyle;
+import de.vandermeer.skb.interfaces.document.TableRowType;
+
+/**
+ * Splits table rows into pages of a fixed number of content rows, with header rows repeated on every page.
+ *
+ * The first rows of a table can be marked as header, for instance a rule, a content row with column titles, and a strong rule.
+ * Every page starts with these header rows, followed by the content rows of the page and the rules between them.
+ * A page is opened with the rule before its first content row if the header does not end with a rule,
+ * and it is closed with the rule after its last content row, or a normal rule if there is none.
+ *
+ * Only row objects are selected here, no row is formatted.
+ * The rows are not copied: a pagination keeps the index range and the enclosing rules of every page,
+ * and the rows of a page are views of the table rows (see {@link List#subList(int, int)}).
+ * It should be used for all pages of a render, and not kept after the table has changed.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+final class AT_Pagination {
+
+	/** The table rows. */
+	private final List<AT_Row> rows;
+
+	/** Number of header rows. */
+	private final int headerRows;
+
+	/** True if the last header row is a rule. */
+	private final boolean headerRule;
+
+	/** Index of the first and the last content row of every page. */
+	private final ArrayList<int[]> ranges = new ArrayList<>();
+
+	/** Rule before the first and after the last content row of every page, null if there is none. */
+	private final ArrayList<AT_Row[]> rules = new ArrayList<>();
+
+	/**
+	 * Creates a new pagination.
+	 * @param rows the table rows, must not be null
+	 * @param headerRows number of header rows, between 0 and the number of rows
+	 * @param rowsPerPage number of content rows per page, must be larger than 0
+	 * @throws {@link NullPointerException} if rows was null
+	 * @throws {@link IllegalStateException} if header rows or rows per page were out of bounds
+	 */
+	AT_Pagination(List<AT_Row> rows, int headerRows, int rowsPerPage){
+		Validate.notNull(rows);
+		Validate.validState(headerRows>=0 && headerRows<=rows.size(), "header rows out of bounds, found <" + headerRows + "> for <" + rows.size() + "> rows");
+		Validate.validState(rowsPerPage>0, "rows per page must be larger than 0, found <" + rowsPerPage + ">");
+
+		this.rows = rows;
+		this.headerRows = headerRows;
+
+		boolean headerRule = false;
+		int[] range = null;
+		AT_Row[] rule = null;
+		AT_Row previous = null;
+		int content = 0;
+		int i = 0;
+		for(AT_Row row : rows){
+			if(i==headerRows - 1){
+				headerRule = row.getType()==TableRowType.RULE;
+			}
+			if(range!=null && range[1]==i - 1 && row.getType()==TableRowType.RULE){
+				rule[1] = row;
+			}
+			if(i>=headerRows && row.getType()==TableRowType.CONTENT){
+				if(content % rowsPerPage==0){
+					range = new int[]{i, i};
+					rule = new AT_Row[2];
+					if(i>headerRows && previous.getType()==TableRowType.RULE){
+						rule[0] = previous;
+					}
+					this.ranges.add(range);
+					this.rules.add(rule);
+				}
+				range[1] = i;
+				rule[1] = null;
+				content++;
+			}
+			previous = row;
+			i++;
+		}
+		this.headerRule = headerRule;
+	}
+
+	/**
+	 * Returns the number of pages.
+	 * @return number of pages, at least 1 (a table without content rows after the header has a single page)
+	 */
+	int getPageCount(){
+		return Math.max(this.ranges.size(), 1);
+	}
+
+	/**
+	 * Returns the rows of a page.
+	 * @param page the page, starting with 0
+	 * @return rows of the page: header rows, opening rule, content rows with rules between them, closing rule; a view of the table rows
+	 * @throws {@link IllegalStateException} if the page was out of bounds
+	 */
+	Collection<AT_Row> getPageRows(int page){
+		int pages = this.getPageCount();
+		Validate.validState(page>=0 && page<pages, "page out of bounds, found <" + page + "> for <" + pages + "> pages");
+
+		if(this.ranges.size()==0){
+			//no content after the header, the page is the whole table
+			return Collections.unmodifiableList(this.rows);
+		}
+
+		int[] range = this.ranges.get(page);
+		AT_Row[] rule = this.rules.get(page);
+		ArrayList<List<AT_Row>> ret = new ArrayList<>(4);
+		ret.add(this.rows.subList(0, this.headerRows));
+		if(!this.headerRule && rule[0]!=null){
+			ret.add(Collections.singletonList(rule[0]));
+		}
+		ret.add(this.rows.subList(range[0], range[1] + 1));
+		ret.add(Collections.singletonList((rule[1]!=null) ? rule[1] : AT_Row.createRule(TableRowType.RULE, TableRowStyle.NORMAL)));
+		return new PageRows(ret);
+	}
+
+	/**
+	 * The rows of a page, joined from views of the table rows without copying them.
+	 */
+	private static final class PageRows extends AbstractCollection<AT_Row> {
+
+		/** The parts of the page in order. */
+		private final List<List<AT_Row>> parts;
+
+		/** Number of rows of all parts. */
+		private final int size;
+
+		/**
+		 * Creates new page rows.
+		 * @param parts the parts of the page in order
+		 */
+		PageRows(List<List<AT_Row>> parts){
+			this.parts = parts;
+			this.size = parts.stream().mapToInt(List::size).sum();
+		}
+
+		@Override
+		public Iterator<AT_Row> iterator(){
+			return this.parts.stream().flatMap(List::stream).iterator();
+		}
+
+		@Override
+		public int size(){
+			return this.size;
+		}
+	}
+}
@@ -0,0 +1,249 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.Validate;
+
+import de.vandermeer.asciitable.AsciiTableCancelledException.Reason;
+
+/**
+ * Control for long renders: a deadline, cancellation, thread interruption, and progress.
+ *
+ * A control is set on a renderer (see {@link AT_Renderer#setRenderControl(AT_RenderControl)}).
+ * The renderer reports every row it lays out and every line it emits.
+ * Before each of them the control tests if the render was cancelled, the rendering thread was interrupted, or the deadline has passed,
+ * and stops the render with an {@link AsciiTableCancelledException} if so.
+ * The interrupt status of the thread is not cleared.
+ *
+ * Lines emitted before the stop stay in an appendable given to the renderer.
+ * For renders returning a string the exception carries the lines emitted so far if requested with {@link #setKeepPartial(boolean)}.
+ *
+ * A control can be cancelled from any thread.
+ * Counters are reset at the start of every render, cancellation and deadline are kept.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_RenderControl {
+
+	/**
+	 * Receiver of render progress.
+	 */
+	public interface Progress {
+
+		/**
+		 * Reports the progress of a render.
+		 * @param rows number of rows laid out so far
+		 * @param lines number of lines emitted so far
+		 */
+		void update(long rows, long lines);
+	}
+
+	/** Default number of rows and lines between two progress updates. */
+	public static final int DEFAULT_PROGRESS_INTERVAL = 1000;
+
+	/** Flag for cancelled renders. */
+	protected volatile boolean cancelled;
+
+	/** Deadline as {@link System#nanoTime()}, only used if {@link #hasDeadline} is set. */
+	protected volatile long deadline;
+
+	/** Flag for a set deadline. */
+	protected volatile boolean hasDeadline;
+
+	/** Receiver of progress updates, null for none. */
+	protected Progress progress;
+
+	/** Number of rows and lines between two progress updates. */
+	protected int progressInterval = DEFAULT_PROGRESS_INTERVAL;
+
+	/** Flag for keeping the output of stopped renders. */
+	protected boolean keepPartial;
+
+	/** Number of rows laid out in the current render. */
+	protected volatile long rows;
+
+	/** Number of lines emitted in the current render. */
+	protected volatile long lines;
+
+	/** Rows and lines since the last progress update. */
+	protected int events;
+
+	/**
+	 * Cancels the current and all following renders using this control.
+	 * @return this to allow chaining
+	 */
+	public AT_RenderControl cancel(){
+		this.cancelled = true;
+		return this;
+	}
+
+	/**
+	 * Tests if the control was cancelled.
+	 * @return true if cancelled, false otherwise
+	 */
+	public boolean isCancelled(){
+		return this.cancelled;
+	}
+
+	/**
+	 * Sets a deadline relative to now, renders still running at the deadline are stopped.
+	 * @param timeout the time from now
+	 * @param unit the unit of the timeout, must not be null
+	 * @return this to allow chaining
+	 * @throws {@link NullPointerException} if unit was null
+	 */
+	public AT_RenderControl setTimeout(long timeout, TimeUnit unit){
+		Validate.notNull(unit);
+		this.deadline = System.nanoTime() + unit.toNanos(timeout);
+		this.hasDeadline = true;
+		return this;
+	}
+
+	/**
+	 * Removes the deadline.
+	 * @return this to allow chaining
+	 */
+	public AT_RenderControl clearTimeout(){
+		this.hasDeadline = false;
+		return this;
+	}
+
+	/**
+	 * Sets a receiver for progress updates.
+	 * @param progress the receiver, called on the rendering thread, null for no updates
+	 * @return this to allow chaining
+	 */
+	public AT_RenderControl setProgress(Progress progress){
+		this.progress = progress;
+		return this;
+	}
+
+	/**
+	 * Sets the number of rows and lines between two progress updates.
+	 * @param interval the interval, ignored if smaller than 1
+	 * @return this to allow chaining
+	 */
+	public AT_RenderControl setProgressInterval(int interval){
+		if(interval>0){
+			this.progressInterval = interval;
+		}
+		return this;
+	}
+
+	/**
+	 * Sets if a stopped render returning a string keeps the lines emitted so far in the exception, see {@link AsciiTableCancelledException#getPartialOutput()}.
+	 * @param keepPartial true to keep the output, false otherwise
+	 * @return this to allow chaining
+	 */
+	public AT_RenderControl setKeepPartial(boolean keepPartial){
+		this.keepPartial = keepPartial;
+		return this;
+	}
+
+	/**
+	 * Returns the flag for keeping the output of stopped renders.
+	 * @return true if the output is kept, false otherwise
+	 */
+	public boolean isKeepPartial(){
+		return this.keepPartial;
+	}
+
+	/**
+	 * Returns the number of rows laid out in the current or last render.
+	 * @return number of rows
+	 */
+	public long getRows(){
+		return this.rows;
+	}
+
+	/**
+	 * Returns the number of lines emitted in the current or last render.
+	 * @return number of lines
+	 */
+	public long getLines(){
+		return this.lines;
+	}
+
+	/**
+	 * Starts a render, resetting the counters.
+	 * @throws {@link AsciiTableCancelledException} if the render must stop
+	 */
+	void start(){
+		this.rows = 0;
+		this.lines = 0;
+		this.events = 0;
+		this.check();
+	}
+
+	/**
+	 * Starts emitting the lines of rows laid out before, resetting the line counter.
+	 * @throws {@link AsciiTableCancelledException} if the render must stop
+	 */
+	void startLines(){
+		this.lines = 0;
+		this.check();
+	}
+
+	/**
+	 * Reports a row about to be laid out.
+	 * @throws {@link AsciiTableCancelledException} if the render must stop
+	 */
+	void row(){
+		this.check();
+		this.rows++;
+		this.update();
+	}
+
+	/**
+	 * Reports a line about to be emitted.
+	 * @throws {@link AsciiTableCancelledException} if the render must stop
+	 */
+	void line(){
+		this.check();
+		this.lines++;
+		this.update();
+	}
+
+	/**
+	 * Stops the render if it was cancelled, the thread was interrupted, or the deadline has passed.
+	 * @throws {@link AsciiTableCancelledException} if the render must stop
+	 */
+	protected void check(){
+		if(this.cancelled){
+			throw new AsciiTableCancelledException(Reason.CANCELLED, this.rows, this.lines, this.keepPartial);
+		}
+		if(Thread.currentThread().isInterrupted()){
+			throw new AsciiTableCancelledException(Reason.INTERRUPTED, this.rows, this.lines, this.keepPartial);
+		}
+		if(this.hasDeadline && System.nanoTime() - this.deadline>=0){
+			throw new AsciiTableCancelledException(Reason.DEADLINE, this.rows, this.lines, this.keepPartial);
+		}
+	}
+
+	/**
+	 * Calls the progress receiver if the interval is reached.
+	 */
+	protected void update(){
+		if(this.progress!=null && ++this.events>=this.progressInterval){
+			this.events = 0;
+			this.progress.update(this.rows, this.lines);
+		}
+	}
+}
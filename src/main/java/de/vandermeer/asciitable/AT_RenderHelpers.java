@@ -0,0 +1,545 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.text.StrBuilder;
+import org.apache.commons.lang3.text.StrTokenizer;
+import org.apache.commons.lang3.tuple.Pair;
+
+import de.vandermeer.asciithemes.TA_GridConfig;
+import de.vandermeer.skb.interfaces.document.TableRowType;
+import de.vandermeer.skb.interfaces.render.DoesRenderToWidth;
+import de.vandermeer.skb.interfaces.transformers.arrays2d.Array2D_To_FlipArray;
+import de.vandermeer.skb.interfaces.transformers.arrays2d.Array2D_To_NormalizedArray;
+
+/**
+ * Helpers for rendering rows of an {@link AsciiTable}, shared by all render paths of {@link AT_Renderer}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public final class AT_RenderHelpers {
+
+	/** Number of rows formatted by a single task when rendering in parallel. */
+	public static final int PARALLEL_CHUNK_SIZE = 128;
+
+	/**
+	 * Hidden constructor, use the static methods.
+	 */
+	private AT_RenderHelpers(){}
+
+	/**
+	 * Returns the grid rule set for the style of a row.
+	 * @param row the row to test
+	 * @return grid rule set, one of the `RULESET_` definitions in {@link TA_GridConfig}
+	 * @throws {@link AsciiTableException} if the row style was unknown or not processed
+	 */
+	public static int ruleset(AT_Row row){
+		switch(row.getStyle()){
+			case NORMAL:
+				return TA_GridConfig.RULESET_NORMAL;
+			case STRONG:
+				return TA_GridConfig.RULESET_STRONG;
+			case LIGHT:
+				return TA_GridConfig.RULESET_LIGHT;
+			case HEAVY:
+				return TA_GridConfig.RULESET_HEAVY;
+			case UNKNOWN:
+				throw new AsciiTableException("AT_Renderer: cannot render unknown row style", "table row style set to 'unknown'");
+			default:
+				throw new AsciiTableException("AT_Renderer: cannot render unknown row style", "table row style not specified or type not processed");
+		}
+	}
+
+	/**
+	 * Renders a single row into the form required by a grid, see {@link de.vandermeer.asciithemes.TA_Grid#addGrid(Collection, int)}.
+	 * @param row the row to render
+	 * @param colNumbers number of columns in the table
+	 * @param colWidth calculated width of each column
+	 * @return an `Integer` with the rule set for a rule row, a `Pair` of rule set and rendered lines for a content row
+	 * @throws {@link AsciiTableException} if the row type or style was unknown or the row had no cells
+	 */
+	public static Object renderRow(AT_Row row, int colNumbers, int[] colWidth){
+		return AT_RenderHelpers.renderRow(row, colNumbers, colWidth, null, null);
+	}
+
+	/**
+	 * Renders a single row into the form required by a grid, see {@link de.vandermeer.asciithemes.TA_Grid#addGrid(Collection, int)}.
+	 * @param row the row to render
+	 * @param colNumbers number of columns in the table
+	 * @param colWidth calculated width of each column
+	 * @param cache cache for rendered cells, null to render all cells
+	 * @param pipeline pipeline for text cells, null for the default pipeline
+	 * @return an `Integer` with the rule set for a rule row, a `Pair` of rule set and rendered lines for a content row
+	 * @throws {@link AsciiTableException} if the row type or style was unknown or the row had no cells
+	 */
+	public static Object renderRow(AT_Row row, int colNumbers, int[] colWidth, AT_CellCache cache, AT_CellPipeline pipeline){
+		int ruleset = AT_RenderHelpers.ruleset(row);
+		switch(row.getType()){
+			case RULE:
+				return ruleset;
+			case CONTENT:
+				return Pair.of(ruleset, AT_RenderHelpers.renderContentRow(row, colNumbers, colWidth, cache, pipeline));
+			case UNKNOWN:
+				throw new AsciiTableException("AT_Renderer: cannot render unknown row type", "table row type set to 'unknown'");
+			default:
+				throw new AsciiTableException("AT_Renderer: cannot render unknown row type", "table row type not specified or type not processed");
+		}
+	}
+
+	/**
+	 * Renders all rows into the form required by a grid, using the executor, cell cache, cell pipeline, and row cache of a renderer.
+	 * @param renderer the renderer with the settings to use
+	 * @param rows the rows to render
+	 * @param colNumbers number of columns in the table
+	 * @param colWidth calculated width of each column
+	 * @param out receiver of the rendered rows, in the original order
+	 * @throws {@link AsciiTableException} if a row type or style was unknown or a row had no cells
+	 */
+	public static void renderRows(AT_Renderer renderer, Collection<AT_Row> rows, int colNumbers, int[] colWidth, Consumer<Object> out){
+		out = AT_RenderHelpers.controlled(renderer, out);
+		if(renderer.getRowCache()!=null){
+			renderer.getRowCache().renderRows(renderer, rows, colNumbers, colWidth, out);
+		}
+		else{
+			AT_RenderHelpers.renderRows(rows, colNumbers, colWidth, renderer.getExecutor(), renderer.getCellCache(), renderer.getCellPipeline(), out);
+		}
+	}
+
+	/**
+	 * Adds the render control of a renderer to a receiver of rendered rows, starting a new render.
+	 * @param renderer the renderer
+	 * @param out receiver of the rendered rows
+	 * @return a receiver reporting every row to the control before giving it to the original receiver, the original receiver if the renderer has no control
+	 * @throws {@link AsciiTableCancelledException} if the render must stop
+	 */
+	static Consumer<Object> controlled(AT_Renderer renderer, Consumer<Object> out){
+		AT_RenderControl control = renderer.getRenderControl();
+		if(control==null){
+			return out;
+		}
+		control.start();
+		return row -> {
+			control.row();
+			out.accept(row);
+		};
+	}
+
+	/**
+	 * Renders all rows into the form required by a grid, see {@link #renderRow(AT_Row, int, int[])}.
+	 * 
+	 * Without an executor, rows are rendered one after the other.
+	 * With an executor, rows are rendered in chunks of {@link #PARALLEL_CHUNK_SIZE} rows as concurrent tasks.
+	 * Only a few chunks per available thread are rendered ahead, so memory does not grow with the table.
+	 * In both cases the rendered rows are given to the consumer in the original order and on the calling thread.
+	 * 
+	 * @param rows the rows to render
+	 * @param colNumbers number of columns in the table
+	 * @param colWidth calculated width of each column
+	 * @param executor executor for rendering rows in parallel, null to render on the calling thread
+	 * @param cache cache for rendered cells, null to render all cells
+	 * @param pipeline pipeline for text cells, null for the default pipeline
+	 * @param out receiver of the rendered rows
+	 * @throws {@link AsciiTableException} if a row type or style was unknown or a row had no cells
+	 */
+	public static void renderRows(Collection<AT_Row> rows, int colNumbers, int[] colWidth, Executor executor, AT_CellCache cache, AT_CellPipeline pipeline, Consumer<Object> out){
+		if(executor==null){
+			for(AT_Row row : rows){
+				out.accept(AT_RenderHelpers.renderRow(row, colNumbers, colWidth, cache, pipeline));
+			}
+			return;
+		}
+
+		int parallelism = (executor instanceof ForkJoinPool) ? ((ForkJoinPool)executor).getParallelism() : Runtime.getRuntime().availableProcessors();
+		int tasks = Math.max(2, 2 * parallelism);
+		Iterator<AT_Row> it = rows.iterator();
+		ArrayList<CompletableFuture<List<Object>>> batch = new ArrayList<>(tasks);
+		while(it.hasNext()){
+			batch.clear();
+			while(it.hasNext() && batch.size()<tasks){
+				ArrayList<AT_Row> chunk = new ArrayList<>(PARALLEL_CHUNK_SIZE);
+				while(it.hasNext() && chunk.size()<PARALLEL_CHUNK_SIZE){
+					chunk.add(it.next());
+				}
+				batch.add(CompletableFuture.supplyAsync(() -> {
+					List<Object> ret = new ArrayList<>(chunk.size());
+					for(AT_Row row : chunk){
+						ret.add(AT_RenderHelpers.renderRow(row, colNumbers, colWidth, cache, pipeline));
+					}
+					return ret;
+				}, executor));
+			}
+			for(CompletableFuture<List<Object>> f : batch){
+				List<Object> rendered;
+				try{
+					rendered = f.join();
+				}
+				catch(CompletionException ex){
+					if(ex.getCause() instanceof RuntimeException){
+						throw (RuntimeException)ex.getCause();
+					}
+					if(ex.getCause() instanceof Error){
+						throw (Error)ex.getCause();
+					}
+					throw new AsciiTableException(ex.getCause());
+				}
+				rendered.forEach(out);
+			}
+		}
+	}
+
+	/**
+	 * Renders the cells of a content row.
+	 * @param row the row to render
+	 * @param colNumbers number of columns in the table
+	 * @param colWidth calculated width of each column
+	 * @return rendered lines of the row, first index is the line and second index the column, spanned columns are null
+	 * @throws {@link AsciiTableException} if the row had no cells
+	 */
+	public static String[][] renderContentRow(AT_Row row, int colNumbers, int[] colWidth){
+		return AT_RenderHelpers.renderContentRow(row, colNumbers, colWidth, null, null);
+	}
+
+	/**
+	 * Renders the cells of a content row.
+	 * @param row the row to render
+	 * @param colNumbers number of columns in the table
+	 * @param colWidth calculated width of each column
+	 * @param cache cache for rendered cells, null to render all cells
+	 * @param pipeline pipeline for text cells, null for the default pipeline
+	 * @return rendered lines of the row, first index is the line and second index the column, spanned columns are null
+	 * @throws {@link AsciiTableException} if the row had no cells
+	 */
+	public static String[][] renderContentRow(AT_Row row, int colNumbers, int[] colWidth, AT_CellCache cache, AT_CellPipeline pipeline){
+		return AT_RenderHelpers.toRowLines(AT_RenderHelpers.renderCells(row, colNumbers, colWidth, cache, pipeline), colNumbers);
+	}
+
+	/**
+	 * Renders the cells of a content row without combining them into lines.
+	 * @param row the row to render
+	 * @param colNumbers number of columns in the table
+	 * @param colWidth calculated width of each column
+	 * @param cache cache for rendered cells, null to render all cells
+	 * @param pipeline pipeline for text cells, null for the default pipeline
+	 * @return rendered lines of each cell, first index is the column and second index the line, spanned columns are null
+	 * @throws {@link AsciiTableException} if the row had no cells
+	 */
+	static String[][] renderCells(AT_Row row, int colNumbers, int[] colWidth, AT_CellCache cache, AT_CellPipeline pipeline){
+		String[][] cAr = new String[colNumbers][];
+		AT_Cell[] cells = row.getCellArray();
+		if(cells==null){
+			throw new AsciiTableException("cannot render table", "row content (cells) was null");
+		}
+
+		int length = 0;
+		for(int i=0; i<cells.length; i++){
+			length += colWidth[i];
+
+			Object content = cells[i].getContent();
+			if(content==null){
+				length++;
+				continue;
+			}
+
+			AT_CellContext cctx = cells[i].getContext();
+			int realWidth = length;
+			length -= cctx.getPaddingLeft();
+			length -= cctx.getPaddingRight();
+
+			cAr[i] = AT_RenderHelpers.renderCell(content, cctx, length, realWidth, cache, pipeline);
+			length = 0;
+		}
+		return cAr;
+	}
+
+	/**
+	 * Combines rendered cells into the lines of a row, filling cells with fewer lines than the highest cell.
+	 * @param cAr rendered lines of each cell, first index is the column and second index the line, spanned columns are null
+	 * @param colNumbers number of columns
+	 * @return lines of the row, first index is the line and second index the column, spanned columns are null
+	 */
+	static String[][] toRowLines(String[][] cAr, int colNumbers){
+		//all cells with the same number of lines (for instance single line rows): no normalization required, only flip
+		int height = -1;
+		for(String[] ar : cAr){
+			if(ar!=null){
+				if(height==-1){
+					height = ar.length;
+				}
+				else if(height!=ar.length){
+					height = 0;
+					break;
+				}
+			}
+		}
+		if(height>0){
+			String[][] ret = new String[height][colNumbers];
+			for(int col=0; col<colNumbers; col++){
+				if(cAr[col]!=null){
+					for(int line=0; line<height; line++){
+						ret[line][col] = cAr[col][line];
+					}
+				}
+			}
+			return ret;
+		}
+
+		cAr = Array2D_To_NormalizedArray.create(colNumbers).transform(cAr);
+		cAr = Array2D_To_FlipArray.create().transform(cAr);
+		return cAr;
+	}
+
+	/**
+	 * Returns the columns of the grid for formatted rows, as calculated by {@link de.vandermeer.asciithemes.TA_Grid#calculateColumns(ArrayList)}.
+	 * Rules are drawn with these columns, so that their junctions line up with the borders of the content lines.
+	 * They are the calculated column widths, unless cells render to lines of another length, for instance nested tables or content rendering itself to a width.
+	 * @param rows the rows formatted for the grid, see {@link #renderRow(AT_Row, int, int[])}
+	 * @param colWidth the calculated column widths
+	 * @return the grid columns, the calculated column widths if they are the same or if there is no content row
+	 */
+	static int[] gridColumns(Collection<?> rows, int[] colWidth){
+		int[] ret = null;
+		for(Object row : rows){
+			ret = AT_RenderHelpers.shortestLines(row, ret);
+		}
+		return AT_RenderHelpers.gridColumns(ret, colWidth);
+	}
+
+	/**
+	 * Returns the columns of the grid from the shortest lines of all formatted rows, see {@link #gridColumns(Collection, int[])}.
+	 * @param shortest the shortest lines of all rows, see {@link #shortestLines(Object, int[])}, null if there was no content row
+	 * @param colWidth the calculated column widths
+	 * @return the grid columns, the calculated column widths if they are the same or if there was no content row
+	 */
+	static int[] gridColumns(int[] shortest, int[] colWidth){
+		return (shortest==null || Arrays.equals(shortest, colWidth)) ? colWidth : shortest;
+	}
+
+	/**
+	 * Collects the length of the shortest line in each column of a formatted row.
+	 * @param row the formatted row, only content rows are used
+	 * @param shortest the shortest lines so far, -1 for columns without a line (spanned), null to start collecting
+	 * @return the shortest lines including the row
+	 */
+	static int[] shortestLines(Object row, int[] shortest){
+		if(!(row instanceof Pair)){
+			return shortest;
+		}
+		for(String[] line : (String[][])((Pair<?, ?>)row).getValue()){
+			if(shortest==null){
+				shortest = new int[line.length];
+				Arrays.fill(shortest, -1);
+			}
+			for(int col=0; col<line.length && col<shortest.length; col++){
+				if(line[col]!=null && (shortest[col]==-1 || line[col].length()<shortest[col])){
+					shortest[col] = line[col].length();
+				}
+			}
+		}
+		return shortest;
+	}
+
+	/**
+	 * Tests if the grid columns of rows are the calculated column widths before any row is formatted, see {@link #gridColumns(Collection, int[])}.
+	 * This is the case if all cells are formatted as text, filling their columns, and every column shows a cell of its own in at least one row.
+	 * Rows with fixed columns can be painted while they are formatted, all other rows must be formatted first.
+	 * @param rows the table rows
+	 * @param colNumbers number of columns
+	 * @return true if the grid columns are the calculated column widths, false if they depend on the formatted lines
+	 */
+	static boolean hasFixedColumns(Collection<AT_Row> rows, int colNumbers){
+		boolean[] own = new boolean[colNumbers];
+		int missing = colNumbers;
+		for(AT_Row row : rows){
+			if(row.getType()!=TableRowType.CONTENT || row.getCellArray()==null){
+				continue;
+			}
+			AT_Cell[] cells = row.getCellArray();
+			for(int col=0; col<cells.length && col<colNumbers; col++){
+				Object content = cells[col].getContent();
+				if(content instanceof AsciiTable || content instanceof DoesRenderToWidth){
+					return false;
+				}
+				if(content!=null && !own[col] && (col==0 || cells[col - 1].getContent()!=null)){
+					own[col] = true;
+					missing--;
+				}
+			}
+		}
+		return missing==0;
+	}
+
+	/**
+	 * Fits the lines of a formatted content row to fixed column widths, filling short lines with blanks and cutting long lines.
+	 * This is required where the grid is drawn with the calculated column widths before all rows are known, for instance in {@link AsciiStreamTable}.
+	 * @param row the formatted row, see {@link #renderRow(AT_Row, int, int[])}
+	 * @param colWidth the column widths
+	 * @return the row if all lines fit, a row with fitted copies of the lines otherwise
+	 */
+	static Object fitRow(Object row, int[] colWidth){
+		if(!(row instanceof Pair)){
+			return row;
+		}
+		String[][] lines = (String[][])((Pair<?, ?>)row).getValue();
+		String[][] ret = null;
+		for(int l=0; l<lines.length; l++){
+			int width = 0;
+			for(int col=0; col<lines[l].length && col<colWidth.length; col++){
+				width += colWidth[col];
+				if(lines[l][col]==null){
+					width++;
+					continue;
+				}
+				if(lines[l][col].length()!=width){
+					if(ret==null){
+						ret = new String[lines.length][];
+						for(int k=0; k<lines.length; k++){
+							ret[k] = lines[k].clone();
+						}
+					}
+					ret[l][col] = (lines[l][col].length()<width) ? StringUtils.rightPad(lines[l][col], width) : lines[l][col].substring(0, width);
+				}
+				width = 0;
+			}
+		}
+		return (ret==null) ? row : Pair.of(((Pair<?, ?>)row).getKey(), ret);
+	}
+
+	/**
+	 * Renders a single cell, including its padding.
+	 * @param content the cell content, must not be null
+	 * @param ctx the cell context
+	 * @param width the width for the content, without padding
+	 * @param realWidth the width of the cell, including padding and spanned columns
+	 * @param cache cache for rendered cells, null to render the cell
+	 * @param pipeline pipeline for text cells, null for the default pipeline
+	 * @return rendered lines of the cell, must not be changed since they might be cached
+	 */
+	public static String[] renderCell(Object content, AT_CellContext ctx, int width, int realWidth, AT_CellCache cache, AT_CellPipeline pipeline){
+		if(pipeline==null){
+			pipeline = AT_CellPipeline.DEFAULT;
+		}
+		AT_CellCache.Key key = null;
+		if(cache!=null && cache.accepts(content)){
+			key = new AT_CellCache.Key(content, ctx, width, realWidth, pipeline);
+			String[] ret = cache.get(key);
+			if(ret!=null){
+				return ret;
+			}
+		}
+
+		String[] ret = AT_RenderHelpers.renderToWidth(content, width);
+		if(ret==null){
+			ret = pipeline.render(content, ctx, width, realWidth);
+		}
+		else if(content instanceof AsciiTable){
+			ret = AT_RenderHelpers.padLines(ret, ctx, realWidth);
+		}
+		if(key!=null){
+			cache.put(key, ret);
+		}
+		return ret;
+	}
+
+	/**
+	 * Adds the padding of a cell to the lines of a nested table, filling every line to the width of the cell.
+	 * Nested tables narrower than their cell (for instance with a calculator for the longest line) fill the cell like text.
+	 * @param lines the lines of the nested table
+	 * @param ctx the cell context with the padding
+	 * @param realWidth the width of the cell, including padding and spanned columns
+	 * @return new lines including padding
+	 */
+	static String[] padLines(String[] lines, AT_CellContext ctx, int realWidth){
+		String left = StringUtils.repeat(ctx.getPaddingLeftChar(), ctx.getPaddingLeft());
+		String right = StringUtils.repeat(ctx.getPaddingRightChar(), ctx.getPaddingRight());
+		int width = realWidth - left.length() - right.length();
+		String[] ret = new String[ctx.getPaddingTop() + lines.length + ctx.getPaddingBottom()];
+		int i = 0;
+		for(int k=0; k<ctx.getPaddingTop(); k++){
+			ret[i++] = StringUtils.repeat(ctx.getPaddingTopChar(), realWidth);
+		}
+		for(String line : lines){
+			ret[i++] = left + StringUtils.rightPad(line, width) + right;
+		}
+		for(int k=0; k<ctx.getPaddingBottom(); k++){
+			ret[i++] = StringUtils.repeat(ctx.getPaddingBottomChar(), realWidth);
+		}
+		return ret;
+	}
+
+	/**
+	 * Renders cell content that renders itself to a given width.
+	 * A nested table keeps its lines per width until it changes, see {@link AsciiTable#renderAsCellLines(int)}.
+	 * @param content the cell content
+	 * @param width the width for the content, without padding
+	 * @return rendered lines if the content renders itself to a width, null if the content must be processed as text
+	 */
+	public static String[] renderToWidth(Object content, int width){
+		if(content instanceof AsciiTable){
+			return ((AsciiTable)content).renderAsCellLines(width);
+		}
+		//cluster width content (RendersToClusterWidth) that does not render to a width was always formatted as text, its array is not used
+		if(content instanceof DoesRenderToWidth){
+			return new StrTokenizer(((DoesRenderToWidth)content).render(width))
+					.setDelimiterChar('\n')
+					.setIgnoreEmptyTokens(false)
+					.getTokenArray()
+			;
+		}
+		return null;
+	}
+
+	/**
+	 * Formats cell content as text with the default pipeline, see {@link AT_CellPipeline#format(Object, AT_CellContext, int)}.
+	 * @param content the cell content
+	 * @param ctx the cell context with translators and text alignment
+	 * @param width the width for the text, without padding
+	 * @return formatted lines of the text
+	 */
+	public static Collection<StrBuilder> formatText(Object content, AT_CellContext ctx, int width){
+		return AT_CellPipeline.DEFAULT.format(content, ctx, width);
+	}
+
+	/**
+	 * Returns the line separator to use for a renderer and a table context.
+	 * @param renderer the renderer, its separator is used if set
+	 * @param ctx the table context, its separator is used if the renderer has none
+	 * @return line separator, the system line separator if neither renderer nor context define one
+	 */
+	public static String lineSeparator(AT_Renderer renderer, AT_Context ctx){
+		String ret = renderer.getLineSeparator();
+		if(ret==null){
+			ret = ctx.getLineSeparator();
+		}
+		if(ret==null){
+			ret = System.lineSeparator();
+		}
+		return ret;
+	}
+}
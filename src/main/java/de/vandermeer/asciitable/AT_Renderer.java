@@ -15,28 +15,23 @@
 
 package de.vandermeer.asciitable;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.text.StrBuilder;
-import org.apache.commons.lang3.text.StrTokenizer;
-import org.apache.commons.lang3.tuple.Pair;
 
-import de.vandermeer.asciithemes.TA_GridConfig;
 import de.vandermeer.skb.interfaces.document.IsTableRenderer;
-import de.vandermeer.skb.interfaces.render.DoesRenderToWidth;
-import de.vandermeer.skb.interfaces.render.RendersToClusterWidth;
-import de.vandermeer.skb.interfaces.strategies.collections.list.ArrayListStrategy;
-import de.vandermeer.skb.interfaces.transformers.ClusterElementTransformer;
-import de.vandermeer.skb.interfaces.transformers.Object_To_StrBuilder;
-import de.vandermeer.skb.interfaces.transformers.StrBuilder_To_String;
-import de.vandermeer.skb.interfaces.transformers.arrays2d.Array2D_To_FlipArray;
-import de.vandermeer.skb.interfaces.transformers.arrays2d.Array2D_To_NormalizedArray;
-import de.vandermeer.skb.interfaces.transformers.textformat.TextFormat;
-import de.vandermeer.skb.interfaces.transformers.textformat.Text_To_FormattedText;
 
 /**
  * Standard renderer for {@link AsciiTable}.
@@ -55,12 +50,42 @@ public interface AT_Renderer extends IsTableRenderer {
 		return new AT_Renderer(){
 			AT_ColumnWidthCalculator cwc = new CWC_AbsoluteEven();
 			String lineSeparator = null;
+			Executor executor = null;
+			AT_CellCache cellCache = null;
+			AT_RowCache rowCache = null;
+			AT_CellPipeline cellPipeline = AT_CellPipeline.DEFAULT;
+			AT_RenderControl renderControl = null;
 
 			@Override
 			public AT_ColumnWidthCalculator getCWC(){
 				return this.cwc;
 			}
 
+			@Override
+			public AT_CellCache getCellCache(){
+				return this.cellCache;
+			}
+
+			@Override
+			public AT_CellPipeline getCellPipeline(){
+				return this.cellPipeline;
+			}
+
+			@Override
+			public AT_RenderControl getRenderControl(){
+				return this.renderControl;
+			}
+
+			@Override
+			public AT_RowCache getRowCache(){
+				return this.rowCache;
+			}
+
+			@Override
+			public Executor getExecutor(){
+				return this.executor;
+			}
+
 			@Override
 			public String getLineSeparator() {
 				return this.lineSeparator;
@@ -74,6 +99,36 @@ public interface AT_Renderer extends IsTableRenderer {
 				return this;
 			}
 
+			@Override
+			public AT_Renderer setCellCache(AT_CellCache cache){
+				this.cellCache = cache;
+				return this;
+			}
+
+			@Override
+			public AT_Renderer setCellPipeline(AT_CellPipeline pipeline){
+				this.cellPipeline = (pipeline==null) ? AT_CellPipeline.DEFAULT : pipeline;
+				return this;
+			}
+
+			@Override
+			public AT_Renderer setRenderControl(AT_RenderControl control){
+				this.renderControl = control;
+				return this;
+			}
+
+			@Override
+			public AT_Renderer setRowCache(AT_RowCache cache){
+				this.rowCache = cache;
+				return this;
+			}
+
+			@Override
+			public AT_Renderer setExecutor(Executor executor){
+				this.executor = executor;
+				return this;
+			}
+
 			@Override
 			public AT_Renderer setLineSeparator(String separator) {
 				if(!StringUtils.isBlank(separator)){
@@ -92,6 +147,104 @@ public interface AT_Renderer extends IsTableRenderer {
 		return null;
 	}
 
+	/**
+	 * Returns the cache for rendered cells.
+	 * @return cell cache, null if not used
+	 */
+	default AT_CellCache getCellCache(){
+		return null;
+	}
+
+	/**
+	 * Sets a cache for rendered cells, useful for tables that are rendered repeatedly with mostly unchanged cells.
+	 * The cache is kept between renders and can be shared by several renderers, see {@link AT_CellCache} for details.
+	 * Renderers that do not support caching cells ignore the cache.
+	 * @param cache the cache, null to render all cells
+	 * @return self to allow chaining
+	 */
+	default AT_Renderer setCellCache(AT_CellCache cache){
+		return this;
+	}
+
+	/**
+	 * Returns the pipeline for text cells.
+	 * @return cell pipeline
+	 */
+	default AT_CellPipeline getCellPipeline(){
+		return AT_CellPipeline.DEFAULT;
+	}
+
+	/**
+	 * Sets the pipeline for text cells, for instance one with custom stages, see {@link AT_CellPipeline}.
+	 * Renderers that do not support custom pipelines ignore the pipeline.
+	 * @param pipeline the pipeline, null for the default pipeline
+	 * @return self to allow chaining
+	 */
+	default AT_Renderer setCellPipeline(AT_CellPipeline pipeline){
+		return this;
+	}
+
+	/**
+	 * Returns the cache with the rows of the last render, for incremental re-render.
+	 * @return row cache, null if not used
+	 */
+	default AT_RowCache getRowCache(){
+		return null;
+	}
+
+	/**
+	 * Sets a cache for the rows of the last render, see {@link AT_RowCache} for details.
+	 * With a row cache, a re-render with unchanged column widths only formats rows that are new or changed since the last render.
+	 * Renderers that do not support incremental re-render ignore the cache.
+	 * @param cache the cache, null to format all rows in every render
+	 * @return self to allow chaining
+	 */
+	default AT_Renderer setRowCache(AT_RowCache cache){
+		return this;
+	}
+
+	/**
+	 * Returns the executor for formatting content rows in parallel.
+	 * @return executor, null if rows are formatted on the calling thread
+	 */
+	default Executor getExecutor(){
+		return null;
+	}
+
+	/**
+	 * Sets an executor (for instance a {@link java.util.concurrent.ForkJoinPool}) to format content rows in parallel.
+	 * 
+	 * Column widths are calculated first, then rows are formatted concurrently in chunks,
+	 * and finally the grid is added with all rows in their original order.
+	 * The output is the same as without an executor.
+	 * Renderers that do not support parallel formatting ignore the executor.
+	 * 
+	 * @param executor the executor, null to format all rows on the calling thread
+	 * @return self to allow chaining
+	 */
+	default AT_Renderer setExecutor(Executor executor){
+		return this;
+	}
+
+	/**
+	 * Returns the control for stopping renders.
+	 * @return render control, null if not used
+	 */
+	default AT_RenderControl getRenderControl(){
+		return null;
+	}
+
+	/**
+	 * Sets a control with deadline, cancellation, and progress for all following renders, see {@link AT_RenderControl} for details.
+	 * A stopped render throws an {@link AsciiTableCancelledException}.
+	 * Renderers that do not support render control ignore the control.
+	 * @param control the control, null to render without control
+	 * @return self to allow chaining
+	 */
+	default AT_Renderer setRenderControl(AT_RenderControl control){
+		return this;
+	}
+
 	/**
 	 * Returns the current set line separator.
 	 * @return the line separator, null if none set
@@ -125,15 +278,387 @@ public interface AT_Renderer extends IsTableRenderer {
 		Validate.notNull(rows);
 		Validate.notNull(ctx);
 
-		Collection<StrBuilder> coll = this.renderAsCollection(rows, colNumbers, ctx, width);
-		String fileSeparator = this.getLineSeparator();
-		if(fileSeparator==null){
-			fileSeparator = ctx.getLineSeparator();
+		return this.render(this.layout(rows, colNumbers, ctx, width));
+	}
+
+	/**
+	 * Renders a table from a layout plan.
+	 * The output buffer is allocated once with the exact size of the rendered table.
+	 * @param plan the layout plan, cannot be null
+	 * @return a single string with the rendered table
+	 * @throws {@link NullPointerException} if the plan was null
+	 */
+	default String render(AT_LayoutPlan plan){
+		Validate.notNull(plan);
+		long size = plan.getCharCount();
+		StrBuilder ret = new StrBuilder((size<Integer.MAX_VALUE) ? (int)size : Integer.MAX_VALUE);
+		try{
+			return this.renderTo(ret, plan).build();
+		}
+		catch(AsciiTableCancelledException ex){
+			throw ex.keepPartial(ret);
+		}
+	}
+
+	/**
+	 * Renders a table from a layout plan directly into an appendable.
+	 * @param out the appendable to render to, cannot be null
+	 * @param plan the layout plan, cannot be null
+	 * @return the given appendable
+	 * @throws {@link NullPointerException} if out or plan where null
+	 * @throws {@link AsciiTableException} if writing to the appendable failed
+	 */
+	default <A extends Appendable> A renderTo(A out, AT_LayoutPlan plan){
+		Validate.notNull(out);
+		Validate.notNull(plan);
+
+		plan.paint(new AT_LineWriter(out, plan.getContext(), plan.getLineSeparator()));
+		return out;
+	}
+
+	/**
+	 * Renders a table from a layout plan into lines over a single backing character array, see {@link AT_Lines}.
+	 * The array is allocated once with the exact size of the rendered table.
+	 * @param plan the layout plan, cannot be null
+	 * @return the rendered lines, including frame margins
+	 * @throws {@link NullPointerException} if the plan was null
+	 */
+	default AT_Lines renderAsLines(AT_LayoutPlan plan){
+		Validate.notNull(plan);
+
+		int lines = plan.getLineCount();
+		long size = plan.getCharCount() - (long)plan.getLineSeparator().length() * Math.max(lines - 1, 0);
+		AT_Lines.Collector collector = new AT_Lines.Collector(plan.getContext(), (size<Integer.MAX_VALUE) ? (int)size : Integer.MAX_VALUE, lines);
+		return plan.paint(collector).toLines();
+	}
+
+	/**
+	 * Renders a table from a layout plan into bytes.
+	 * 
+	 * For US-ASCII, ISO-8859-1, and UTF-8 the lines are written as bytes directly into a buffer of the exact size,
+	 * without a string of the whole table and without a charset encoder.
+	 * Lines with characters outside the single byte range of the charset are encoded with the charset.
+	 * Other charsets use {@link #render(AT_LayoutPlan)} and encode the result.
+	 * 
+	 * @param plan the layout plan, cannot be null
+	 * @param charset the charset, cannot be null
+	 * @return the rendered table as bytes
+	 * @throws {@link NullPointerException} if plan or charset where null
+	 */
+	default byte[] renderAsBytes(AT_LayoutPlan plan, Charset charset){
+		Validate.notNull(plan);
+		Validate.notNull(charset);
+
+		if(AT_ByteWriter.limit(charset)<0){
+			return this.render(plan).getBytes(charset);
+		}
+		long size = plan.getCharCount();
+		AT_ByteWriter writer = new AT_ByteWriter(plan.getContext(), plan.getLineSeparator(), charset, (size<Integer.MAX_VALUE) ? (int)size : Integer.MAX_VALUE, null);
+		return plan.paint(writer).toByteArray();
+	}
+
+	/**
+	 * Renders a table from a layout plan as bytes into an output stream, writing each line as soon as it is finished.
+	 * The stream is neither buffered nor closed, see {@link #renderAsBytes(AT_LayoutPlan, Charset)} for the charset handling.
+	 * @param out the stream to render to, cannot be null
+	 * @param plan the layout plan, cannot be null
+	 * @param charset the charset, cannot be null
+	 * @return the given stream
+	 * @throws {@link NullPointerException} if out, plan, or charset where null
+	 * @throws {@link AsciiTableException} if writing to the stream failed
+	 */
+	default <S extends OutputStream> S renderTo(S out, AT_LayoutPlan plan, Charset charset){
+		Validate.notNull(out);
+		Validate.notNull(plan);
+		Validate.notNull(charset);
+
+		if(AT_ByteWriter.limit(charset)<0){
+			Writer writer = new OutputStreamWriter(out, charset);
+			this.renderTo(writer, plan);
+			try{
+				writer.flush();
+			}
+			catch(IOException ex){
+				throw new AsciiTableException(ex);
+			}
+			return out;
+		}
+		plan.paint(new AT_ByteWriter(plan.getContext(), plan.getLineSeparator(), charset, 256, out));
+		return out;
+	}
+
+	/**
+	 * Renders an {@link AsciiTable} into lines over a single backing character array.
+	 * @param rows table rows to render, cannot be null
+	 * @param colNumbers number of columns in the table
+	 * @param ctx context of the original table with relevant settings, cannot be null
+	 * @return the rendered lines, including frame margins
+	 * @throws {@link NullPointerException} if rows or context where null
+	 */
+	default AT_Lines renderAsLines(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx){
+		Validate.notNull(ctx);
+		return this.renderAsLines(rows, colNumbers, ctx, ctx.getWidth());
+	}
+
+	/**
+	 * Renders an {@link AsciiTable} into lines over a single backing character array.
+	 * 
+	 * The lines are the same as the ones of {@link #renderAsCollection(LinkedList, int, AT_Context, int)},
+	 * but they are not copied into separate builders or strings: each line is a read-only view, see {@link AT_Lines}.
+	 * 
+	 * @param rows table rows to render, cannot be null
+	 * @param colNumbers number of columns in the table
+	 * @param ctx context of the original table with relevant settings, cannot be null
+	 * @param width maximum line width, excluding any extra padding
+	 * @return the rendered lines, including frame margins
+	 * @throws {@link NullPointerException} if rows or context where null
+	 */
+	default AT_Lines renderAsLines(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx, int width){
+		return this.renderAsLines(this.layout(rows, colNumbers, ctx, width));
+	}
+
+	/**
+	 * Creates a line index for an {@link AsciiTable}, to render ranges of lines, see {@link AT_LineIndex}.
+	 * @param rows table rows to index, cannot be null
+	 * @param colNumbers number of columns in the table
+	 * @param ctx context of the original table with relevant settings, cannot be null
+	 * @return line index for the table
+	 * @throws {@link NullPointerException} if rows or context where null
+	 */
+	default AT_LineIndex lineIndex(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx){
+		Validate.notNull(ctx);
+		return this.lineIndex(rows, colNumbers, ctx, ctx.getWidth());
+	}
+
+	/**
+	 * Creates a line index for an {@link AsciiTable}, to render ranges of lines, see {@link AT_LineIndex}.
+	 * All rows are formatted once to measure them, only their number of lines is kept.
+	 * @param rows table rows to index, cannot be null
+	 * @param colNumbers number of columns in the table
+	 * @param ctx context of the original table with relevant settings, cannot be null
+	 * @param width maximum line width, excluding any extra padding
+	 * @return line index for the table
+	 * @throws {@link NullPointerException} if rows or context where null
+	 * @throws {@link AsciiTableException} if a row type or style was unknown or a row had no cells
+	 */
+	default AT_LineIndex lineIndex(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx, int width){
+		Validate.notNull(rows);
+		Validate.notNull(ctx);
+
+		int[] colWidth = this.getCWC().calculateColumnWidths(rows, colNumbers, ctx.getTextWidth(width));
+		return AT_LineIndex.create(this, rows, colNumbers, colWidth, ctx);
+	}
+
+	/**
+	 * Renders a range of output lines of a table, formatting only the rows covering the range.
+	 * 
+	 * Lines are counted as in {@link #renderAsCollection(LinkedList, int, AT_Context, int)}, including frame margins.
+	 * The rendered lines are the same as the lines of the whole table in that range.
+	 * 
+	 * @param index the line index of the table, cannot be null
+	 * @param fromLine first line to render, inclusive
+	 * @param toLine last line to render, exclusive
+	 * @return the rendered lines
+	 * @throws {@link NullPointerException} if the index was null
+	 * @throws {@link IllegalStateException} if the range was not within the lines of the table
+	 */
+	default AT_Lines renderLines(AT_LineIndex index, int fromLine, int toLine){
+		Validate.notNull(index);
+		Validate.validState(
+				fromLine>=0 && fromLine<=toLine && toLine<=index.getLineCount(),
+				"line range out of bounds, found <" + fromLine + "> to <" + toLine + "> for <" + index.getLineCount() + "> lines"
+		);
+		return index.render(this, fromLine, toLine);
+	}
+
+	/**
+	 * Renders one page of an {@link AsciiTable}, with the header rows repeated at the top, see {@link AT_Pagination}.
+	 * 
+	 * The column widths are calculated for the whole table, so that all pages have the same columns.
+	 * Only the rows of the requested page are formatted.
+	 * The row cache of the renderer is not used for pages: it keeps only the rows of the last render,
+	 * so every page would replace the rows of the whole table and the next full render would format all rows again.
+	 * 
+	 * @param rows table rows, cannot be null
+	 * @param colNumbers number of columns in the table
+	 * @param ctx context of the original table with relevant settings, cannot be null
+	 * @param headerRows number of leading rows repeated on every page
+	 * @param rowsPerPage number of content rows per page, must be larger than 0
+	 * @param page the page to render, starting with 0
+	 * @return a single string with the rendered page
+	 * @throws {@link NullPointerException} if rows or context where null
+	 * @throws {@link IllegalStateException} if header rows, rows per page, or the page were out of bounds
+	 */
+	default String renderPage(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx, int headerRows, int rowsPerPage, int page){
+		Validate.notNull(rows);
+		Validate.notNull(ctx);
+
+		AT_Pagination pagination = new AT_Pagination(rows, headerRows, rowsPerPage);
+		int[] colWidth = this.getCWC().calculateColumnWidths(rows, colNumbers, ctx.getTextWidth(ctx.getWidth()));
+		return this.render(AT_LayoutPlan.create(this, pagination.getPageRows(page), colNumbers, colWidth, ctx, false));
+	}
+
+	/**
+	 * Renders all pages of an {@link AsciiTable}, see {@link #renderPage(LinkedList, int, AT_Context, int, int, int)}.
+	 * The column widths and the pagination are calculated once for all pages, the row cache of the renderer is not used.
+	 * @param rows table rows, cannot be null
+	 * @param colNumbers number of columns in the table
+	 * @param ctx context of the original table with relevant settings, cannot be null
+	 * @param headerRows number of leading rows repeated on every page
+	 * @param rowsPerPage number of content rows per page, must be larger than 0
+	 * @return list with the rendered pages
+	 * @throws {@link NullPointerException} if rows or context where null
+	 * @throws {@link IllegalStateException} if header rows or rows per page were out of bounds
+	 */
+	default List<String> renderPages(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx, int headerRows, int rowsPerPage){
+		Validate.notNull(rows);
+		Validate.notNull(ctx);
+
+		AT_Pagination pagination = new AT_Pagination(rows, headerRows, rowsPerPage);
+		int[] colWidth = this.getCWC().calculateColumnWidths(rows, colNumbers, ctx.getTextWidth(ctx.getWidth()));
+		ArrayList<String> ret = new ArrayList<>(pagination.getPageCount());
+		for(int i=0; i<pagination.getPageCount(); i++){
+			ret.add(this.render(AT_LayoutPlan.create(this, pagination.getPageRows(i), colNumbers, colWidth, ctx, false)));
+		}
+		return ret;
+	}
+
+	/**
+	 * Measures an {@link AsciiTable}, see {@link AT_LayoutPlan}.
+	 * @param rows table rows to measure, cannot be null
+	 * @param colNumbers number of columns in the table
+	 * @param ctx context of the original table with relevant settings, cannot be null
+	 * @return layout plan for the table
+	 * @throws {@link NullPointerException} if rows or context where null
+	 */
+	default AT_LayoutPlan layout(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx){
+		Validate.notNull(ctx);
+		return this.layout(rows, colNumbers, ctx, ctx.getWidth());
+	}
+
+	/**
+	 * Measures an {@link AsciiTable}: calculates column widths, formats all rows, and counts lines and characters.
+	 * The returned plan can be rendered (repeatedly) without measuring again, see {@link AT_LayoutPlan}.
+	 * @param rows table rows to measure, cannot be null
+	 * @param colNumbers number of columns in the table
+	 * @param ctx context of the original table with relevant settings, cannot be null
+	 * @param width maximum line width, excluding any extra padding
+	 * @return layout plan for the table
+	 * @throws {@link NullPointerException} if rows or context where null
+	 * @throws {@link AsciiTableException} if a row type or style was unknown or a row had no cells
+	 */
+	default AT_LayoutPlan layout(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx, int width){
+		Validate.notNull(rows);
+		Validate.notNull(ctx);
+
+		int[] colWidth = this.getCWC().calculateColumnWidths(rows, colNumbers, ctx.getTextWidth(width));
+		return AT_LayoutPlan.create(this, rows, colNumbers, colWidth, ctx);
+	}
+
+	/**
+	 * Renders an {@link AsciiTable} directly into an appendable (for instance a writer, a string builder, or a print stream).
+	 * @param out the appendable to render to, cannot be null
+	 * @param rows table rows to render, cannot be null
+	 * @param colNumbers number of columns in the table
+	 * @param ctx context of the original table with relevant settings, cannot be null
+	 * @return the given appendable
+	 * @throws {@link NullPointerException} if out, rows, or context where null
+	 * @throws {@link AsciiTableException} if writing to the appendable failed
+	 */
+	default <A extends Appendable> A renderTo(A out, LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx){
+		Validate.notNull(ctx);
+		return this.renderTo(out, rows, colNumbers, ctx, ctx.getWidth());
+	}
+
+	/**
+	 * Renders an {@link AsciiTable} directly into an appendable (for instance a writer, a string builder, or a print stream).
+	 * 
+	 * Every line is written as soon as it is finished, separated by the line separator also used by {@link #render(LinkedList, int, AT_Context, int)}.
+	 * Only the rows and lines required to finish the current line are kept in memory, never the whole rendered table.
+	 * The output is the same as for the render method, provided that the column widths cover all columns.
+	 * Tables with cells that do not fill their columns (for instance nested tables or content rendering itself to a width)
+	 * are formatted completely before the first line is written, since their grid depends on the formatted lines.
+	 * 
+	 * @param out the appendable to render to, cannot be null
+	 * @param rows table rows to render, cannot be null
+	 * @param colNumbers number of columns in the table
+	 * @param ctx context of the original table with relevant settings, cannot be null
+	 * @param width maximum line width, excluding any extra padding
+	 * @return the given appendable
+	 * @throws {@link NullPointerException} if out, rows, or context where null
+	 * @throws {@link AsciiTableException} if writing to the appendable failed
+	 */
+	default <A extends Appendable> A renderTo(A out, LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx, int width){
+		Validate.notNull(out);
+		Validate.notNull(rows);
+		Validate.notNull(ctx);
+
+		int[] colWidth = this.getCWC().calculateColumnWidths(rows, colNumbers, ctx.getTextWidth(width));
+		if(!AT_RenderHelpers.hasFixedColumns(rows, colNumbers)){
+			return this.renderTo(out, AT_LayoutPlan.create(this, rows, colNumbers, colWidth, ctx));
 		}
-		if(fileSeparator==null){
-			fileSeparator = System.lineSeparator();
+		AT_LineWriter writer = new AT_LineWriter(out, ctx, AT_RenderHelpers.lineSeparator(this, ctx)).setControl(this.getRenderControl());
+		AT_GridStream grid = new AT_GridStream(ctx.getGrid(), ctx.getGridTheme() | ctx.getGridThemeOptions(), colWidth, writer);
+		AT_RenderHelpers.renderRows(this, rows, colNumbers, colWidth, grid::add);
+		grid.finish();
+		writer.finish();
+		return out;
+	}
+
+	/**
+	 * Renders an {@link AsciiTable} lazily as a stream of lines.
+	 * @param rows table rows to render, cannot be null
+	 * @param colNumbers number of columns in the table
+	 * @param ctx context of the original table with relevant settings, cannot be null
+	 * @return sequential stream of lines including frame margins, without line separators
+	 * @throws {@link NullPointerException} if rows or context where null
+	 */
+	default Stream<String> lines(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx){
+		Validate.notNull(ctx);
+		return this.lines(rows, colNumbers, ctx, ctx.getWidth());
+	}
+
+	/**
+	 * Renders an {@link AsciiTable} lazily as a stream of lines.
+	 * 
+	 * Only the column widths are calculated when the stream is created.
+	 * Rows are laid out and painted one at a time while the stream is consumed, as far as required for the next line,
+	 * so a stream limited to the first lines formats only the first rows of the table.
+	 * Rows are formatted on the consuming thread, the executor and the row cache of the renderer are not used.
+	 * The rows must not be changed before the stream is consumed.
+	 * Tables with cells that do not fill their columns (for instance nested tables or content rendering itself to a width)
+	 * are formatted completely when the stream is created, since their grid depends on the formatted lines.
+	 * 
+	 * @param rows table rows to render, cannot be null
+	 * @param colNumbers number of columns in the table
+	 * @param ctx context of the original table with relevant settings, cannot be null
+	 * @param width maximum line width, excluding any extra padding
+	 * @return sequential stream of lines including frame margins, without line separators
+	 * @throws {@link NullPointerException} if rows or context where null
+	 */
+	default Stream<String> lines(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx, int width){
+		Validate.notNull(rows);
+		Validate.notNull(ctx);
+
+		int[] colWidth = this.getCWC().calculateColumnWidths(rows, colNumbers, ctx.getTextWidth(width));
+		if(!AT_RenderHelpers.hasFixedColumns(rows, colNumbers)){
+			AT_LayoutPlan plan = AT_LayoutPlan.create(this, rows, colNumbers, colWidth, ctx);
+			ArrayList<String> lines = new ArrayList<>(plan.getLineCount());
+			plan.paint(new AT_LineWriter(lines::add, plan.getContext()));
+			return lines.stream();
 		}
-		return new StrBuilder().appendWithSeparators(coll, fileSeparator).build();
+		AT_LineIterator ret = new AT_LineIterator(rows.iterator(), this.getRenderControl());
+		AT_LineWriter writer = new AT_LineWriter(ret::offer, ctx);
+		AT_GridStream grid = new AT_GridStream(ctx.getGrid(), ctx.getGridTheme() | ctx.getGridThemeOptions(), colWidth, writer);
+		AT_CellCache cache = this.getCellCache();
+		AT_CellPipeline pipeline = this.getCellPipeline();
+		return ret.setSteps(
+				row -> grid.add(AT_RenderHelpers.renderRow(row, colNumbers, colWidth, cache, pipeline)),
+				() -> {
+					grid.finish();
+					writer.finish();
+				}
+		).stream();
 	}
 
 	/**
@@ -163,132 +688,34 @@ public interface AT_Renderer extends IsTableRenderer {
 		Validate.notNull(rows);
 		Validate.notNull(ctx);
 
-		ArrayList<Object> table = new ArrayList<>();
+		ArrayList<StrBuilder> ret = new ArrayList<>();
 		int[] colWidth = this.getCWC().calculateColumnWidths(rows, colNumbers, ctx.getTextWidth(width));
 
-		for(AT_Row row : rows){
-			int ruleset = 0;
-			switch(row.getStyle()){
-				case NORMAL:
-					ruleset = TA_GridConfig.RULESET_NORMAL;
-					break;
-				case STRONG:
-					ruleset = TA_GridConfig.RULESET_STRONG;
-					break;
-				case LIGHT:
-					ruleset = TA_GridConfig.RULESET_LIGHT;
-					break;
-				case HEAVY:
-					ruleset = TA_GridConfig.RULESET_HEAVY;
-					break;
-				case UNKNOWN:
-					throw new AsciiTableException("AT_Renderer: cannot render unknown row style", "table row style set to 'unknown'");
-				default:
-					throw new AsciiTableException("AT_Renderer: cannot render unknown row style", "table row style not specified or type not processed");
-			}
+		ArrayList<Object> formatted = new ArrayList<>(rows.size());
+		AT_RenderHelpers.renderRows(this, rows, colNumbers, colWidth, formatted::add);
 
-			switch(row.getType()){
-				case RULE:
-					table.add(ruleset);
-					break;
-				case CONTENT:
-					String[][] cAr = new String[colNumbers][];
-					LinkedList<AT_Cell> cells = row.getCells();
-					if(cells==null){
-						throw new AsciiTableException("cannot render table", "row content (cells) was null");
-					}
-
-					int length = 0;
-					for(int i=0; i<cells.size(); i++){
-						length += colWidth[i];
-
-						Object content = cells.get(i).getContent();
-						if(content==null){
-							length++;
-							continue;
-						}
-
-						int realWidth = length;
-						length -= cells.get(i).getContext().getPaddingLeft();
-						length -= cells.get(i).getContext().getPaddingRight();
-
-						if(content instanceof RendersToClusterWidth){
-							cAr[i] = ((RendersToClusterWidth)content).renderAsArray(length);
-						}
-						if(content instanceof DoesRenderToWidth){
-							cAr[i] = new StrTokenizer(((DoesRenderToWidth)content).render(length))
-									.setDelimiterChar('\n')
-									.setIgnoreEmptyTokens(false)
-									.getTokenArray()
-							;
-						}
-						else{
-							//create text from cell object
-							String text = Object_To_StrBuilder.convert(content)
-									.toString()
-									.replaceAll("\\s+", " ")
-							;
-
-							//check for translators, use what is available
-							if(cells.get(i).getContext().getTargetTranslator()!=null){
-								if(cells.get(i).getContext().getTargetTranslator().getCombinedTranslator()!=null){
-									text = cells.get(i).getContext().getTargetTranslator().getCombinedTranslator().translate(text);
-								}
-							}
-							else if(cells.get(i).getContext().getHtmlElementTranslator()!=null){
-								text = cells.get(i).getContext().getHtmlElementTranslator().translateHtmlElements(text);
-							}
-							else if(cells.get(i).getContext().getCharTranslator()!=null){
-								text = cells.get(i).getContext().getCharTranslator().translateCharacters(text);
-							}
-
-							Collection<StrBuilder> csb = Text_To_FormattedText.create(
-									length,
-									cells.get(i).getContext().getTextAlignment().getMapping(),
-									TextFormat.NONE.getMapping(),
-									null, null, null, 0, 0, null, 0, 0, null)
-									.transform(text)
-							;
-							for (StrBuilder sb : csb){
-								sb.insert(0, new StrBuilder().appendPadding(cells.get(i).getContext().getPaddingLeft(), cells.get(i).getContext().getPaddingLeftChar()));
-								sb.appendPadding(cells.get(i).getContext().getPaddingRight(), cells.get(i).getContext().getPaddingRightChar());
-							}
-							for(int k=0; k<cells.get(i).getContext().getPaddingTop(); k++){
-								((ArrayList<StrBuilder>)csb).add(0, new StrBuilder().appendPadding(realWidth, cells.get(i).getContext().getPaddingTopChar()));
-							}
-							for(int k=0; k<cells.get(i).getContext().getPaddingBottom(); k++){
-								((ArrayList<StrBuilder>)csb).add(new StrBuilder().appendPadding(realWidth, cells.get(i).getContext().getPaddingBottomChar()));
-							}
-
-							cAr[i] = ClusterElementTransformer.create().transform(
-									csb,
-									StrBuilder_To_String.create(),
-									ArrayListStrategy.create()
-							).toArray(new String[0]);
-						}
-						length = 0;
-					}
-					cAr = Array2D_To_NormalizedArray.create(colNumbers).transform(cAr);
-					cAr = Array2D_To_FlipArray.create().transform(cAr);
-					table.add(Pair.of(ruleset, cAr));
-					break;
-				case UNKNOWN:
-					throw new AsciiTableException("AT_Renderer: cannot render unknown row type", "table row type set to 'unknown'");
-				default:
-					throw new AsciiTableException("AT_Renderer: cannot render unknown row type", "table row type not specified or type not processed");
-			}
-		}
-
-		ArrayList<StrBuilder> ret = ctx.getGrid().addGrid(table, ctx.getGridTheme() | ctx.getGridThemeOptions());
+		AT_RenderControl control = this.getRenderControl();
+		AT_GridStream grid = new AT_GridStream(ctx.getGrid(), ctx.getGridTheme() | ctx.getGridThemeOptions(), AT_RenderHelpers.gridColumns(formatted, colWidth), (control==null) ? ret::add : line -> {
+			control.line();
+			ret.add(line);
+		});
+		formatted.forEach(grid::add);
+		grid.finish();
 		int max = ret.get(0).length() + ctx.getFrameLeftMargin() + ctx.getFrameRightMargin();
 		for (StrBuilder sb : ret){
 			sb.insert(0, new StrBuilder().appendPadding(ctx.getFrameLeftMargin(), ctx.getFrameLeftChar()));
 			sb.appendPadding(ctx.getFrameRightMargin(), ctx.getFrameRightChar());
 		}
 		for(int k=0; k<ctx.getFrameTopMargin(); k++){
+			if(control!=null){
+				control.line();
+			}
 			ret.add(0, new StrBuilder().appendPadding(max, ctx.getFrameTopChar()));
 		}
 		for(int k=0; k<ctx.getFrameBottomMargin(); k++){
+			if(control!=null){
+				control.line();
+			}
 			ret.add(new StrBuilder().appendPadding(max, ctx.getFrameBottomChar()));
 		}
 
@@ -15,7 +15,11 @@
 
 package de.vandermeer.asciitable;
 
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.Map;
 
 import org.apache.commons.lang3.Validate;
 
@@ -36,6 +40,124 @@ import de.vandermeer.skb.interfaces.translators.TargetTranslator;
  */
 public class AT_Row implements IsTableRow {
 
+	/**
+	 * List of cells of a content row, keeping an array copy of the cells for indexed access in constant time.
+	 * The array is created again when the list was changed.
+	 */
+	protected static class CellList extends LinkedList<AT_Cell> {
+
+		private static final long serialVersionUID = 1L;
+
+		/** Cells as array, null if not created or out of date. */
+		protected transient AT_Cell[] array;
+
+		/** Modification count of the list when the array was created. */
+		protected transient int arrayMod;
+
+		/**
+		 * Creates a new cell list.
+		 * @param cells the cells of the list
+		 */
+		protected CellList(AT_Cell[] cells){
+			super(Arrays.asList(cells));
+			this.array = cells;
+			this.arrayMod = this.modCount;
+		}
+
+		/**
+		 * Returns the cells as array.
+		 * @return array of all cells, must not be changed
+		 */
+		protected AT_Cell[] toCellArray(){
+			if(this.array==null || this.arrayMod!=this.modCount){
+				this.array = this.toArray(new AT_Cell[this.size()]);
+				this.arrayMod = this.modCount;
+			}
+			return this.array;
+		}
+
+		@Override
+		public AT_Cell set(int index, AT_Cell element){
+			//set is not a structural change and does not change the modification count
+			this.array = null;
+			return super.set(index, element);
+		}
+
+		@Override
+		public ListIterator<AT_Cell> listIterator(int index){
+			//iterator set is used by replaceAll and sort, it does not change the modification count either
+			ListIterator<AT_Cell> it = super.listIterator(index);
+			return new ListIterator<AT_Cell>(){
+				@Override
+				public boolean hasNext(){
+					return it.hasNext();
+				}
+
+				@Override
+				public AT_Cell next(){
+					return it.next();
+				}
+
+				@Override
+				public boolean hasPrevious(){
+					return it.hasPrevious();
+				}
+
+				@Override
+				public AT_Cell previous(){
+					return it.previous();
+				}
+
+				@Override
+				public int nextIndex(){
+					return it.nextIndex();
+				}
+
+				@Override
+				public int previousIndex(){
+					return it.previousIndex();
+				}
+
+				@Override
+				public void remove(){
+					it.remove();
+				}
+
+				@Override
+				public void set(AT_Cell e){
+					CellList.this.array = null;
+					it.set(e);
+				}
+
+				@Override
+				public void add(AT_Cell e){
+					it.add(e);
+				}
+			};
+		}
+	}
+
+	/** Shared rule rows, one for each rule style, rule rows are immutable. */
+	private static final Map<TableRowStyle, AT_Row> RULES = new EnumMap<>(TableRowStyle.class);
+
+	static{
+		for(TableRowStyle style : TableRowStyle.values()){
+			if(style!=TableRowStyle.UNKNOWN){
+				RULES.put(style, new AT_Row(){
+					@Override
+					public TableRowType getType(){
+						return TableRowType.RULE;
+					}
+
+					@Override
+					public TableRowStyle getStyle(){
+						return style;
+					}
+				});
+			}
+		}
+	}
+
 	/** The row context. */
 	protected AT_RowContext ctx = new AT_RowContext();
 
@@ -49,11 +171,28 @@ public class AT_Row implements IsTableRow {
 		return null;
 	}
 
+	/**
+	 * Returns the cells of the row as an array, for indexed access in constant time.
+	 * For rows created by {@link #createContentRow(Object[], TableRowStyle)} the array is kept with the row
+	 * and only created again if the list returned by {@link #getCells()} was changed.
+	 * @return array of all cells, must not be changed; null for rows without cells
+	 */
+	public AT_Cell[] getCellArray(){
+		LinkedList<AT_Cell> cells = this.getCells();
+		if(cells==null){
+			return null;
+		}
+		if(cells instanceof CellList){
+			return ((CellList)cells).toCellArray();
+		}
+		return cells.toArray(new AT_Cell[cells.size()]);
+	}
+
 	/**
 	 * Creates a new row representing a rule.
 	 * @param type the type for the rule row, must not be null nor {@link TableRowType#CONTENT} nor {@link TableRowType#UNKNOWN}
 	 * @param style the style for the rule row, must not be null nor {@link TableRowStyle#UNKNOWN}
-	 * @return a new row representing a rule
+	 * @return a row representing a rule, rule rows are immutable and shared
 	 * @throws {@link NullPointerException} if type or style where null
 	 * @throws {@link IllegalStateException} if type or style where unknown or if type was {@link TableRowType#CONTENT}
 	 */
@@ -64,6 +203,9 @@ public class AT_Row implements IsTableRow {
 		Validate.notNull(style);
 		Validate.validState(style!=TableRowStyle.UNKNOWN);
 
+		if(type==TableRowType.RULE){
+			return RULES.get(style);
+		}
 		return new AT_Row(){
 			@Override
 			public TableRowType getType(){
@@ -98,10 +240,11 @@ public class AT_Row implements IsTableRow {
 		Validate.notNull(style);
 		Validate.validState(style!=TableRowStyle.UNKNOWN);
 
-		LinkedList<AT_Cell> cells = new LinkedList<AT_Cell>();
-		for(Object o : content){
-			cells.add(new AT_Cell(o));
+		AT_Cell[] ar = new AT_Cell[content.length];
+		for(int i=0; i<content.length; i++){
+			ar[i] = new AT_Cell(content[i]);
 		}
+		LinkedList<AT_Cell> cells = new CellList(ar);
 
 		return new AT_Row(){
 			@Override
@@ -368,4 +511,32 @@ public class AT_Row implements IsTableRow {
 		}
 		return this;
 	}
+
+	/**
+	 * Sets the maximum number of text lines for all cells in the row, see {@link AT_CellContext#setMaxLines(int)}.
+	 * @param maxLines new maximum, 0 for no limit, ignored if smaller than 0
+	 * @return this to allow chaining
+	 */
+	public AT_Row setMaxLines(int maxLines){
+		if(this.hasCells()){
+			for(AT_Cell cell : this.getCells()){
+				cell.getContext().setMaxLines(maxLines);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the ellipsis for truncated text for all cells in the row.
+	 * @param ellipsis new ellipsis, an empty string to truncate without ellipsis, ignored if null
+	 * @return this to allow chaining
+	 */
+	public AT_Row setEllipsis(String ellipsis){
+		if(this.hasCells()){
+			for(AT_Cell cell : this.getCells()){
+				cell.getContext().setEllipsis(ellipsis);
+			}
+		}
+		return this;
+	}
 }
@@ -0,0 +1,243 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import de.vandermeer.skb.interfaces.document.TableRowType;
+
+/**
+ * Keeps the rendered content rows of the last render of a table, for incremental re-render.
+ *
+ * Every content row is stored with its cells, their modification versions (see {@link AT_Cell#getVersion()}),
+ * and the render versions of memoizable content (see {@link AT_Memoizable}, for instance nested tables).
+ * On the next render with unchanged column widths, only rows that are new or changed are formatted again,
+ * all other rows are taken from the last render.
+ * The grid is then added to all rows as usual.
+ * If the column widths, the cell pipeline, or the cell cache of the renderer have changed, all rows are formatted again.
+ *
+ * A row cache should be used for a single table.
+ * Rows not in the last rendered table are dropped, so the cache does not grow beyond the size of the table.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_RowCache {
+
+	/**
+	 * A rendered row with the cells, cell versions, and content render versions it was rendered for.
+	 */
+	static final class Entry {
+
+		/** The cells of the row when rendered. */
+		final AT_Cell[] cells;
+
+		/** The version of each cell when rendered. */
+		final long[] versions;
+
+		/** The render version of memoizable content of each cell when rendered, 0 for other content. */
+		final long[] contentVersions;
+
+		/** The rendered row. */
+		final Object rendered;
+
+		/**
+		 * Creates a new entry.
+		 * @param cells the cells of the row, copied
+		 * @param rendered the rendered row
+		 */
+		Entry(AT_Cell[] cells, Object rendered){
+			this.cells = cells.clone();
+			this.versions = new long[cells.length];
+			this.contentVersions = new long[cells.length];
+			for(int i=0; i<cells.length; i++){
+				this.versions[i] = cells[i].getVersion();
+				this.contentVersions[i] = contentVersion(cells[i]);
+			}
+			this.rendered = rendered;
+		}
+
+		/**
+		 * Tests if the row still has the same cells with the same versions.
+		 * @param cells the current cells of the row
+		 * @return true if all cells are the same and unchanged, false otherwise
+		 */
+		boolean isCurrent(AT_Cell[] cells){
+			if(cells==null || cells.length!=this.cells.length){
+				return false;
+			}
+			for(int i=0; i<cells.length; i++){
+				//a replaced cell can have the same version as the old one, so compare identity as well
+				if(cells[i]!=this.cells[i] || cells[i].getVersion()!=this.versions[i]){
+					return false;
+				}
+				//memoizable content (for instance a nested table) changes without changing the cell
+				if(contentVersion(cells[i])!=this.contentVersions[i]){
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Returns the render version of the content of a cell.
+		 * @param cell the cell
+		 * @return render version of memoizable content, 0 for other content
+		 */
+		static long contentVersion(AT_Cell cell){
+			return (cell.getContent() instanceof AT_Memoizable) ? ((AT_Memoizable)cell.getContent()).getRenderVersion() : 0;
+		}
+	}
+
+	/** Rendered rows of the last render by row identity. */
+	protected IdentityHashMap<AT_Row, Entry> rows = new IdentityHashMap<>();
+
+	/** Column widths of the last render, null if nothing rendered. */
+	protected int[] colWidth;
+
+	/** Cell pipeline of the last render, null if nothing rendered. */
+	protected AT_CellPipeline pipeline;
+
+	/** Cell cache of the last render, null if nothing rendered or no cell cache was used. */
+	protected AT_CellCache cellCache;
+
+	/** Number of rows taken from the last render in the last render. */
+	protected int reused;
+
+	/** Number of rows formatted in the last render. */
+	protected int rendered;
+
+	/** Lock for renders and counters. */
+	protected final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Renders all rows into the form required by a grid, formatting only new and changed content rows.
+	 * @param renderer the renderer, used for the executor, the cell cache, and the cell pipeline
+	 * @param rows the rows to render
+	 * @param colNumbers number of columns in the table
+	 * @param colWidth calculated width of each column
+	 * @param out receiver of the rendered rows, in the original order
+	 * @throws {@link AsciiTableException} if a row type or style was unknown or a row had no cells
+	 */
+	public void renderRows(AT_Renderer renderer, Collection<AT_Row> rows, int colNumbers, int[] colWidth, Consumer<Object> out){
+		this.lock.lock();
+		try{
+			if(!Arrays.equals(this.colWidth, colWidth) || this.pipeline!=renderer.getCellPipeline() || this.cellCache!=renderer.getCellCache()){
+				this.rows.clear();
+				this.colWidth = colWidth.clone();
+				this.pipeline = renderer.getCellPipeline();
+				this.cellCache = renderer.getCellCache();
+			}
+
+			ArrayList<AT_Row> dirty = new ArrayList<>();
+			for(AT_Row row : rows){
+				if(row.getType()==TableRowType.CONTENT && !this.isCurrent(row)){
+					dirty.add(row);
+				}
+			}
+			ArrayList<Object> formatted = new ArrayList<>(dirty.size());
+			AT_RenderHelpers.renderRows(dirty, colNumbers, colWidth, renderer.getExecutor(), renderer.getCellCache(), renderer.getCellPipeline(), formatted::add);
+
+			IdentityHashMap<AT_Row, Entry> current = new IdentityHashMap<>();
+			Iterator<Object> it = formatted.iterator();
+			this.reused = 0;
+			this.rendered = dirty.size();
+			for(AT_Row row : rows){
+				if(row.getType()!=TableRowType.CONTENT){
+					out.accept(AT_RenderHelpers.renderRow(row, colNumbers, colWidth));
+					continue;
+				}
+				Entry entry = this.rows.get(row);
+				if(entry==null || !this.isCurrent(row)){
+					entry = new Entry(row.getCellArray(), it.next());
+				}
+				else{
+					this.reused++;
+				}
+				current.put(row, entry);
+				out.accept(entry.rendered);
+			}
+			this.rows = current;
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Tests if the rendered row of the last render is still valid.
+	 * @param row the row to test
+	 * @return true if the row was rendered and has not changed since, false otherwise
+	 */
+	protected boolean isCurrent(AT_Row row){
+		Entry entry = this.rows.get(row);
+		if(entry==null){
+			return false;
+		}
+		return entry.isCurrent(row.getCellArray());
+	}
+
+	/**
+	 * Removes all rendered rows, the next render will format all rows.
+	 */
+	public void clear(){
+		this.lock.lock();
+		try{
+			this.rows.clear();
+			this.colWidth = null;
+			this.pipeline = null;
+			this.cellCache = null;
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of rows taken from the previous render in the last render.
+	 * @return number of reused rows
+	 */
+	public int getReused(){
+		this.lock.lock();
+		try{
+			return this.reused;
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of content rows formatted in the last render.
+	 * @return number of formatted rows
+	 */
+	public int getRendered(){
+		this.lock.lock();
+		try{
+			return this.rendered;
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,226 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.Validate;
+
+import de.vandermeer.asciithemes.TA_Grid;
+
+/**
+ * A bounded cache of painted rule lines, used by {@link AT_Canvas}.
+ *
+ * A rule line only depends on the grid, the grid mode (theme and options), the rule set and position of the rule,
+ * the column widths, and on which positions of the lines above and below are borders (the spans of the neighboring rows).
+ * Tables with many rules, or tables rendered again and again, get the same rule line many times.
+ * With this cache such a line is painted once and then copied.
+ *
+ * The cache is thread safe and can be shared by several renderers.
+ * When full, the least recently used line is removed.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_RuleCache {
+
+	/** Default maximum number of cached lines. */
+	public static final int DEFAULT_SIZE = 256;
+
+	/**
+	 * Key of a cached rule line.
+	 */
+	static final class Key {
+
+		/** The grid, compared by identity. */
+		final TA_Grid grid;
+
+		/** Mode, rule type, line position, widths, and neighbor border patterns. */
+		final int[] layout;
+
+		/** Pre-calculated hash code. */
+		final int hash;
+
+		/**
+		 * Creates a new key.
+		 * @param grid the grid
+		 * @param layout the layout data
+		 */
+		Key(TA_Grid grid, int[] layout){
+			this.grid = grid;
+			this.layout = layout;
+			this.hash = 31 * System.identityHashCode(grid) + Arrays.hashCode(layout);
+		}
+
+		@Override
+		public int hashCode(){
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj){
+			if(!(obj instanceof Key)){
+				return false;
+			}
+			Key other = (Key)obj;
+			return this.grid==other.grid && this.hash==other.hash && Arrays.equals(this.layout, other.layout);
+		}
+	}
+
+	/** The cached lines, in access order. */
+	protected final LinkedHashMap<Key, char[]> lines;
+
+	/** Maximum number of cached lines. */
+	protected final int maxSize;
+
+	/** Number of lookups that found a line. */
+	protected long hits;
+
+	/** Number of lookups that did not find a line. */
+	protected long misses;
+
+	/** Lock guarding lines and counters. */
+	protected final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Creates a new cache with the default size.
+	 */
+	public AT_RuleCache(){
+		this(DEFAULT_SIZE);
+	}
+
+	/**
+	 * Creates a new cache.
+	 * @param maxSize maximum number of cached lines, must be larger than 0
+	 * @throws {@link IllegalStateException} if the size was smaller than 1
+	 */
+	public AT_RuleCache(int maxSize){
+		Validate.validState(maxSize>0, "cache size must be larger than 0, found <" + maxSize + ">");
+		this.maxSize = maxSize;
+		this.lines = new LinkedHashMap<Key, char[]>(16, 0.75f, true){
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, char[]> eldest){
+				return this.size() > AT_RuleCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns a cached line.
+	 * @param key the key of the line
+	 * @return the painted line, null if not cached
+	 */
+	char[] get(Key key){
+		this.lock.lock();
+		try{
+			char[] ret = this.lines.get(key);
+			if(ret==null){
+				this.misses++;
+			}
+			else{
+				this.hits++;
+			}
+			return ret;
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Adds a line to the cache.
+	 * @param key the key of the line
+	 * @param line the painted line, not changed after this call
+	 */
+	void put(Key key, char[] line){
+		this.lock.lock();
+		try{
+			this.lines.put(key, line);
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes all cached lines, the hit and miss counters are not changed.
+	 */
+	public void clear(){
+		this.lock.lock();
+		try{
+			this.lines.clear();
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of lookups that found a cached line.
+	 * @return number of hits
+	 */
+	public long getHits(){
+		this.lock.lock();
+		try{
+			return this.hits;
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of lookups that did not find a cached line.
+	 * @return number of misses
+	 */
+	public long getMisses(){
+		this.lock.lock();
+		try{
+			return this.misses;
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the maximum number of cached lines.
+	 * @return maximum size
+	 */
+	public int getMaxSize(){
+		return this.maxSize;
+	}
+
+	/**
+	 * Returns the number of cached lines.
+	 * @return number of cached lines
+	 */
+	public int size(){
+		this.lock.lock();
+		try{
+			return this.lines.size();
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,243 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.Validate;
+
+import de.vandermeer.skb.interfaces.document.TableRowStyle;
+import de.vandermeer.skb.interfaces.document.TableRowType;
+
+/**
+ * A transposed view of a table, showing the columns of the table as rows and its content rows as columns.
+ *
+ * The view does not copy the table.
+ * It has one row per column of the table holding the original cells of that column, with their content and cell context (padding, alignment, translators).
+ * The rows are built on first use and built again only when the render version of the table (see {@link AsciiTable#getRenderVersion()}) or the rule style has changed.
+ * Rows with unchanged cells are kept, so a row cache of the renderer (see {@link AT_RowCache}) formats only the rows that actually changed.
+ * Changes of the table are shown by the next render of the view.
+ * Cells without content span into the next cell in a table; a span cannot be transposed, so these cells are shown empty with their own context.
+ *
+ * Rules of the table are not transposed.
+ * The view has a rule above the first row, between all rows, and below the last row, using the rule style set with {@link #setRuleStyle(TableRowStyle)}.
+ * The view is rendered with the context and renderer of the table.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AT_TransposedView {
+
+	/** The table. */
+	protected final AsciiTable table;
+
+	/** Style of the rules between rows. */
+	protected TableRowStyle ruleStyle = TableRowStyle.NORMAL;
+
+	/** Rows of the view from the last build, null if not built yet. */
+	protected LinkedList<AT_Row> rows;
+
+	/** Original cells of the table for each content row of the last build. */
+	protected AT_Cell[][] sources;
+
+	/** Render version of the table the rows were built for. */
+	protected long rowsVersion;
+
+	/**
+	 * Creates a new transposed view.
+	 * @param table the table, must not be null
+	 * @throws {@link NullPointerException} if table was null
+	 */
+	public AT_TransposedView(AsciiTable table){
+		Validate.notNull(table);
+		this.table = table;
+	}
+
+	/**
+	 * Returns the table of this view.
+	 * @return table
+	 */
+	public AsciiTable getTable(){
+		return this.table;
+	}
+
+	/**
+	 * Returns the style of the rules of the view.
+	 * @return rule style
+	 */
+	public TableRowStyle getRuleStyle(){
+		return this.ruleStyle;
+	}
+
+	/**
+	 * Sets the style of the rules of the view.
+	 * @param style the rule style, must not be null nor {@link TableRowStyle#UNKNOWN}
+	 * @return this to allow chaining
+	 * @throws {@link NullPointerException} if style was null
+	 * @throws {@link IllegalStateException} if style was unknown
+	 */
+	public AT_TransposedView setRuleStyle(TableRowStyle style){
+		Validate.notNull(style);
+		Validate.validState(style!=TableRowStyle.UNKNOWN);
+		this.ruleStyle = style;
+		return this;
+	}
+
+	/**
+	 * Returns the number of columns of the view, the number of content rows of the table.
+	 * @return number of columns
+	 */
+	public int getColNumber(){
+		int ret = 0;
+		for(AT_Row row : this.table.getRawContent()){
+			if(row.getType()==TableRowType.CONTENT){
+				ret++;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the rows of the view, with the current cells of the table.
+	 * The returned list is kept by the view and returned again as long as the table and the rule style are unchanged, it must not be modified.
+	 * @return rows of the view, one content row for every column of the table, separated by rules
+	 * @throws {@link IllegalStateException} if the table had no content rows
+	 */
+	public LinkedList<AT_Row> getRawContent(){
+		long version = this.table.getRenderVersion();
+		if(this.rows!=null && version==this.rowsVersion && this.rows.getFirst().getStyle()==this.ruleStyle){
+			return this.rows;
+		}
+
+		ArrayList<AT_Cell[]> source = new ArrayList<>();
+		for(AT_Row row : this.table.getRawContent()){
+			if(row.getType()==TableRowType.CONTENT){
+				source.add(row.getCellArray());
+			}
+		}
+		Validate.validState(source.size()>0, "no content provided, table has no content rows");
+
+		AT_Row[] old = (this.rows==null) ? new AT_Row[0] : this.rows.stream().filter(row -> row.getType()==TableRowType.CONTENT).toArray(AT_Row[]::new);
+		AT_Row rule = (this.rows!=null && this.rows.getFirst().getStyle()==this.ruleStyle) ? this.rows.getFirst() : AT_Row.createRule(TableRowType.RULE, this.ruleStyle);
+		AT_Cell[][] sources = new AT_Cell[this.table.getColNumber()][];
+		LinkedList<AT_Row> ret = new LinkedList<>();
+		ret.add(rule);
+		for(int col=0; col<sources.length; col++){
+			AT_Cell[] oldCells = (col<old.length) ? old[col].getCellArray() : null;
+			AT_Cell[] oldSources = (col<old.length) ? this.sources[col] : null;
+			sources[col] = new AT_Cell[source.size()];
+			AT_Cell[] cells = new AT_Cell[source.size()];
+			for(int i=0; i<cells.length; i++){
+				AT_Cell cell = source.get(i)[col];
+				sources[col][i] = cell;
+				if(cell.getContent()!=null){
+					cells[i] = cell;
+				}
+				else if(oldCells!=null && i<oldCells.length && oldSources[i]==cell && oldCells[i]!=cell){
+					//keep the empty cell shown for the same spanning cell
+					cells[i] = oldCells[i];
+				}
+				else{
+					cells[i] = new AT_Cell("", cell.getContext());
+				}
+			}
+			ret.add((oldCells!=null && Arrays.equals(oldCells, cells)) ? old[col] : createRow(cells));
+			ret.add(rule);
+		}
+
+		this.rows = ret;
+		this.sources = sources;
+		this.rowsVersion = version;
+		return ret;
+	}
+
+	/**
+	 * Creates a content row of the view.
+	 * @param cells the cells of the row
+	 * @return new row
+	 */
+	protected static AT_Row createRow(AT_Cell[] cells){
+		return new AT_Row(){
+			/** Cells as list, created on first use. */
+			LinkedList<AT_Cell> list;
+
+			@Override
+			public TableRowType getType(){
+				return TableRowType.CONTENT;
+			}
+
+			@Override
+			public TableRowStyle getStyle(){
+				return TableRowStyle.NORMAL;
+			}
+
+			@Override
+			public LinkedList<AT_Cell> getCells(){
+				if(this.list==null){
+					this.list = new AT_Row.CellList(cells);
+				}
+				return this.list;
+			}
+
+			@Override
+			public AT_Cell[] getCellArray(){
+				return cells;
+			}
+		};
+	}
+
+	/**
+	 * Renders the view with the width of the table context.
+	 * @return rendered view
+	 */
+	public String render(){
+		return this.render(this.table.getContext().getWidth());
+	}
+
+	/**
+	 * Renders the view.
+	 * @param width maximum line width, excluding any extra padding
+	 * @return rendered view
+	 */
+	public String render(int width){
+		return this.table.getRenderer().render(this.getRawContent(), this.getColNumber(), this.table.getContext(), width);
+	}
+
+	/**
+	 * Renders the view directly into an appendable, writing each line as soon as it is finished.
+	 * @param out the appendable to render to, must not be null
+	 * @param width maximum line width, excluding any extra padding
+	 * @return the given appendable
+	 * @throws {@link NullPointerException} if out was null
+	 * @throws {@link AsciiTableException} if writing to the appendable failed
+	 */
+	public <A extends Appendable> A renderTo(A out, int width){
+		return this.table.getRenderer().renderTo(out, this.getRawContent(), this.getColNumber(), this.table.getContext(), width);
+	}
+
+	/**
+	 * Renders the view lazily as a stream of lines, see {@link AsciiTable#lines(int)}.
+	 * @param width maximum line width, excluding any extra padding
+	 * @return sequential stream of lines without line separators
+	 */
+	public Stream<String> lines(int width){
+		return this.table.getRenderer().lines(this.getRawContent(), this.getColNumber(), this.table.getContext(), width);
+	}
+}
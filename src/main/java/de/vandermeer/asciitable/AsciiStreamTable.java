@@ -0,0 +1,524 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedList;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+import de.vandermeer.skb.interfaces.document.TableRowStyle;
+import de.vandermeer.skb.interfaces.document.TableRowType;
+import de.vandermeer.skb.interfaces.render.DoesRenderToWidth;
+
+/**
+ * An ASCII table without end, rendering every row to an appendable the moment it is added.
+ *
+ * Column widths are locked once, either from a calculator that does not need the rows (for instance {@link CWC_FixedWidth} or {@link CWC_AbsoluteEven})
+ * or from a warm-up sample of the first rows.
+ * After that, rows are rendered and written immediately and only the header rows and a single line window are kept,
+ * so memory stays constant however many rows are added.
+ * The last line of a row is written with the next row (or on {@link #finish()}), since the grid characters depend on the line below.
+ *
+ * Rows added before the first {@link #addRow(Object...)} (using {@link #addHeader(Object...)} and rules) form the table header.
+ * Rows that do not fit the locked widths are handled by the {@link OverflowPolicy}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AsciiStreamTable implements AutoCloseable {
+
+	/** Pipeline for truncated rows, fitting all text into a single line. */
+	protected static final AT_CellPipeline SINGLE_LINE = AT_CellPipeline.DEFAULT.asSingleLine();
+
+	/**
+	 * Policy for cells with text longer than their locked column width.
+	 */
+	public enum OverflowPolicy {
+		/** Wrap the text over several lines, the standard table behavior. */
+		WRAP,
+
+		/** Truncate the text to a single line, ending with the ellipsis of the cell if text was cut (see {@link AT_CellContext#setEllipsis(String)}). */
+		TRUNCATE,
+
+		/** Widen the columns to fit the text on a single line, closing the table and repeating the header with the new widths. */
+		WIDEN,
+		;
+	}
+
+	/** The table context with optional settings for the table. */
+	protected final AT_Context ctx;
+
+	/** The appendable all lines are written to. */
+	protected final Appendable out;
+
+	/** Calculator for the locked column widths, default is {@link CWC_AbsoluteEven}. */
+	protected AT_ColumnWidthCalculator cwc = new CWC_AbsoluteEven();
+
+	/** Number of content rows used to calculate the column widths. */
+	protected int warmup = 1;
+
+	/** Policy for rows not fitting the locked widths. */
+	protected OverflowPolicy overflow = OverflowPolicy.WRAP;
+
+	/** Rows forming the header, repeated whenever the table is restarted with new widths. */
+	protected final LinkedList<AT_Row> header = new LinkedList<>();
+
+	/** True while rows are added to the header. */
+	protected boolean inHeader = true;
+
+	/** Rows collected before the column widths are locked. */
+	protected final LinkedList<AT_Row> sample = new LinkedList<>();
+
+	/** Number of content rows in the sample. */
+	protected int sampleContent;
+
+	/** Number of columns for the table. */
+	protected int colNumber;
+
+	/** The locked column widths, null before locked. */
+	protected int[] colWidth;
+
+	/** Writer for lines, created when widths are locked. */
+	protected AT_LineWriter writer;
+
+	/** Grid of the current table segment, created when widths are locked. */
+	protected AT_GridStream grid;
+
+	/** Type of the last row added to the current grid. */
+	protected TableRowType lastType;
+
+	/** True if the table is finished. */
+	protected boolean finished;
+
+	/**
+	 * Creates a new streaming table with a default context.
+	 * @param out appendable to write the table to, must not be null
+	 * @throws {@link NullPointerException} if out was null
+	 */
+	public AsciiStreamTable(Appendable out){
+		this(out, null);
+	}
+
+	/**
+	 * Creates a new streaming table with given context.
+	 * @param out appendable to write the table to, must not be null
+	 * @param ctx the table context, default context created if null
+	 * @throws {@link NullPointerException} if out was null
+	 */
+	public AsciiStreamTable(Appendable out, AT_Context ctx){
+		Validate.notNull(out);
+		this.out = out;
+		this.ctx = (ctx!=null) ? ctx : new AT_Context();
+	}
+
+	/**
+	 * Adds a header row to the table, repeated if the table is restarted with new widths.
+	 * Header rows must be added before the first call to any `addRow` method.
+	 * @param columns content of the columns for the row, must not be null
+	 * @return this to allow chaining
+	 * @throws {@link NullPointerException} if columns was null
+	 * @throws {@link AsciiTableException} if columns does not have the correct size or content rows have already been added
+	 */
+	public AsciiStreamTable addHeader(Object ...columns) throws NullPointerException, AsciiTableException {
+		if(!this.inHeader){
+			throw new AsciiTableException("wrong header", "header rows must be added before any content row");
+		}
+		this.add(this.createRow(columns));
+		return this;
+	}
+
+	/**
+	 * Adds a content row to the table.
+	 * @param columns content of the columns for the row, must not be null
+	 * @return this to allow chaining
+	 * @throws {@link NullPointerException} if columns was null
+	 * @throws {@link AsciiTableException} if columns does not have the correct size
+	 */
+	public AsciiStreamTable addRow(Collection<?> columns) throws NullPointerException, AsciiTableException {
+		Validate.notNull(columns);
+		return this.addRow(columns.toArray());
+	}
+
+	/**
+	 * Adds a content row to the table.
+	 * For the first content row added, the number of objects given here determines the number of columns in the table.
+	 * @param columns content of the columns for the row, must not be null
+	 * @return this to allow chaining
+	 * @throws {@link NullPointerException} if columns was null
+	 * @throws {@link AsciiTableException} if columns does not have the correct size
+	 */
+	public AsciiStreamTable addRow(Object ...columns) throws NullPointerException, AsciiTableException {
+		return this.addRow(this.createRow(columns));
+	}
+
+	/**
+	 * Adds a content row to the table.
+	 * Use this method for rows with individual settings, created with {@link AT_Row#createContentRow(Object[], TableRowStyle)}.
+	 * The row is rendered immediately, later changes to it have no effect.
+	 * @param row the row, must not be null and must be a content row
+	 * @return this to allow chaining
+	 * @throws {@link NullPointerException} if row was null
+	 * @throws {@link AsciiTableException} if the row has not the correct number of columns
+	 */
+	public AsciiStreamTable addRow(AT_Row row) throws NullPointerException, AsciiTableException {
+		Validate.notNull(row);
+		Validate.validState(row.getType()==TableRowType.CONTENT, "row must be a content row");
+		this.testColumns(row.getCellArray().length);
+		this.inHeader = false;
+		this.add(row);
+		return this;
+	}
+
+	/**
+	 * Adds a rule row to the table using the default style {@link TableRowStyle#NORMAL}.
+	 * @return this to allow chaining
+	 */
+	public AsciiStreamTable addRule(){
+		return this.addRule(TableRowStyle.NORMAL);
+	}
+
+	/**
+	 * Adds a rule row to the table with a given style.
+	 * @param style the rule style, must not be null nor {@link TableRowStyle#UNKNOWN}
+	 * @return this to allow chaining
+	 * @throws {@link NullPointerException} if style was null
+	 * @throws {@link IllegalArgumentException} if style was {@link TableRowStyle#UNKNOWN}
+	 */
+	public AsciiStreamTable addRule(TableRowStyle style){
+		Validate.notNull(style);
+		Validate.validState(style!=TableRowStyle.UNKNOWN, "cannot add a rule of unknown style");
+		this.add(AT_Row.createRule(TableRowType.RULE, style));
+		return this;
+	}
+
+	/**
+	 * Adds a rule with strong (emphasized) style row to the table.
+	 * @return this to allow chaining
+	 */
+	public AsciiStreamTable addStrongRule(){
+		return this.addRule(TableRowStyle.STRONG);
+	}
+
+	/**
+	 * Adds a rule with heavy (super emphasized) style row to the table.
+	 * @return this to allow chaining
+	 */
+	public AsciiStreamTable addHeavyRule(){
+		return this.addRule(TableRowStyle.HEAVY);
+	}
+
+	/**
+	 * Adds a rule with light (less emphasized) style row to the table.
+	 * @return this to allow chaining
+	 */
+	public AsciiStreamTable addLightRule(){
+		return this.addRule(TableRowStyle.LIGHT);
+	}
+
+	/**
+	 * Finishes the table, writing all remaining lines including the bottom frame margin.
+	 * The appendable is not closed.
+	 * Rows added after this call are ignored.
+	 */
+	public void finish(){
+		if(this.finished){
+			return;
+		}
+		if(this.colWidth==null && this.colNumber>0){
+			this.lock();
+		}
+		if(this.grid!=null){
+			this.grid.finish();
+			this.writer.finish();
+		}
+		this.finished = true;
+		this.flush();
+	}
+
+	/**
+	 * Finishes the table, see {@link #finish()}.
+	 */
+	@Override
+	public void close(){
+		this.finish();
+	}
+
+	/**
+	 * Returns the set number of columns in the table.
+	 * @return number of columns, if 0 no content row was added yet
+	 */
+	public int getColNumber(){
+		return this.colNumber;
+	}
+
+	/**
+	 * Returns the locked column widths.
+	 * @return column widths, null if not yet locked
+	 */
+	public int[] getColumnWidths(){
+		return (this.colWidth==null) ? null : this.colWidth.clone();
+	}
+
+	/**
+	 * Returns the table context.
+	 * @return context
+	 */
+	public AT_Context getContext(){
+		return this.ctx;
+	}
+
+	/**
+	 * Returns the number of lines written so far.
+	 * @return number of written lines
+	 */
+	public int getLineCount(){
+		return (this.writer==null) ? 0 : this.writer.getLineCount();
+	}
+
+	/**
+	 * Sets the column width calculator, used once to lock the widths.
+	 * @param cwc new calculator, ignored if null
+	 * @return this to allow chaining
+	 * @throws {@link IllegalStateException} if the widths are already locked
+	 */
+	public AsciiStreamTable setCWC(AT_ColumnWidthCalculator cwc){
+		Validate.validState(this.colWidth==null, "column widths already locked");
+		if(cwc!=null){
+			this.cwc = cwc;
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the policy for text not fitting the locked column widths.
+	 * @param overflow new policy, ignored if null
+	 * @return this to allow chaining
+	 */
+	public AsciiStreamTable setOverflowPolicy(OverflowPolicy overflow){
+		if(overflow!=null){
+			this.overflow = overflow;
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the number of content rows collected before the column widths are locked.
+	 * Header rows are always part of the sample.
+	 * @param warmup number of rows, ignored if smaller than 1
+	 * @return this to allow chaining
+	 * @throws {@link IllegalStateException} if the widths are already locked
+	 */
+	public AsciiStreamTable setWarmup(int warmup){
+		Validate.validState(this.colWidth==null, "column widths already locked");
+		if(warmup>0){
+			this.warmup = warmup;
+		}
+		return this;
+	}
+
+	/**
+	 * Creates a content row, setting the number of columns if required.
+	 * @param columns row content
+	 * @return new row
+	 */
+	protected AT_Row createRow(Object[] columns){
+		Validate.notNull(columns);
+		this.testColumns(columns.length);
+		return AT_Row.createContentRow(columns, TableRowStyle.NORMAL);
+	}
+
+	/**
+	 * Tests and sets the number of columns.
+	 * @param columns number of columns of a new row
+	 * @throws {@link AsciiTableException} if the number is not the same as for previous rows
+	 */
+	protected void testColumns(int columns){
+		if(this.colNumber==0){
+			this.colNumber = columns;
+		}
+		else if(columns!=this.colNumber){
+			throw new AsciiTableException("wrong columns argument", "wrong number of columns, expected " + this.colNumber + " received " + columns);
+		}
+	}
+
+	/**
+	 * Adds a row to header and sample or renders it directly.
+	 * @param row the row
+	 */
+	protected void add(AT_Row row){
+		if(this.finished){
+			return;
+		}
+		if(this.inHeader){
+			this.header.add(row);
+		}
+
+		if(this.colWidth==null){
+			this.sample.add(row);
+			if(row.getType()==TableRowType.CONTENT && !this.inHeader){
+				this.sampleContent++;
+			}
+			if(this.sampleContent>=this.warmup){
+				this.lock();
+			}
+		}
+		else{
+			this.render(row);
+			this.flush();
+		}
+	}
+
+	/**
+	 * Locks the column widths using the sample and renders all sampled rows.
+	 */
+	protected void lock(){
+		this.colWidth = this.cwc.calculateColumnWidths(this.sample, this.colNumber, this.ctx.getTextWidth(this.ctx.getWidth()));
+		this.writer = new AT_LineWriter(this.out, this.ctx, (this.ctx.getLineSeparator()!=null) ? this.ctx.getLineSeparator() : System.lineSeparator());
+		this.grid = this.newGrid();
+		if(this.overflow==OverflowPolicy.WIDEN){
+			//widen for the whole sample first, so that the header is not restarted while it is written
+			for(AT_Row row : this.sample){
+				if(row.getType()==TableRowType.CONTENT){
+					this.widen(row);
+				}
+			}
+		}
+		for(AT_Row row : this.sample){
+			this.render(row);
+		}
+		this.sample.clear();
+		this.flush();
+	}
+
+	/**
+	 * Creates a new grid for the locked widths.
+	 * @return new grid
+	 */
+	protected AT_GridStream newGrid(){
+		this.lastType = null;
+		return new AT_GridStream(this.ctx.getGrid(), this.ctx.getGridTheme() | this.ctx.getGridThemeOptions(), this.colWidth, this.writer);
+	}
+
+	/**
+	 * Renders a row applying the overflow policy.
+	 * @param row the row
+	 */
+	protected void render(AT_Row row){
+		if(row.getType()==TableRowType.CONTENT && this.overflow!=OverflowPolicy.WRAP){
+			if(this.overflow==OverflowPolicy.TRUNCATE){
+				//same as cells with a maximum of 1 line: translated text cut to the width, with the cell ellipsis
+				this.grid.add(this.format(row, SINGLE_LINE));
+				this.lastType = row.getType();
+				return;
+			}
+			if(this.widen(row)){
+				this.restart();
+			}
+		}
+		this.grid.add(this.format(row, null));
+		this.lastType = row.getType();
+	}
+
+	/**
+	 * Formats a row with the locked widths, fitting the lines of cells that do not fill their columns (for instance nested tables) to the widths.
+	 * @param row the row
+	 * @param pipeline pipeline for text cells, null for the default pipeline
+	 * @return the row formatted for the grid
+	 */
+	protected Object format(AT_Row row, AT_CellPipeline pipeline){
+		return AT_RenderHelpers.fitRow(AT_RenderHelpers.renderRow(row, this.colNumber, this.colWidth, null, pipeline), this.colWidth);
+	}
+
+	/**
+	 * Closes the current table segment and starts a new one with the current widths, repeating the header.
+	 */
+	protected void restart(){
+		if(this.lastType!=null){
+			if(this.lastType==TableRowType.CONTENT){
+				this.grid.add(AT_RenderHelpers.renderRow(AT_Row.createRule(TableRowType.RULE, TableRowStyle.NORMAL), this.colNumber, this.colWidth));
+			}
+			this.grid.finish();
+		}
+		this.grid = this.newGrid();
+		if(!this.inHeader){
+			for(AT_Row row : this.header){
+				this.grid.add(this.format(row, null));
+				this.lastType = row.getType();
+			}
+		}
+	}
+
+	/**
+	 * Returns the text of a cell as rendered on a single line.
+	 * @param cell the cell
+	 * @return normalized and translated text, null if the cell renders itself to a width
+	 */
+	protected static String singleLine(AT_Cell cell){
+		Object content = cell.getContent();
+		if(content instanceof AsciiTable || content instanceof DoesRenderToWidth){
+			return null;
+		}
+		return StringUtils.strip(AT_CellPipeline.DEFAULT.text(content, cell.getContext()), " ");
+	}
+
+	/**
+	 * Widens the locked column widths so that all text of the row fits on a single line.
+	 * For spanned cells, the last column of the span is widened.
+	 * @param row the row
+	 * @return true if any column was widened, false otherwise
+	 */
+	protected boolean widen(AT_Row row){
+		AT_Cell[] cells = row.getCellArray();
+		boolean changed = false;
+		int length = 0;
+		for(int i=0; i<cells.length; i++){
+			AT_Cell cell = cells[i];
+			length += this.colWidth[i];
+			if(cell.getContent()==null){
+				length++;
+				continue;
+			}
+			String text = singleLine(cell);
+			int required = (text==null) ? 0 : text.length() + cell.getContext().getPaddingLeft() + cell.getContext().getPaddingRight();
+			if(required>length){
+				this.colWidth[i] += required - length;
+				changed = true;
+			}
+			length = 0;
+		}
+		return changed;
+	}
+
+	/**
+	 * Flushes the appendable if it is flushable.
+	 * @throws {@link AsciiTableException} if flushing failed
+	 */
+	protected void flush(){
+		if(this.out instanceof Flushable){
+			try{
+				((Flushable)this.out).flush();
+			}
+			catch(IOException ex){
+				throw new AsciiTableException(ex);
+			}
+		}
+	}
+}
@@ -15,11 +15,22 @@
 
 package de.vandermeer.asciitable;
 
+import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.text.StrBuilder;
+import org.apache.commons.lang3.text.StrTokenizer;
 
 import de.vandermeer.skb.interfaces.document.IsTable;
 import de.vandermeer.skb.interfaces.document.TableRowStyle;
@@ -39,7 +50,7 @@ import de.vandermeer.skb.interfaces.translators.TargetTranslator;
  * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
  * @since      v0.3.0
  */
-public class AsciiTable implements IsTable {
+public class AsciiTable implements IsTable, AT_Measurable, AT_Memoizable {
 
 	/** The table context with optional settings for the table. */
 	protected AT_Context ctx;
@@ -53,6 +64,34 @@ public class AsciiTable implements IsTable {
 	/** Number of columns for the table. */
 	protected int colNumber;
 
+	/** Number of leading rows used as header for pages. */
+	protected int headerRows;
+
+	/** Modification version of the table itself, incremented when the renderer is set. */
+	protected long version;
+
+	/** Table statistics for width negotiation, null if not measured yet. */
+	protected AT_ColumnStats stats;
+
+	/** Render version the table statistics were measured for. */
+	protected long statsVersion;
+
+	/** Lines rendered as cell content by width, for the render version in {@link #cellLinesVersion}. */
+	protected final LinkedHashMap<Integer, String[]> cellLines = new LinkedHashMap<Integer, String[]>(16, 0.75f, true){
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest){
+			return this.size() > 8;
+		}
+	};
+
+	/** Render version the lines rendered as cell content are valid for. */
+	protected long cellLinesVersion;
+
+	/** Lock for kept cell lines and statistics. */
+	protected final ReentrantLock lock = new ReentrantLock();
+
 	/**
 	 * Creates a new ASCII table with a default context.
 	 */
@@ -192,6 +231,327 @@ public class AsciiTable implements IsTable {
 //		return new StrBuilder().appendWithSeparators(this.renderer.render(this.getRawContent(), this.getColNumber(), this.ctx, this.ctx.getTextWidth(width)), "\n").toString();
 	}
 
+	/**
+	 * Renders the table asynchronously, see {@link AsciiTableBatch}.
+	 * @param executor the executor to render on, null for the default executor
+	 * @return future completed with the rendered table, or with the exception of the render
+	 */
+	public CompletableFuture<String> renderAsync(Executor executor){
+		return AsciiTableBatch.render(this, executor);
+	}
+
+	/**
+	 * Renders the table asynchronously, see {@link AsciiTableBatch}.
+	 * @param executor the executor to render on, null for the default executor
+	 * @param width maximum line width, excluding any extra padding
+	 * @return future completed with the rendered table, or with the exception of the render
+	 */
+	public CompletableFuture<String> renderAsync(Executor executor, int width){
+		return AsciiTableBatch.render(this, executor, width);
+	}
+
+	/**
+	 * Renders the table as content of a cell in another table.
+	 * The lines are kept for the last used widths and rendered again only after the table has changed (see {@link #getRenderVersion()}),
+	 * so an outer table can be rendered repeatedly without rendering this table again.
+	 * @param width the width of the cell, without padding
+	 * @return lines of the table, must not be changed since they are kept for the next call
+	 */
+	String[] renderAsCellLines(int width){
+		this.lock.lock();
+		try{
+			long version = this.getRenderVersion();
+			if(version!=this.cellLinesVersion){
+				this.cellLines.clear();
+				this.cellLinesVersion = version;
+			}
+			String[] ret = this.cellLines.get(width);
+			if(ret==null){
+				ret = new StrTokenizer(this.render(width))
+						.setDelimiterChar('\n')
+						.setIgnoreEmptyTokens(false)
+						.getTokenArray()
+				;
+				this.cellLines.put(width, ret);
+			}
+			return ret;
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the smallest width the table can be rendered to without breaking words, including borders and frame margins.
+	 * The width is calculated from statistics kept until the table changes, the table is not rendered, see {@link AT_ColumnStats}.
+	 * @return minimum width
+	 */
+	@Override
+	public int getMinWidth(){
+		return this.columnStats().minWidth + this.ctx.getFrameLeftMargin() + this.ctx.getFrameRightMargin();
+	}
+
+	/**
+	 * Returns the width the table requires to be rendered without wrapping, including borders and frame margins.
+	 * The width is calculated from statistics kept until the table changes, the table is not rendered, see {@link AT_ColumnStats}.
+	 * @return preferred width
+	 */
+	@Override
+	public int getPreferredWidth(){
+		return this.columnStats().preferredWidth + this.ctx.getFrameLeftMargin() + this.ctx.getFrameRightMargin();
+	}
+
+	/**
+	 * Returns the statistics of the table, measuring the table if it or its column width calculator has changed since the last call.
+	 * @return table statistics
+	 */
+	protected AT_ColumnStats columnStats(){
+		this.lock.lock();
+		try{
+			long version = this.getRenderVersion();
+			AT_ColumnWidthCalculator cwc = this.renderer.getCWC();
+			if(this.stats==null || version!=this.statsVersion || cwc!=this.stats.cwc){
+				this.stats = AT_ColumnStats.create(this.rows, this.colNumber, cwc, this.ctx.getTextWidth(this.ctx.getWidth()));
+				this.statsVersion = version;
+			}
+			return this.stats;
+		}
+		finally{
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the render version of the table, calculated from rows, cells, nested memoizable content, context, and renderer settings.
+	 * The version changes whenever a row is added, a cell is replaced, cell content or a cell context or the table context is changed, or a new renderer is set.
+	 * It also changes when the renderer gets a new column width calculator, cell pipeline, or line separator,
+	 * changes inside a calculator or pipeline are not tracked.
+	 * @return render version
+	 */
+	@Override
+	public long getRenderVersion(){
+		long ret = 31 * this.version + this.ctx.getVersion();
+		ret = 31 * ret + System.identityHashCode(this.renderer.getCWC());
+		ret = 31 * ret + System.identityHashCode(this.renderer.getCellPipeline());
+		ret = 31 * ret + Objects.hashCode(this.renderer.getLineSeparator());
+		for(AT_Row row : this.rows){
+			ret = 31 * ret + System.identityHashCode(row);
+			AT_Cell[] cells = row.getCellArray();
+			if(cells==null){
+				continue;
+			}
+			for(AT_Cell cell : cells){
+				//a replaced cell can have the same version as the old one
+				ret = 31 * ret + System.identityHashCode(cell);
+				ret = 31 * ret + cell.getVersion();
+				if(cell.getContent() instanceof AT_Memoizable){
+					ret = 31 * ret + ((AT_Memoizable)cell.getContent()).getRenderVersion();
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Renders the table directly into an appendable, writing each line as soon as it is finished.
+	 * @param out the appendable to render to, for instance a writer, string builder, or print stream, must not be null
+	 * @return the given appendable
+	 * @throws {@link NullPointerException} if out was null
+	 * @throws {@link AsciiTableException} if writing to the appendable failed
+	 */
+	public <A extends Appendable> A renderTo(A out){
+		return this.renderer.renderTo(out, this.getRawContent(), this.getColNumber(), this.ctx);
+	}
+
+	/**
+	 * Renders the table directly into an appendable, writing each line as soon as it is finished.
+	 * @param out the appendable to render to, for instance a writer, string builder, or print stream, must not be null
+	 * @param width maximum line width, excluding any extra padding
+	 * @return the given appendable
+	 * @throws {@link NullPointerException} if out was null
+	 * @throws {@link AsciiTableException} if writing to the appendable failed
+	 */
+	public <A extends Appendable> A renderTo(A out, int width){
+		return this.renderer.renderTo(out, this.getRawContent(), this.getColNumber(), this.ctx, width);
+	}
+
+	/**
+	 * Renders the table lazily as a stream of lines, laying out and painting rows only as far as the stream is consumed.
+	 * @return sequential stream of lines without line separators
+	 */
+	public Stream<String> lines(){
+		return this.renderer.lines(this.getRawContent(), this.getColNumber(), this.ctx);
+	}
+
+	/**
+	 * Renders the table lazily as a stream of lines, laying out and painting rows only as far as the stream is consumed.
+	 * @param width maximum line width, excluding any extra padding
+	 * @return sequential stream of lines without line separators
+	 */
+	public Stream<String> lines(int width){
+		return this.renderer.lines(this.getRawContent(), this.getColNumber(), this.ctx, width);
+	}
+
+	/**
+	 * Returns a transposed view of the table, showing columns as rows without copying cells, see {@link AT_TransposedView}.
+	 * @return new transposed view
+	 */
+	public AT_TransposedView transpose(){
+		return new AT_TransposedView(this);
+	}
+
+	/**
+	 * Measures the table with the current width, see {@link AT_LayoutPlan}.
+	 * @return layout plan with column widths, line and character counts, to be rendered with the table renderer
+	 */
+	public AT_LayoutPlan layout(){
+		return this.renderer.layout(this.getRawContent(), this.getColNumber(), this.ctx);
+	}
+
+	/**
+	 * Measures the table with a given width, see {@link AT_LayoutPlan}.
+	 * @param width maximum line width, excluding any extra padding
+	 * @return layout plan with column widths, line and character counts, to be rendered with the table renderer
+	 */
+	public AT_LayoutPlan layout(int width){
+		return this.renderer.layout(this.getRawContent(), this.getColNumber(), this.ctx, width);
+	}
+
+	/**
+	 * Creates a line index for the table with the current width, see {@link AT_LineIndex}.
+	 * Use it with {@link AT_Renderer#renderLines(AT_LineIndex, int, int)} to render many ranges of the same table.
+	 * @return line index for the table
+	 */
+	public AT_LineIndex lineIndex(){
+		return this.renderer.lineIndex(this.getRawContent(), this.getColNumber(), this.ctx);
+	}
+
+	/**
+	 * Creates a line index for the table with a given width, see {@link AT_LineIndex}.
+	 * @param width maximum line width, excluding any extra padding
+	 * @return line index for the table
+	 */
+	public AT_LineIndex lineIndex(int width){
+		return this.renderer.lineIndex(this.getRawContent(), this.getColNumber(), this.ctx, width);
+	}
+
+	/**
+	 * Renders a range of output lines of the table, including frame margins.
+	 * This creates a new line index for every call, to render many ranges use {@link #lineIndex()} once.
+	 * @param fromLine first line to render, inclusive
+	 * @param toLine last line to render, exclusive
+	 * @return the rendered lines
+	 * @throws {@link IllegalStateException} if the range was not within the lines of the table
+	 */
+	public AT_Lines renderLines(int fromLine, int toLine){
+		return this.renderer.renderLines(this.lineIndex(), fromLine, toLine);
+	}
+
+	/**
+	 * Sets the number of leading rows used as header, repeated at the top of every page when rendering pages.
+	 * @param headerRows number of header rows, ignored if smaller than 0
+	 * @return this to allow chaining
+	 */
+	public AsciiTable setHeaderRows(int headerRows){
+		if(headerRows>-1){
+			this.headerRows = headerRows;
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the number of leading rows used as header.
+	 * @return number of header rows
+	 */
+	public int getHeaderRows(){
+		return this.headerRows;
+	}
+
+	/**
+	 * Returns the number of pages of the table, see {@link #renderPage(int, int)}.
+	 * @param rowsPerPage number of content rows per page, must be larger than 0
+	 * @return number of pages, at least 1
+	 * @throws {@link IllegalStateException} if header rows or rows per page were out of bounds
+	 */
+	public int getPageCount(int rowsPerPage){
+		return new AT_Pagination(this.rows, this.headerRows, rowsPerPage).getPageCount();
+	}
+
+	/**
+	 * Renders one page of the table.
+	 * Every page starts with the header rows (see {@link #setHeaderRows(int)}), has up to the given number of content rows, and is closed with a rule.
+	 * Only the rows of the page are formatted, the column widths are the same for all pages.
+	 * @param page the page to render, starting with 0
+	 * @param rowsPerPage number of content rows per page, must be larger than 0
+	 * @return a single string with the rendered page
+	 * @throws {@link IllegalStateException} if header rows, rows per page, or the page were out of bounds
+	 */
+	public String renderPage(int page, int rowsPerPage){
+		return this.renderer.renderPage(this.getRawContent(), this.getColNumber(), this.ctx, this.headerRows, rowsPerPage, page);
+	}
+
+	/**
+	 * Renders all pages of the table, see {@link #renderPage(int, int)}.
+	 * @param rowsPerPage number of content rows per page, must be larger than 0
+	 * @return list with the rendered pages
+	 * @throws {@link IllegalStateException} if header rows or rows per page were out of bounds
+	 */
+	public List<String> renderPages(int rowsPerPage){
+		return this.renderer.renderPages(this.getRawContent(), this.getColNumber(), this.ctx, this.headerRows, rowsPerPage);
+	}
+
+	/**
+	 * Renders the table into read-only lines over a single backing character array, see {@link AT_Lines}.
+	 * Other than {@link #renderAsCollection()}, no line is copied into a separate string.
+	 * @return the rendered lines, including frame margins
+	 */
+	public AT_Lines renderAsLines(){
+		return this.renderer.renderAsLines(this.getRawContent(), this.getColNumber(), this.ctx);
+	}
+
+	/**
+	 * Renders the table into read-only lines over a single backing character array, see {@link AT_Lines}.
+	 * @param width maximum line width, excluding any extra padding
+	 * @return the rendered lines, including frame margins
+	 */
+	public AT_Lines renderAsLines(int width){
+		return this.renderer.renderAsLines(this.getRawContent(), this.getColNumber(), this.ctx, width);
+	}
+
+	/**
+	 * Renders the table into bytes, see {@link AT_Renderer#renderAsBytes(AT_LayoutPlan, Charset)}.
+	 * For US-ASCII, ISO-8859-1, and UTF-8 with (mostly) single byte content no string and no charset encoder is used.
+	 * @param charset the charset, must not be null
+	 * @return the rendered table as bytes
+	 * @throws {@link NullPointerException} if charset was null
+	 */
+	public byte[] renderAsBytes(Charset charset){
+		return this.renderer.renderAsBytes(this.layout(), charset);
+	}
+
+	/**
+	 * Renders the table into bytes, see {@link AT_Renderer#renderAsBytes(AT_LayoutPlan, Charset)}.
+	 * @param charset the charset, must not be null
+	 * @param width maximum line width, excluding any extra padding
+	 * @return the rendered table as bytes
+	 * @throws {@link NullPointerException} if charset was null
+	 */
+	public byte[] renderAsBytes(Charset charset, int width){
+		return this.renderer.renderAsBytes(this.layout(width), charset);
+	}
+
+	/**
+	 * Renders the table as bytes into an output stream, writing each line as soon as it is finished.
+	 * @param out the stream to render to, must not be null
+	 * @param charset the charset, must not be null
+	 * @return the given stream
+	 * @throws {@link NullPointerException} if out or charset where null
+	 * @throws {@link AsciiTableException} if writing to the stream failed
+	 */
+	public <S extends OutputStream> S renderTo(S out, Charset charset){
+		return this.renderer.renderTo(out, this.layout(), charset);
+	}
+
 	@Override
 	public Collection<String> renderAsCollection(){
 		return ClusterElementTransformer.create().transform(
@@ -218,6 +578,7 @@ public class AsciiTable implements IsTable {
 	public AsciiTable setRenderer(AT_Renderer renderer){
 		if(renderer!=null){
 			this.renderer = renderer;
+			this.version++;
 		}
 		return this;
 	}
@@ -483,4 +844,33 @@ public class AsciiTable implements IsTable {
 		}
 		return this;
 	}
+
+	/**
+	 * Sets the maximum number of text lines for all cells in the table, see {@link AT_CellContext#setMaxLines(int)}.
+	 * With 1 the table has one line per content row (plus padding), text is cut to the column width and never wrapped.
+	 * @param maxLines new maximum, 0 for no limit, ignored if smaller than 0
+	 * @return this to allow chaining
+	 */
+	public AsciiTable setMaxLines(int maxLines){
+		for(AT_Row row : this.rows){
+			if(row.getType()==TableRowType.CONTENT){
+				row.setMaxLines(maxLines);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the ellipsis for truncated text for all cells in the table.
+	 * @param ellipsis new ellipsis, an empty string to truncate without ellipsis, ignored if null
+	 * @return this to allow chaining
+	 */
+	public AsciiTable setEllipsis(String ellipsis){
+		for(AT_Row row : this.rows){
+			if(row.getType()==TableRowType.CONTENT){
+				row.setEllipsis(ellipsis);
+			}
+		}
+		return this;
+	}
 }
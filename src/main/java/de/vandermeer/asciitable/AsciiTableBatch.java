@@ -0,0 +1,167 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.text.StrBuilder;
+
+/**
+ * Asynchronous rendering of many tables, for instance for a service rendering tables for many requests.
+ *
+ * A batch is rendered by a fixed number of workers on an executor, so no more tables than workers are rendered at the same time, whatever the executor is.
+ * Every worker takes the next table of the batch and renders it into its own string builder,
+ * which is kept and reused for all tables the worker renders.
+ * The finished tables are returned in the order of the batch.
+ *
+ * The default executor uses virtual threads if the runtime provides them (Java 21 and later), otherwise the common fork/join pool.
+ * Renderers do not block in monitors, all shared caches use locks, so virtual threads rendering tables do not pin their carrier threads.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public final class AsciiTableBatch {
+
+	/** Default number of workers for a batch, the number of available processors. */
+	public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+	/** The default executor, created on first use. */
+	private static volatile Executor defaultExecutor;
+
+	/**
+	 * Private constructor, only static methods.
+	 */
+	private AsciiTableBatch(){}
+
+	/**
+	 * Returns the default executor for asynchronous rendering.
+	 * @return an executor starting a virtual thread per task if the runtime supports virtual threads, the common fork/join pool otherwise
+	 */
+	public static Executor defaultExecutor(){
+		Executor ret = defaultExecutor;
+		if(ret==null){
+			try{
+				ret = (Executor)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			}
+			catch(ReflectiveOperationException | RuntimeException ex){
+				ret = ForkJoinPool.commonPool();
+			}
+			defaultExecutor = ret;
+		}
+		return ret;
+	}
+
+	/**
+	 * Renders a table asynchronously.
+	 * @param table the table to render, must not be null
+	 * @param executor the executor to render on, null for the default executor
+	 * @return future completed with the rendered table, or with the exception of the render
+	 * @throws {@link NullPointerException} if table was null
+	 */
+	public static CompletableFuture<String> render(AsciiTable table, Executor executor){
+		Validate.notNull(table);
+		return CompletableFuture.supplyAsync(table::render, (executor==null) ? defaultExecutor() : executor);
+	}
+
+	/**
+	 * Renders a table asynchronously.
+	 * @param table the table to render, must not be null
+	 * @param executor the executor to render on, null for the default executor
+	 * @param width maximum line width, excluding any extra padding
+	 * @return future completed with the rendered table, or with the exception of the render
+	 * @throws {@link NullPointerException} if table was null
+	 */
+	public static CompletableFuture<String> render(AsciiTable table, Executor executor, int width){
+		Validate.notNull(table);
+		return CompletableFuture.supplyAsync(() -> table.render(width), (executor==null) ? defaultExecutor() : executor);
+	}
+
+	/**
+	 * Renders a batch of tables on the default executor with the default number of workers.
+	 * @param tables the tables to render, must not be null or contain null
+	 * @return future completed with the rendered tables in the order of the batch, or with the first exception of any render
+	 * @throws {@link NullPointerException} if tables was null or contained null
+	 */
+	public static CompletableFuture<List<String>> renderAll(List<AsciiTable> tables){
+		return AsciiTableBatch.renderAll(tables, null, DEFAULT_PARALLELISM);
+	}
+
+	/**
+	 * Renders a batch of tables.
+	 *
+	 * Cancelling the returned future stops the workers after the tables they are rendering.
+	 * Should a render fail, the future is completed with its exception and the remaining tables are not rendered.
+	 *
+	 * @param tables the tables to render, must not be null or contain null
+	 * @param executor the executor to render on, null for the default executor
+	 * @param parallelism maximum number of tables rendered at the same time, must be larger than 0
+	 * @return future completed with the rendered tables in the order of the batch, or with the first exception of any render
+	 * @throws {@link NullPointerException} if tables was null or contained null
+	 * @throws {@link IllegalStateException} if parallelism was smaller than 1
+	 */
+	public static CompletableFuture<List<String>> renderAll(List<AsciiTable> tables, Executor executor, int parallelism){
+		Validate.noNullElements(tables);
+		Validate.validState(parallelism>0, "parallelism must be larger than 0, found <" + parallelism + ">");
+
+		AsciiTable[] batch = tables.toArray(new AsciiTable[tables.size()]);
+		String[] rendered = new String[batch.length];
+		CompletableFuture<List<String>> ret = new CompletableFuture<>();
+		int workers = Math.min(parallelism, batch.length);
+		if(workers==0){
+			ret.complete(Arrays.asList(rendered));
+			return ret;
+		}
+
+		Executor exec = (executor==null) ? defaultExecutor() : executor;
+		AtomicInteger next = new AtomicInteger();
+		AtomicInteger running = new AtomicInteger(workers);
+		Runnable worker = () -> {
+			StrBuilder scratch = new StrBuilder();
+			try{
+				int k;
+				while(!ret.isDone() && (k = next.getAndIncrement())<batch.length){
+					rendered[k] = batch[k].renderTo(scratch).toString();
+					scratch.clear();
+				}
+			}
+			catch(Throwable t){
+				ret.completeExceptionally(t);
+			}
+			if(running.decrementAndGet()==0){
+				ret.complete(Arrays.asList(rendered));
+			}
+		};
+		for(int i=0; i<workers; i++){
+			try{
+				exec.execute(worker);
+			}
+			catch(RejectedExecutionException ex){
+				ret.completeExceptionally(ex);
+				break;
+			}
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,118 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+/**
+ * Exception for renders stopped by an {@link AT_RenderControl}.
+ * 
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AsciiTableCancelledException extends AsciiTableException {
+
+	/**
+	 * The reason a render was stopped.
+	 */
+	public enum Reason {
+		/** The render control was cancelled. */
+		CANCELLED,
+
+		/** The rendering thread was interrupted. */
+		INTERRUPTED,
+
+		/** The deadline of the render control has passed. */
+		DEADLINE,
+		;
+	}
+
+	/** UUID */
+	private static final long serialVersionUID = 1L;
+
+	/** The reason for the stop. */
+	protected final Reason reason;
+
+	/** Number of rows laid out before the stop. */
+	protected final long rows;
+
+	/** Number of lines emitted before the stop. */
+	protected final long lines;
+
+	/** Flag for keeping the partial output. */
+	protected final boolean keepPartial;
+
+	/** The lines emitted before the stop, null if not kept. */
+	protected String partialOutput;
+
+	/**
+	 * Returns a new exception.
+	 * @param reason the reason for the stop
+	 * @param rows number of rows laid out before the stop
+	 * @param lines number of lines emitted before the stop
+	 * @param keepPartial true if the partial output should be kept
+	 */
+	public AsciiTableCancelledException(Reason reason, long rows, long lines, boolean keepPartial){
+		super("render stopped: " + reason, "stopped after " + rows + " rows and " + lines + " lines");
+		this.reason = reason;
+		this.rows = rows;
+		this.lines = lines;
+		this.keepPartial = keepPartial;
+	}
+
+	/**
+	 * Returns the reason for the stop.
+	 * @return reason
+	 */
+	public Reason getReason(){
+		return this.reason;
+	}
+
+	/**
+	 * Returns the number of rows laid out before the stop.
+	 * @return number of rows
+	 */
+	public long getRows(){
+		return this.rows;
+	}
+
+	/**
+	 * Returns the number of lines emitted before the stop.
+	 * @return number of lines
+	 */
+	public long getLines(){
+		return this.lines;
+	}
+
+	/**
+	 * Returns the output of a render returning a string up to the stop.
+	 * @return partial output, null if not requested (see {@link AT_RenderControl#setKeepPartial(boolean)}) or if the render wrote to an appendable
+	 */
+	public String getPartialOutput(){
+		return this.partialOutput;
+	}
+
+	/**
+	 * Keeps the partial output if requested.
+	 * @param output the output up to the stop
+	 * @return this exception
+	 */
+	AsciiTableCancelledException keepPartial(CharSequence output){
+		if(this.keepPartial && output!=null){
+			this.partialOutput = output.toString();
+		}
+		return this;
+	}
+}
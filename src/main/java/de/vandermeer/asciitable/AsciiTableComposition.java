@@ -0,0 +1,348 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.text.StrBuilder;
+
+/**
+ * Several tables arranged next to each other and stacked, for instance for a dashboard.
+ *
+ * Every call of {@link #addRow(AsciiTable...)} adds a row of tables, placed next to each other with a gutter between them.
+ * The available width of a row is split between its tables using their minimum and preferred width (see {@link AT_Measurable}):
+ * if all tables fit with their preferred width, the remaining width is distributed evenly,
+ * otherwise every table gets its minimum width plus a share of the remaining width relative to the width it is missing to its preferred width.
+ *
+ * Every table is rendered once into lines over a single backing array (see {@link AT_Lines}),
+ * the lines of all tables in a row are then written next to each other straight into the output, without creating a string per line.
+ * Tables with fewer lines than the highest table in their row are filled with blank lines.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class AsciiTableComposition {
+
+	/** Rows of tables. */
+	protected final ArrayList<AsciiTable[]> rows = new ArrayList<>();
+
+	/** Overall width of each row, default is `80`. */
+	protected int width = 80;
+
+	/** Number of characters between tables in a row. */
+	protected int gutter = 1;
+
+	/** Character between tables in a row. */
+	protected char gutterChar = ' ';
+
+	/** Number of empty lines between rows. */
+	protected int rowGap;
+
+	/** Line separator, null for the system line separator. */
+	protected String lineSeparator;
+
+	/**
+	 * Adds a row of tables, placed next to each other.
+	 * @param tables the tables of the row, must not be null or empty
+	 * @return this to allow chaining
+	 * @throws {@link NullPointerException} if tables was null or contained null
+	 * @throws {@link IllegalStateException} if tables was empty
+	 */
+	public AsciiTableComposition addRow(AsciiTable ...tables){
+		Validate.noNullElements(tables);
+		Validate.validState(tables.length>0, "a row requires at least one table");
+		this.rows.add(tables.clone());
+		return this;
+	}
+
+	/**
+	 * Returns the overall width of each row.
+	 * @return width
+	 */
+	public int getWidth(){
+		return this.width;
+	}
+
+	/**
+	 * Sets the overall width of each row, split between the tables of the row and the gutters.
+	 * @param width the width, ignored if smaller than 1
+	 * @return this to allow chaining
+	 */
+	public AsciiTableComposition setWidth(int width){
+		if(width>0){
+			this.width = width;
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the number of characters between tables in a row.
+	 * @return gutter width
+	 */
+	public int getGutter(){
+		return this.gutter;
+	}
+
+	/**
+	 * Sets the number of characters between tables in a row.
+	 * @param gutter the gutter width, ignored if smaller than 0
+	 * @return this to allow chaining
+	 */
+	public AsciiTableComposition setGutter(int gutter){
+		if(gutter>-1){
+			this.gutter = gutter;
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the character between tables in a row.
+	 * @return gutter character
+	 */
+	public char getGutterChar(){
+		return this.gutterChar;
+	}
+
+	/**
+	 * Sets the character between tables in a row.
+	 * @param gutterChar the gutter character, ignored if null
+	 * @return this to allow chaining
+	 */
+	public AsciiTableComposition setGutterChar(Character gutterChar){
+		if(gutterChar!=null){
+			this.gutterChar = gutterChar;
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the number of empty lines between rows.
+	 * @return row gap
+	 */
+	public int getRowGap(){
+		return this.rowGap;
+	}
+
+	/**
+	 * Sets the number of empty lines between rows.
+	 * @param rowGap the row gap, ignored if smaller than 0
+	 * @return this to allow chaining
+	 */
+	public AsciiTableComposition setRowGap(int rowGap){
+		if(rowGap>-1){
+			this.rowGap = rowGap;
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the line separator.
+	 * @return line separator, null if the system line separator is used
+	 */
+	public String getLineSeparator(){
+		return this.lineSeparator;
+	}
+
+	/**
+	 * Sets the line separator.
+	 * @param separator the separator, ignored if blank
+	 * @return this to allow chaining
+	 */
+	public AsciiTableComposition setLineSeparator(String separator){
+		if(!StringUtils.isBlank(separator)){
+			this.lineSeparator = separator;
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the width of each table of a row.
+	 * @param row the row index
+	 * @return width of each table, without gutters
+	 * @throws {@link IndexOutOfBoundsException} if the row does not exist
+	 */
+	public int[] getTableWidths(int row){
+		AsciiTable[] tables = this.rows.get(row);
+		int[] min = new int[tables.length];
+		int[] pref = new int[tables.length];
+		for(int i=0; i<tables.length; i++){
+			min[i] = tables[i].getMinWidth();
+			pref[i] = Math.max(tables[i].getPreferredWidth(), min[i]);
+		}
+		return splitWidth(this.width - this.gutter * (tables.length - 1), min, pref);
+	}
+
+	/**
+	 * Splits a width between tables.
+	 * @param width the width to split
+	 * @param min minimum width of each table
+	 * @param pref preferred width of each table, not smaller than the minimum width
+	 * @return width of each table, the minimum width if the tables do not fit
+	 */
+	static int[] splitWidth(int width, int[] min, int[] pref){
+		int count = min.length;
+		long minSum = 0;
+		long prefSum = 0;
+		for(int i=0; i<count; i++){
+			minSum += min[i];
+			prefSum += pref[i];
+		}
+
+		if(prefSum<=width){
+			//all preferred widths fit, distribute the rest evenly
+			int[] ret = pref.clone();
+			long rest = width - prefSum;
+			for(int i=0; i<count; i++){
+				ret[i] += rest / count + ((i<rest % count) ? 1 : 0);
+			}
+			return ret;
+		}
+
+		int[] ret = min.clone();
+		if(minSum<width){
+			//share relative to the missing width, leftover from rounding to the first tables
+			long rest = width - minSum;
+			long missing = prefSum - minSum;
+			long given = 0;
+			for(int i=0; i<count; i++){
+				int share = (int)(rest * (pref[i] - min[i]) / missing);
+				ret[i] += share;
+				given += share;
+			}
+			for(int i=0; given<rest && i<count; i++){
+				if(ret[i]<pref[i]){
+					ret[i]++;
+					given++;
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Renders all rows of tables.
+	 * @return rendered composition
+	 * @throws {@link AsciiTableException} if a table could not be rendered
+	 */
+	public String render(){
+		return this.renderTo(new StrBuilder()).build();
+	}
+
+	/**
+	 * Renders all rows of tables directly into an appendable.
+	 * @param out the appendable to render to, for instance a writer, string builder, or print stream, must not be null
+	 * @return the given appendable
+	 * @throws {@link NullPointerException} if out was null
+	 * @throws {@link AsciiTableException} if a table could not be rendered or writing to the appendable failed
+	 */
+	public <A extends Appendable> A renderTo(A out){
+		Validate.notNull(out);
+		String separator = (this.lineSeparator!=null) ? this.lineSeparator : System.lineSeparator();
+		char[] blanks = new char[0];
+		boolean first = true;
+
+		try{
+			for(int r=0; r<this.rows.size(); r++){
+				AsciiTable[] tables = this.rows.get(r);
+				int[] widths = this.getTableWidths(r);
+				AT_Lines[] lines = new AT_Lines[tables.length];
+				int height = 0;
+				for(int i=0; i<tables.length; i++){
+					lines[i] = tables[i].renderAsLines(widths[i]);
+					height = Math.max(height, lines[i].size());
+					blanks = fill(blanks, widths[i], ' ');
+				}
+
+				if(r>0){
+					for(int k=0; k<this.rowGap; k++){
+						out.append(separator);
+					}
+				}
+				char[] gutter = new char[this.gutter];
+				Arrays.fill(gutter, this.gutterChar);
+				for(int k=0; k<height; k++){
+					if(!first){
+						out.append(separator);
+					}
+					first = false;
+					for(int i=0; i<tables.length; i++){
+						if(i>0){
+							append(out, gutter, gutter.length);
+						}
+						int length = 0;
+						if(k<lines[i].size()){
+							lines[i].appendLine(out, k);
+							length = lines[i].lineLength(k);
+						}
+						append(out, blanks, widths[i] - length);
+					}
+				}
+			}
+		}
+		catch(IOException ex){
+			throw new AsciiTableException(ex);
+		}
+		return out;
+	}
+
+	/**
+	 * Returns an array of at least the given length filled with a character.
+	 * @param ar the current array
+	 * @param length the required length
+	 * @param c the fill character
+	 * @return the current array if long enough, a new array otherwise
+	 */
+	private static char[] fill(char[] ar, int length, char c){
+		if(ar.length>=length){
+			return ar;
+		}
+		char[] ret = new char[length];
+		Arrays.fill(ret, c);
+		return ret;
+	}
+
+	/**
+	 * Appends the first characters of an array to an appendable.
+	 * @param out the appendable
+	 * @param chars the characters
+	 * @param length the number of characters to append, nothing is appended if smaller than 1
+	 * @throws IOException if writing to the appendable failed
+	 */
+	private static void append(Appendable out, char[] chars, int length) throws IOException{
+		if(length<1){
+			return;
+		}
+		if(out instanceof java.io.Writer){
+			((java.io.Writer)out).write(chars, 0, length);
+		}
+		else if(out instanceof StringBuilder){
+			((StringBuilder)out).append(chars, 0, length);
+		}
+		else if(out instanceof StrBuilder){
+			((StrBuilder)out).append(chars, 0, length);
+		}
+		else{
+			for(int i=0; i<length; i++){
+				out.append(chars[i]);
+			}
+		}
+	}
+}
@@ -21,13 +21,12 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.Validate;
 
 import de.vandermeer.skb.interfaces.document.TableRowType;
-import de.vandermeer.skb.interfaces.transformers.Object_To_StrBuilder;
-import de.vandermeer.skb.interfaces.transformers.String_To_ConditionalBreak;
 
 /**
  * Calculates the width of table columns using the longest line in a column.
  * 
  * Note: this can produce strange results, especially when cell content implements render interfaces or very long lines are found.
+ * Content implementing {@link AT_Measurable}, for instance a nested table, is measured by its preferred width.
  * In those cases use minimum and maximum column length.
  * 
  * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
@@ -66,15 +65,16 @@ public class CWC_LongestLine implements AT_ColumnWidthCalculator {
 		// iterate over all rows
 		for(AT_Row row : rows) {
 			if(row.getType()==TableRowType.CONTENT) {
-				LinkedList<AT_Cell> cells = row.getCells();
+				AT_Cell[] cells = row.getCellArray();
 
-				for(int i=0; i<cells.size(); i++) {
-					if(cells.get(i).getContent()!=null){
-						String[] lines = String_To_ConditionalBreak.convert(Object_To_StrBuilder.convert(cells.get(i).getContent()).toString());
+				for(int i=0; i<cells.length; i++) {
+					if(cells[i].getContent()!=null){
+						int padding = cells[i].getContext().getPaddingLeft() + cells[i].getContext().getPaddingRight();
 
-						// measuring the width of each line within a cell
-						for(String line : lines) {
-							int lineWidth = line.length() + cells.get(i).getContext().getPaddingLeft() + cells.get(i).getContext().getPaddingRight();
+						// measuring the width of the longest line within a cell
+						int longest = AT_ColumnStats.preferredWidth(cells[i].getContent());
+						if(longest>-1) {
+							int lineWidth = longest + padding;
 							if(lineWidth > resultWidths[i]) {
 								int maxWidth = (maxWidths.length>i)?maxWidths[i]:0;
 								if(maxWidth<1 || lineWidth<maxWidth){
@@ -17,14 +17,13 @@ package de.vandermeer.asciitable;
 
 import java.util.LinkedList;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 
 import de.vandermeer.skb.interfaces.document.TableRowType;
-import de.vandermeer.skb.interfaces.transformers.Object_To_StrBuilder;
 
 /**
  * Calculates the width of table columns using the longest word in a column.
+ * Content implementing {@link AT_Measurable}, for instance a nested table, is measured by its minimum width.
  * 
  * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
  * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
@@ -59,13 +58,14 @@ public class CWC_LongestWord implements AT_ColumnWidthCalculator {
 
 		for(AT_Row row : rows){
 			if(row.getType()==TableRowType.CONTENT) {
-				LinkedList<AT_Cell> cells = row.getCells();
+				AT_Cell[] cells = row.getCellArray();
 
-				for(int i=0; i<cells.size(); i++) {
-					if(cells.get(i).getContent()!=null){
-						String[] ar = StringUtils.split(Object_To_StrBuilder.convert(cells.get(i).getContent()).toString());
-						for(int k=0; k<ar.length; k++){
-							int count = ar[k].length() + cells.get(i).getContext().getPaddingLeft() + cells.get(i).getContext().getPaddingRight();
+				for(int i=0; i<cells.length; i++) {
+					if(cells[i].getContent()!=null){
+						int longest = AT_ColumnStats.minWidth(cells[i].getContent());
+						int padding = cells[i].getContext().getPaddingLeft() + cells[i].getContext().getPaddingRight();
+						if(longest>-1){
+							int count = longest + padding;
 							if(count>ret[i]){
 								ret[i] = count;
 							}
@@ -0,0 +1,141 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collection;
+import java.util.Random;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import de.vandermeer.skb.interfaces.transformers.textformat.TextAlignment;
+
+/**
+ * Tests for {@link AT_CellPipeline}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class Test_AT_CellPipeline {
+
+	@Test
+	public void test_MaxLines(){
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		at.addRow("short", "a long text that will not fit into a single line of the column");
+		at.addRule();
+		at.getContext().setWidth(41);
+		at.getRenderer().setLineSeparator("<br>\n");
+		assertEquals(6, at.renderAsCollection().size());
+
+		at.setMaxLines(1);
+		Collection<String> lines = at.renderAsCollection();
+		assertEquals(3, lines.size());
+		assertEquals("│short              │a long text that...│", lines.toArray()[1]);
+
+		at.setEllipsis("~");
+		assertEquals("│short              │a long text that w~│", at.renderAsCollection().toArray()[1]);
+
+		at.setEllipsis("...");
+		at.setMaxLines(2);
+		lines = at.renderAsCollection();
+		assertEquals(4, lines.size());
+		assertEquals("│                   │will not fit int...│", lines.toArray()[2]);
+
+		String expected = at.render();
+		at.setRenderer(new AT_CanvasRenderer());
+		at.getRenderer().setLineSeparator("<br>\n");
+		assertEquals(expected, at.render());
+
+		at.setMaxLines(0);
+		assertEquals(6, at.renderAsCollection().size());
+	}
+
+	@Test
+	public void test_MaxLinesBreak(){
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		at.addRow("a<br>b", "first<br />", "<br>second");
+		at.addRule();
+		at.getContext().setWidth(37);
+		at.setMaxLines(1);
+		Collection<String> lines = at.renderAsCollection();
+		assertEquals(3, lines.size());
+		assertEquals("│a...       │first      │...        │", lines.toArray()[1]);
+	}
+
+	@Test
+	public void test_NormalizeWhitespace(){
+		String text = "no change needed";
+		assertSame(text, AT_CellPipeline.normalizeWhitespace(text));
+
+		String[] tests = new String[]{"", " ", "  ", "\t", " a ", "a  b", "a\r\nb", " \u000B\f x  y  ", "\n\n"};
+		for(String s : tests){
+			assertEquals(s.replaceAll("\\s+", " "), AT_CellPipeline.normalizeWhitespace(s));
+		}
+
+		char[] chars = new char[]{'a', 'b', ' ', '\t', '\n', '\r', '\f', '\u000B', ' '};
+		Random random = new Random(42);
+		for(int i=0; i<1000; i++){
+			StringBuilder sb = new StringBuilder();
+			for(int k=random.nextInt(20); k>0; k--){
+				sb.append(chars[random.nextInt(chars.length)]);
+			}
+			assertEquals(sb.toString().replaceAll("\\s+", " "), AT_CellPipeline.normalizeWhitespace(sb.toString()));
+		}
+	}
+
+	@Test
+	public void test_Stages(){
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		at.addRow("some  text", "more\ttext");
+		at.addRule();
+		String expected = at.render();
+
+		AT_CellPipeline upper = AT_CellPipeline.DEFAULT.withStage((text, ctx) -> text.toUpperCase());
+		at.getRenderer().setCellPipeline(upper);
+		assertEquals(expected.replace("some text", "SOME TEXT").replace("more text", "MORE TEXT"), at.render());
+
+		at.setRenderer(new AT_CanvasRenderer().setCellPipeline(upper));
+		assertEquals(expected.replace("some text", "SOME TEXT").replace("more text", "MORE TEXT"), at.render());
+
+		at.getRenderer().setCellPipeline(null);
+		assertEquals(expected, at.render());
+	}
+
+	@Test
+	public void test_Wrappers(){
+		AT_CellPipeline pipeline = AT_CellPipeline.DEFAULT.withStage((text, ctx) -> text);
+		assertSame(pipeline.wrapper(10, TextAlignment.LEFT), pipeline.wrapper(10, TextAlignment.LEFT));
+		assertNotSame(pipeline.wrapper(10, TextAlignment.LEFT), pipeline.wrapper(10, TextAlignment.RIGHT));
+		assertNotSame(pipeline.wrapper(AT_CellPipeline.MAX_WRAPPER_WIDTH, TextAlignment.LEFT), pipeline.wrapper(AT_CellPipeline.MAX_WRAPPER_WIDTH, TextAlignment.LEFT));
+
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		at.addRow(StringUtils.repeat("wide text ", 60));
+		at.addRule();
+		String expected = at.render(AT_CellPipeline.MAX_WRAPPER_WIDTH + 100);
+		at.getRenderer().setCellPipeline(pipeline);
+		assertEquals(expected, at.render(AT_CellPipeline.MAX_WRAPPER_WIDTH + 100));
+		assertEquals(expected, at.render(AT_CellPipeline.MAX_WRAPPER_WIDTH + 100));
+	}
+}
@@ -0,0 +1,161 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.vandermeer.skb.interfaces.document.TableRowType;
+
+/**
+ * Tests for {@link AT_ColumnBands}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class Test_AT_ColumnBands {
+
+	static final int COLUMNS = 12;
+
+	static AsciiTable createTable(){
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		Object[] header = new Object[COLUMNS];
+		for(int col=0; col<COLUMNS; col++){
+			header[col] = "head " + col;
+		}
+		at.addRow(header);
+		at.addRule();
+		for(int row=0; row<3; row++){
+			Object[] cells = new Object[COLUMNS];
+			for(int col=0; col<COLUMNS; col++){
+				cells[col] = (col==0) ? "key " + row : "value " + row + "/" + col;
+			}
+			at.addRow(cells);
+			at.addRule();
+		}
+		Object[] span = new Object[COLUMNS];
+		span[COLUMNS - 1] = "a cell spanning all columns";
+		at.addRow(span);
+		at.addRule();
+		return at;
+	}
+
+	@Test
+	public void test_Bands(){
+		AsciiTable at = createTable();
+		AT_ColumnBands bands = new AT_ColumnBands().setKeyColumns(0);
+		int[] colWidth = bands.calculateColumnWidths(at, 50);
+		int[][] split = bands.getBands(colWidth, 50);
+		assertTrue(split.length>1);
+
+		String expected = "";
+		List<Integer> seen = new ArrayList<>();
+		for(int[] band : split){
+			assertEquals(0, band[0]);
+			int lineWidth = 1;
+			for(int col : band){
+				lineWidth += colWidth[col] + 1;
+				if(col!=0){
+					seen.add(col);
+				}
+			}
+			assertTrue(lineWidth<=50);
+
+			AsciiTable single = new AsciiTable();
+			CWC_FixedWidth cwc = new CWC_FixedWidth();
+			for(int col : band){
+				cwc.add(colWidth[col]);
+			}
+			single.getRenderer().setCWC(cwc);
+			for(AT_Row row : at.getRawContent()){
+				if(row.getType()!=TableRowType.CONTENT){
+					single.addRule(row.getStyle());
+					continue;
+				}
+				Object[] cells = new Object[band.length];
+				for(int j=0; j<band.length; j++){
+					cells[j] = row.getCellArray()[band[j]].getContent();
+				}
+				if(cells[0]==null){
+					//the cell spanning all columns is clipped at the band boundaries, it is shown in the part with its first column
+					Object span = row.getCellArray()[COLUMNS - 1].getContent();
+					cells = new Object[band.length];
+					if(band[band.length - 1]==band.length - 1){
+						cells[band.length - 1] = span;
+					}
+					else{
+						cells[0] = span;
+						cells[band.length - 1] = "";
+					}
+				}
+				single.addRow(cells);
+			}
+			expected += ((expected.length()==0) ? "" : System.lineSeparator() + System.lineSeparator()) + single.render();
+		}
+		assertEquals(COLUMNS - 1, seen.size());
+		assertEquals(expected, bands.render(at, 50));
+	}
+
+	@Test
+	public void test_SpanAcrossBands(){
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		at.addRow("alpha", "beta", "gamma");
+		at.addRule();
+		at.addRow(null, "spans alpha and beta", "x");
+		at.addRule();
+		at.getRenderer().setLineSeparator("\n");
+		CWC_FixedWidth cwc = new CWC_FixedWidth().add(5).add(5).add(5);
+
+		//every column in its own band: the span is split at the band boundary
+		AT_ColumnBands bands = new AT_ColumnBands().setCWC(cwc).setBandGap(0);
+		assertEquals(3, bands.getBands(bands.calculateColumnWidths(at, 12), 12).length);
+		String[] lines = bands.render(at, 12).split("\n");
+		assertEquals(18, lines.length);
+		assertEquals("│alpha│", lines[1]);
+		assertEquals("│spans│", lines[3]);
+		assertEquals("│beta │", lines[6]);
+		assertEquals("│beta │", lines[9]);
+		assertEquals("│     │", lines[11]);
+
+		//key column before a column it follows in the table: the span is not joined across the reordered columns
+		bands = new AT_ColumnBands().setCWC(cwc).setKeyColumns(1);
+		lines = bands.render(at, 14).split("\n");
+		assertEquals("│beta │alpha│", lines[1]);
+		assertEquals("│     │spans│", lines[3]);
+		assertEquals("│     │beta │", lines[6]);
+		assertEquals("│     │x    │", lines[12]);
+	}
+
+	@Test
+	public void test_GetBands(){
+		AT_ColumnBands bands = new AT_ColumnBands().setKeyColumns(2, 0, 2);
+		assertArrayEquals(new int[]{0, 2}, bands.getKeyColumns());
+		int[][] split = bands.getBands(new int[]{3, 5, 3, 5, 5, 5}, 21);
+		assertArrayEquals(new int[][]{{0, 2, 1, 3}, {0, 2, 4, 5}}, split);
+
+		split = new AT_ColumnBands().getBands(new int[]{30, 5}, 20);
+		assertArrayEquals(new int[][]{{0}, {1}}, split);
+	}
+}
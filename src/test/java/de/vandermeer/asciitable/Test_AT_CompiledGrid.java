@@ -0,0 +1,93 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+
+import org.apache.commons.lang3.text.StrBuilder;
+import org.junit.Test;
+
+import de.vandermeer.asciithemes.TA_Grid;
+import de.vandermeer.asciithemes.TA_GridConfig;
+import de.vandermeer.asciithemes.TA_GridThemes;
+import de.vandermeer.asciithemes.u8.U8_Grids;
+import de.vandermeer.skb.interfaces.render.DoesRenderToWidth;
+
+/**
+ * Tests for {@link AT_CompiledGrid}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class Test_AT_CompiledGrid {
+
+	@Test
+	public void test_Cache(){
+		int mode = TA_GridThemes.FULL.get();
+		AT_CompiledGrid grid = AT_CompiledGrid.get(U8_Grids.borderLight(), mode);
+		assertSame(grid, AT_CompiledGrid.get(U8_Grids.borderLight(), mode));
+		assertNotSame(grid, AT_CompiledGrid.get(U8_Grids.borderDouble(), mode));
+		assertNotSame(grid, AT_CompiledGrid.get(U8_Grids.borderLight(), TA_GridThemes.NONE.get()));
+	}
+
+	@Test
+	public void test_Character(){
+		TA_Grid grid = U8_Grids.borderLight();
+		AT_CompiledGrid compiled = AT_CompiledGrid.get(grid, TA_GridThemes.FULL.get());
+		int rule = TA_GridConfig.RULESET_NORMAL;
+		assertEquals(grid.getCharacterMap().get(TA_GridConfig.PT_TOP_LEFT | rule).charValue(), compiled.character(TA_GridConfig.PT_TOP_LEFT | rule, AT_CompiledGrid.LINE_FIRST, 0, 10));
+		assertEquals(grid.getCharacterMap().get(TA_GridConfig.PT_MID_BOTH | rule).charValue(), compiled.character(TA_GridConfig.PT_MID_BOTH | rule, AT_CompiledGrid.LINE_MID, 5, 10));
+		assertEquals(grid.getCharacterMap().get(TA_GridConfig.PT_HORIZONTAL | rule).charValue(), compiled.character(TA_GridConfig.PT_HORIZONTAL | rule | TA_GridConfig.CHAR_TOP_RULE, AT_CompiledGrid.LINE_FIRST, 3, 10));
+	}
+
+	@Test
+	public void test_ShortLines(){
+		//cells with lines shorter than their columns, the grid must be the same as the original grid calculating its columns from the lines
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		at.addRow("abc", (DoesRenderToWidth)width -> "x");
+		at.addStrongRule();
+		at.addRow("def", (DoesRenderToWidth)width -> "y");
+		at.addRule();
+		at.getContext().setGrid(U8_Grids.borderStrongDoubleLight());
+		at.getContext().setWidth(30);
+
+		int[] colWidth = at.getRenderer().getCWC().calculateColumnWidths(at.getRawContent(), 2, at.getContext().getTextWidth(30));
+		ArrayList<Object> rows = new ArrayList<>();
+		for(AT_Row row : at.getRawContent()){
+			rows.add(AT_RenderHelpers.renderRow(row, 2, colWidth));
+		}
+		for(TA_GridThemes theme : TA_GridThemes.values()){
+			at.getContext().setGridTheme(theme);
+			ArrayList<String> expected = new ArrayList<>();
+			for(StrBuilder sb : at.getContext().getGrid().addGrid(rows, at.getContext().getGridTheme() | at.getContext().getGridThemeOptions())){
+				expected.add(sb.toString());
+			}
+			assertEquals(expected, new ArrayList<>(at.renderAsCollection()));
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void test_Missing(){
+		TA_Grid grid = TA_Grid.create("empty grid");
+		AT_CompiledGrid.get(grid, TA_GridThemes.FULL.get()).character(TA_GridConfig.PT_HORIZONTAL | TA_GridConfig.RULESET_NORMAL, AT_CompiledGrid.LINE_FIRST, 1, 2);
+	}
+}
@@ -0,0 +1,140 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link AT_LinePublisher}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class Test_AT_LinePublisher {
+
+	/**
+	 * Subscriber collecting lines, requesting a fixed number of lines on subscription and after every line if set.
+	 */
+	static class Collector implements AT_LinePublisher.Subscriber {
+		final List<String> lines = new ArrayList<>();
+		final CountDownLatch finished = new CountDownLatch(1);
+		final long initial;
+		final boolean oneByOne;
+		AT_LinePublisher.Subscription subscription;
+		Throwable error;
+		boolean complete;
+
+		Collector(long initial, boolean oneByOne){
+			this.initial = initial;
+			this.oneByOne = oneByOne;
+		}
+
+		@Override
+		public void onSubscribe(AT_LinePublisher.Subscription subscription){
+			this.subscription = subscription;
+			subscription.request(this.initial);
+		}
+
+		@Override
+		public void onNext(String line){
+			this.lines.add(line);
+			if(this.oneByOne){
+				this.subscription.request(1);
+			}
+		}
+
+		@Override
+		public void onError(Throwable error){
+			this.error = error;
+			this.finished.countDown();
+		}
+
+		@Override
+		public void onComplete(){
+			this.complete = true;
+			this.finished.countDown();
+		}
+	}
+
+	static AsciiTable createTable(int rows){
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		for(int i=0; i<rows; i++){
+			at.addRow("row " + i, "some text");
+			at.addRule();
+		}
+		return at;
+	}
+
+	@Test
+	public void test_Request(){
+		AsciiTable at = createTable(100);
+		List<String> expected = at.lines().collect(Collectors.toList());
+
+		Collector all = new Collector(1, true);
+		new AT_LinePublisher(at).subscribe(all);
+		assertTrue(all.complete);
+		assertEquals(expected, all.lines);
+
+		AT_RenderControl control = new AT_RenderControl();
+		at.getRenderer().setRenderControl(control);
+		Collector slow = new Collector(3, false);
+		new AT_LinePublisher(at).subscribe(slow);
+		assertEquals(expected.subList(0, 3), slow.lines);
+		assertFalse(slow.complete);
+		assertTrue(control.getRows()<10);
+
+		slow.subscription.request(4);
+		assertEquals(expected.subList(0, 7), slow.lines);
+		slow.subscription.cancel();
+		slow.subscription.request(10);
+		assertEquals(7, slow.lines.size());
+		assertFalse(slow.complete);
+
+		Collector wrong = new Collector(0, false);
+		new AT_LinePublisher(at).subscribe(wrong);
+		assertTrue(wrong.error instanceof IllegalArgumentException);
+	}
+
+	@Test
+	public void test_Executor() throws InterruptedException{
+		AsciiTable at = createTable(50);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try{
+			Collector all = new Collector(2, true);
+			new AT_LinePublisher(at, 40).setExecutor(executor).subscribe(all);
+			assertTrue(all.finished.await(10, TimeUnit.SECONDS));
+			assertTrue(all.complete);
+			assertEquals(at.lines(40).collect(Collectors.toList()), all.lines);
+		}
+		finally{
+			executor.shutdown();
+		}
+	}
+}
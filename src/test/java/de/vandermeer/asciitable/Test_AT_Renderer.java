@@ -0,0 +1,654 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.text.StrBuilder;
+import org.junit.Test;
+
+import de.vandermeer.asciithemes.TA_Grid;
+import de.vandermeer.asciithemes.TA_GridThemes;
+import de.vandermeer.asciithemes.u8.U8_Grids;
+import de.vandermeer.skb.interfaces.render.DoesRenderToWidth;
+import de.vandermeer.skb.interfaces.transformers.textformat.TextAlignment;
+
+/**
+ * Tests for {@link AT_Renderer}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class Test_AT_Renderer {
+
+	/**
+	 * Creates a table with rules of all styles, column spans, padding, and frame margins.
+	 * @return new table
+	 */
+	static AsciiTable createTable(){
+		AsciiTable at = new AsciiTable();
+		at.addStrongRule();
+		at.addRow("h1", "h2", "h3", "h4");
+		at.addStrongRule();
+		at.addRow("c11 with some more text to wrap", "c12", "c13", "c14");
+		at.addRule();
+		at.addRow("c21", null, "c23", "c24");
+		at.addRule();
+		at.addRow(null, null, null, "span all");
+		at.addStrongRule();
+		at.setPadding(1);
+		at.getContext().setFrameTopBottomMargin(1);
+		at.getContext().setFrameLeftRightMargin(2);
+		at.getContext().setGrid(U8_Grids.borderStrongDoubleLight());
+		at.getContext().setWidth(50);
+		return at;
+	}
+
+	@Test
+	public void test_RenderTo(){
+		AsciiTable at = createTable();
+		assertEquals(at.render(), at.renderTo(new StringWriter()).toString());
+		assertEquals(at.render(40), at.renderTo(new StringBuilder(), 40).toString());
+
+		at.getContext().setGridTheme(TA_GridThemes.INSIDE);
+		at.getRenderer().setLineSeparator("|\n");
+		assertEquals(at.render(), at.renderTo(new StringBuilder()).toString());
+	}
+
+	/**
+	 * Renders a table with the grid calculating its columns from the formatted lines, see {@link TA_Grid#addGrid(Collection, int)}.
+	 * @param at the table
+	 * @param width maximum line width
+	 * @return rendered table
+	 */
+	static String renderWithGrid(AsciiTable at, int width){
+		AT_Context ctx = at.getContext();
+		int[] colWidth = at.getRenderer().getCWC().calculateColumnWidths(at.getRawContent(), at.getColNumber(), ctx.getTextWidth(width));
+		ArrayList<Object> rows = new ArrayList<>();
+		for(AT_Row row : at.getRawContent()){
+			rows.add(AT_RenderHelpers.renderRow(row, at.getColNumber(), colWidth));
+		}
+		ArrayList<StrBuilder> grid = ctx.getGrid().addGrid(rows, ctx.getGridTheme() | ctx.getGridThemeOptions());
+		int max = grid.get(0).length() + ctx.getFrameLeftMargin() + ctx.getFrameRightMargin();
+		ArrayList<String> ret = new ArrayList<>();
+		for(int k=0; k<ctx.getFrameTopMargin(); k++){
+			ret.add(StringUtils.repeat(ctx.getFrameTopChar(), max));
+		}
+		for(StrBuilder line : grid){
+			ret.add(StringUtils.repeat(ctx.getFrameLeftChar(), ctx.getFrameLeftMargin()) + line + StringUtils.repeat(ctx.getFrameRightChar(), ctx.getFrameRightMargin()));
+		}
+		for(int k=0; k<ctx.getFrameBottomMargin(); k++){
+			ret.add(StringUtils.repeat(ctx.getFrameBottomChar(), max));
+		}
+		return String.join(AT_RenderHelpers.lineSeparator(at.getRenderer(), ctx), ret);
+	}
+
+	@Test
+	public void test_CanvasRenderer(){
+		AsciiTable shortLines = new AsciiTable();
+		shortLines.addRule();
+		shortLines.addRow("abc", (DoesRenderToWidth)width -> "x");
+		shortLines.addStrongRule();
+		shortLines.addRow("def", (DoesRenderToWidth)width -> "y");
+		shortLines.addRule();
+		shortLines.getContext().setGrid(U8_Grids.borderStrongDoubleLight()).setFrameLeftRightMargin(1);
+		shortLines.getContext().setWidth(50);
+
+		for(AsciiTable at : new AsciiTable[]{createTable(), shortLines}){
+			for(TA_GridThemes theme : new TA_GridThemes[]{TA_GridThemes.FULL, TA_GridThemes.INSIDE, TA_GridThemes.OUTSIDE, TA_GridThemes.NONE}){
+				at.setRenderer(AT_Renderer.create());
+				at.getContext().setGridTheme(theme);
+				String expected = renderWithGrid(at, 50);
+				String expected40 = renderWithGrid(at, 40);
+
+				at.setRenderer(new AT_CanvasRenderer());
+				assertEquals(expected, at.render());
+				assertEquals(expected40, at.render(40));
+				assertEquals(expected, at.renderTo(new StringWriter()).toString());
+				assertEquals(expected, String.join(System.lineSeparator(), at.renderAsCollection()));
+				assertEquals(expected, at.lines().collect(Collectors.joining(System.lineSeparator())));
+			}
+		}
+	}
+
+	@Test
+	public void test_RuleCache(){
+		AsciiTable at = createTable();
+		String expected = at.render();
+
+		AT_CanvasRenderer renderer = new AT_CanvasRenderer();
+		at.setRenderer(renderer);
+		assertEquals(expected, at.render());
+		long misses = renderer.getRuleCache().getMisses();
+		assertEquals(expected, at.render());
+		assertEquals(misses, renderer.getRuleCache().getMisses());
+		assertEquals(misses, renderer.getRuleCache().getHits());
+
+		renderer.setRuleCache(null);
+		assertEquals(expected, at.render());
+	}
+
+	@Test
+	public void test_Parallel(){
+		AsciiTable at = createTable();
+		for(int i=0; i<1000; i++){
+			at.addRow(null, "row " + i, "text in row " + i + " long enough to wrap in its column", i);
+			at.addRule();
+		}
+		String expected = at.render();
+
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try{
+			at.getRenderer().setExecutor(pool);
+			assertEquals(pool, at.getRenderer().getExecutor());
+			assertEquals(expected, at.render());
+			assertEquals(expected, at.renderTo(new StringBuilder()).toString());
+		}
+		finally{
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void test_CellCache(){
+		AsciiTable at = createTable();
+		String expected = at.render();
+
+		AT_CellCache cache = new AT_CellCache();
+		at.getRenderer().setCellCache(cache);
+		assertEquals(expected, at.render());
+		assertEquals(0, cache.getHits());
+		long misses = cache.getMisses();
+		assertEquals(expected, at.render());
+		assertEquals(misses, cache.getMisses());
+		assertEquals(misses, cache.getHits());
+
+		at.setRenderer(new AT_CanvasRenderer().setCellCache(cache));
+		assertEquals(expected, at.render());
+		assertEquals(misses, cache.getMisses());
+
+		at.getContext().setGridTheme(TA_GridThemes.INSIDE);
+		at.setPaddingLeft(3);
+		assertEquals(AT_Renderer.create().render(at.getRawContent(), at.getColNumber(), at.getContext()), at.render());
+	}
+
+	@Test
+	public void test_MemoizeRenderables(){
+		AtomicInteger renders = new AtomicInteger();
+		class Content implements DoesRenderToWidth, AT_Memoizable {
+			long version;
+			@Override
+			public String render(int width){
+				renders.incrementAndGet();
+				return StringUtils.rightPad("version " + this.version, width);
+			}
+			@Override
+			public long getRenderVersion(){
+				return this.version;
+			}
+		}
+		Content content = new Content();
+		StringBuilder text = new StringBuilder("some text");
+
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		at.addRow(content, text);
+		at.addRule();
+		AT_CellCache cache = new AT_CellCache();
+		at.getRenderer().setCellCache(cache);
+		String expected = at.render();
+		at.render();
+		assertEquals(2, renders.get());
+
+		cache.setMemoizeRenderables(true);
+		assertEquals(expected, at.render());
+		assertEquals(expected, at.render());
+		at.setRenderer(new AT_CanvasRenderer().setCellCache(cache));
+		assertEquals(expected, at.render());
+		assertEquals(3, renders.get());
+
+		content.version++;
+		assertTrue(at.render().contains("version 1"));
+		assertEquals(4, renders.get());
+
+		text.append(" changed");
+		assertFalse(at.render().contains("changed"));
+		cache.invalidate(text);
+		assertTrue(at.render().contains("some text changed"));
+	}
+
+	@Test
+	public void test_NestedTable(){
+		AtomicInteger renders = new AtomicInteger();
+		AsciiTable inner = new AsciiTable();
+		inner.setRenderer(new AT_CanvasRenderer(){
+			@Override
+			public String render(LinkedList<AT_Row> rows, int colNumbers, AT_Context ctx, int width){
+				renders.incrementAndGet();
+				return super.render(rows, colNumbers, ctx, width);
+			}
+		});
+		inner.addRule();
+		inner.addRow("key", "some value");
+		inner.addRule();
+		inner.addRow(null, "spanning a longer value");
+		inner.addRule();
+		assertEquals(13, inner.getMinWidth());
+		assertEquals(41, inner.getPreferredWidth());
+		assertEquals(0, renders.get());
+
+		AsciiTable outer = new AsciiTable();
+		outer.addRule();
+		outer.addRow("name", inner);
+		outer.addRule();
+		outer.getRenderer().setCWC(new CWC_LongestLine());
+		String expected = outer.render();
+		assertEquals(1 + 4 + 1 + 41 + 1, expected.split("\\n")[0].trim().length());
+		assertEquals(expected, outer.render());
+		assertEquals(1, renders.get());
+
+		outer.getRenderer().setCWC(new CWC_LongestWord());
+		assertEquals(1 + 4 + 1 + 13 + 1, outer.renderAsCollection().iterator().next().length());
+		outer.getRenderer().setCWC(new CWC_LongestLine());
+		assertEquals(expected, outer.render());
+		assertEquals(2, renders.get());
+
+		inner.getRawContent().get(1).getCells().get(0).setContent("changed");
+		assertTrue(outer.render().contains("changed"));
+		assertEquals(3, renders.get());
+
+		inner.getRawContent().get(1).getCells().set(0, new AT_Cell(null).setContent("replaced"));
+		assertTrue(outer.render().contains("replaced"));
+		assertEquals(4, renders.get());
+
+		inner.getRenderer().setCWC(new CWC_LongestLine());
+		assertEquals(inner.getPreferredWidth(), inner.getMinWidth());
+		assertEquals(inner.getPreferredWidth(), inner.renderAsCollection().iterator().next().length());
+
+		//nested table narrower than its cell, then in a padded cell, then with a new calculator
+		AsciiTable narrow = new AsciiTable();
+		narrow.addRule();
+		narrow.addRow("x", "y");
+		narrow.addRule();
+		narrow.getRenderer().setCWC(new CWC_LongestLine());
+		outer = new AsciiTable();
+		outer.addRule();
+		AT_Row row = outer.addRow("name", narrow);
+		outer.addRule();
+		outer.getContext().setWidth(30);
+		outer.getRenderer().setLineSeparator("\n");
+		String[] lines = outer.render().split("\n");
+		assertEquals(5, lines.length);
+		assertEquals("│name          │┌─┬─┐        │", lines[1]);
+		assertEquals("│              ││x│y│        │", lines[2]);
+
+		row.setPadding(1);
+		lines = outer.render().split("\n");
+		assertEquals(7, lines.length);
+		assertEquals("│              │             │", lines[1]);
+		assertEquals("│ name         │ ┌─┬─┐       │", lines[2]);
+		assertEquals("│              │ │x│y│       │", lines[3]);
+
+		narrow.getRenderer().setCWC(new CWC_AbsoluteEven());
+		lines = outer.render().split("\n");
+		assertEquals("│              │ │x   │y   │ │", lines[3]);
+	}
+
+	@Test
+	public void test_RenderControl(){
+		AsciiTable at = createTable();
+		String expected = at.render();
+		for(AT_Renderer renderer : new AT_Renderer[]{AT_Renderer.create(), new AT_CanvasRenderer()}){
+			at.setRenderer(renderer);
+			AT_RenderControl control = new AT_RenderControl().setKeepPartial(true).setProgressInterval(1);
+			at.getRenderer().setRenderControl(control);
+			assertEquals(expected, at.render());
+			assertEquals(at.getRawContent().size(), control.getRows());
+			assertEquals(expected.split(System.lineSeparator()).length, control.getLines());
+
+			control.setProgress((rows, lines) -> {
+				if(lines==3){
+					control.cancel();
+				}
+			});
+			try{
+				at.render();
+				assertTrue(false);
+			}
+			catch(AsciiTableCancelledException ex){
+				assertEquals(AsciiTableCancelledException.Reason.CANCELLED, ex.getReason());
+				assertEquals(3, ex.getLines());
+				assertTrue(ex.getPartialOutput().length()>0);
+				assertTrue(expected.startsWith(ex.getPartialOutput()));
+			}
+
+			AT_RenderControl deadline = new AT_RenderControl().setTimeout(0, TimeUnit.MILLISECONDS);
+			at.getRenderer().setRenderControl(deadline);
+			StringBuilder sb = new StringBuilder();
+			try{
+				at.renderTo(sb);
+				assertTrue(false);
+			}
+			catch(AsciiTableCancelledException ex){
+				assertEquals(AsciiTableCancelledException.Reason.DEADLINE, ex.getReason());
+				assertEquals(null, ex.getPartialOutput());
+				assertEquals(0, sb.length());
+			}
+
+			deadline.clearTimeout();
+			Thread.currentThread().interrupt();
+			try{
+				at.render();
+				assertTrue(false);
+			}
+			catch(AsciiTableCancelledException ex){
+				assertEquals(AsciiTableCancelledException.Reason.INTERRUPTED, ex.getReason());
+			}
+			assertTrue(Thread.interrupted());
+			assertEquals(expected, at.render());
+		}
+	}
+
+	@Test
+	public void test_LineStream(){
+		for(TA_GridThemes theme : new TA_GridThemes[]{TA_GridThemes.FULL, TA_GridThemes.INSIDE, TA_GridThemes.NONE}){
+			for(AT_Renderer renderer : new AT_Renderer[]{AT_Renderer.create(), new AT_CanvasRenderer()}){
+				AsciiTable at = createTable();
+				at.getContext().setGridTheme(theme);
+				at.setRenderer(renderer);
+				assertEquals(new ArrayList<>(at.renderAsCollection()), at.lines().collect(Collectors.toList()));
+				assertEquals(at.render(40), at.lines(40).collect(Collectors.joining(System.lineSeparator())));
+			}
+		}
+
+		for(AT_Renderer renderer : new AT_Renderer[]{AT_Renderer.create(), new AT_CanvasRenderer()}){
+			AsciiTable at = new AsciiTable();
+			at.setRenderer(renderer);
+			at.addRule();
+			for(int i=0; i<100; i++){
+				at.addRow("row " + i, "some text");
+				at.addRule();
+			}
+			AT_RenderControl control = new AT_RenderControl();
+			renderer.setRenderControl(control);
+			List<String> head = at.lines().limit(5).collect(Collectors.toList());
+			assertTrue(control.getRows()<10);
+			assertEquals(at.renderAsCollection().stream().limit(5).collect(Collectors.toList()), head);
+			assertEquals(201, control.getRows());
+		}
+	}
+
+	@Test
+	public void test_RowCache(){
+		AsciiTable at = createTable();
+		AT_Row row = at.addRow(null, null, "status", "ok");
+		at.addStrongRule();
+
+		AT_RowCache cache = new AT_RowCache();
+		at.getRenderer().setRowCache(cache);
+		at.render();
+		assertEquals(5, cache.getRendered());
+		at.render();
+		assertEquals(0, cache.getRendered());
+		assertEquals(5, cache.getReused());
+
+		row.getCells().get(3).setContent("failed");
+		String expected = AT_Renderer.create().render(at.getRawContent(), at.getColNumber(), at.getContext());
+		assertEquals(expected, at.render());
+		assertEquals(1, cache.getRendered());
+
+		row.getCells().get(2).getContext().setTextAlignment(TextAlignment.RIGHT);
+		expected = AT_Renderer.create().render(at.getRawContent(), at.getColNumber(), at.getContext());
+		assertEquals(expected, at.render());
+		assertEquals(1, cache.getRendered());
+
+		row.getCells().set(3, new AT_Cell(null).setContent("replaced"));
+		expected = AT_Renderer.create().render(at.getRawContent(), at.getColNumber(), at.getContext());
+		assertEquals(expected, at.render());
+		assertTrue(expected.contains("replaced"));
+		assertEquals(1, cache.getRendered());
+
+		expected = AT_Renderer.create().render(at.getRawContent(), at.getColNumber(), at.getContext(), 60);
+		assertEquals(expected, at.render(60));
+		assertEquals(5, cache.getRendered());
+	}
+
+	@Test
+	public void test_RowCacheInvalidation(){
+		AsciiTable inner = new AsciiTable();
+		inner.addRule();
+		inner.addRow("key", "value");
+		inner.addRule();
+
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		at.addRow("name", "text");
+		at.addRule();
+		at.addRow("nested", inner);
+		at.addRule();
+
+		AT_RowCache cache = new AT_RowCache();
+		at.getRenderer().setRowCache(cache);
+		at.render(50);
+		assertEquals(2, cache.getRendered());
+		at.render(50);
+		assertEquals(0, cache.getRendered());
+
+		inner.addRow("other", "changed");
+		inner.addRule();
+		String expected = AT_Renderer.create().render(at.getRawContent(), at.getColNumber(), at.getContext(), 50);
+		assertTrue(expected.contains("changed"));
+		assertEquals(expected, at.render(50));
+		assertEquals(1, cache.getRendered());
+
+		at.getRenderer().setCellPipeline(AT_CellPipeline.DEFAULT.withStage((text, ctx) -> text.toUpperCase()));
+		String upper = at.render(50);
+		assertTrue(upper.contains("NAME"));
+		assertEquals(2, cache.getRendered());
+		at.render(50);
+		assertEquals(0, cache.getRendered());
+
+		at.getRenderer().setCellCache(new AT_CellCache());
+		assertEquals(upper, at.render(50));
+		assertEquals(2, cache.getRendered());
+	}
+
+	@Test
+	public void test_LayoutPlan(){
+		AsciiTable at = createTable();
+		at.getRenderer().setLineSeparator("<br>\n");
+		String expected = at.render();
+
+		AT_LayoutPlan plan = at.layout();
+		assertEquals(expected.length(), plan.getCharCount());
+		assertEquals(expected.split("<br>\n").length, plan.getLineCount());
+		assertArrayEquals(new int[]{1, 3, 1, 6, 1, 3, 1, 3, 1}, plan.getRowHeights());
+		assertEquals(expected, at.getRenderer().render(plan));
+		assertEquals(expected, at.getRenderer().render(plan));
+		assertEquals(expected, at.getRenderer().renderTo(new StringWriter(), plan).toString());
+
+		plan = at.layout(40);
+		assertEquals(at.render(40).length(), plan.getCharCount());
+		assertArrayEquals(at.getRenderer().getCWC().calculateColumnWidths(at.getRawContent(), at.getColNumber(), at.getContext().getTextWidth(40)), plan.getColumnWidths());
+
+		at.getRenderer().setLineSeparator("\n");
+		plan = at.layout(30);
+		expected = at.render(30);
+		at.getContext().setFrameLeftRightMargin(3).setFrameTopBottomMargin(2).setGridTheme(TA_GridThemes.NONE);
+		String painted = at.getRenderer().render(plan);
+		assertEquals(expected, painted);
+		assertEquals(plan.getCharCount(), painted.length());
+		assertEquals(plan.getLineCount(), painted.split("\n").length);
+	}
+
+	@Test
+	public void test_ShortLines(){
+		//expected output of the original grid, which calculates its columns from the rendered lines
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		at.addRow((DoesRenderToWidth)width -> "short");
+		at.addRule();
+		at.getContext().setWidth(20);
+		at.getRenderer().setLineSeparator("\n");
+		String expected = "┌─────┐\n│short│\n└─────┘";
+		assertEquals(expected, at.render());
+		assertEquals(expected, at.renderTo(new StringBuilder()).toString());
+		assertEquals(expected, at.lines().collect(Collectors.joining("\n")));
+		assertEquals(expected, String.join("\n", at.renderAsCollection()));
+		assertEquals(expected.length(), at.layout().getCharCount());
+		assertEquals("│short│", at.getRenderer().renderLines(at.lineIndex(), 1, 2).get(0).toString());
+
+		at = new AsciiTable();
+		at.addRule();
+		at.addRow((DoesRenderToWidth)width -> StringUtils.repeat('q', width + 2) + "\n" + StringUtils.repeat('r', width + 2), "x");
+		at.addRule();
+		at.getContext().setWidth(21);
+		at.getRenderer().setLineSeparator("\n");
+		expected = "┌───────────┬─────────┐\n│qqqqqqqqqqq│x        │\n│rrrrrrrrrrr│         │\n└───────────┴─────────┘";
+		assertEquals(expected, at.render());
+		assertEquals(expected, at.renderTo(new StringBuilder()).toString());
+		assertEquals(expected, at.lines().collect(Collectors.joining("\n")));
+	}
+
+	@Test
+	public void test_Lines(){
+		AsciiTable at = createTable();
+		at.getContext().setFrameTopMargin(1).setFrameLeftMargin(2);
+		Collection<String> expected = at.renderAsCollection();
+
+		AT_Lines lines = at.renderAsLines();
+		assertEquals(expected.size(), lines.size());
+		int i = 0;
+		for(String line : expected){
+			assertEquals(line, lines.get(i++).toString());
+		}
+		assertEquals(expected.iterator().next().substring(1, 4), lines.get(0).subSequence(1, 4).toString());
+		assertEquals(at.render(), lines.writeTo(new StringWriter(), "\n").toString());
+		assertEquals(at.render(), lines.writeTo(new StringBuilder(), "\n").toString());
+	}
+
+	@Test
+	public void test_Bytes(){
+		AsciiTable at = createTable();
+		at.addRow("caf\u00e9", "\u4e2d\u6587", "end", "x");
+		at.addRule();
+		for(Charset charset : new Charset[]{StandardCharsets.US_ASCII, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_8, StandardCharsets.UTF_16}){
+			byte[] expected = at.render().getBytes(charset);
+			assertArrayEquals(expected, at.renderAsBytes(charset));
+			assertArrayEquals(expected, at.renderTo(new ByteArrayOutputStream(), charset).toByteArray());
+		}
+	}
+
+	@Test
+	public void test_RenderLines(){
+		AsciiTable at = createTable();
+		List<String> expected = new ArrayList<>(at.renderAsCollection());
+		AT_LineIndex index = at.lineIndex();
+		assertEquals(expected.size(), index.getLineCount());
+		for(int from=0; from<=expected.size(); from++){
+			for(int to=from; to<=expected.size(); to++){
+				AT_Lines lines = at.getRenderer().renderLines(index, from, to);
+				assertEquals(to - from, lines.size());
+				for(int i=0; i<lines.size(); i++){
+					assertEquals(expected.get(from + i), lines.get(i).toString());
+				}
+			}
+		}
+
+		at.getContext().setFrameTopBottomMargin(2).setFrameLeftRightMargin(3).setGridTheme(TA_GridThemes.NONE);
+		assertEquals(expected.size(), index.getLineCount());
+		assertEquals(expected.get(1), at.getRenderer().renderLines(index, 1, 2).get(0).toString());
+
+		AsciiTable large = new AsciiTable();
+		for(int i=0; i<1000; i++){
+			large.addRule();
+			large.addRow("row " + i, "text");
+		}
+		large.addRule();
+		AtomicInteger formatted = new AtomicInteger();
+		large.getRenderer().setCellPipeline(AT_CellPipeline.DEFAULT.withStage((text, ctx) -> {
+			formatted.incrementAndGet();
+			return text;
+		}));
+		String line = new ArrayList<>(large.renderAsCollection()).get(1001);
+		assertTrue(StringUtils.contains(line, "row 500 "));
+		index = large.lineIndex();
+		formatted.set(0);
+		assertEquals(line, large.getRenderer().renderLines(index, 1001, 1002).get(0).toString());
+		assertTrue(formatted.get()>0 && formatted.get()<=6);
+	}
+
+	@Test
+	public void test_Pages(){
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		at.addRow("h1", "h2");
+		at.addStrongRule();
+		for(int i=0; i<5; i++){
+			at.addRow("r" + i, "text " + i);
+			at.addRule();
+		}
+		at.setHeaderRows(3);
+		at.getContext().setGrid(U8_Grids.borderStrongDoubleLight());
+		at.getRenderer().setLineSeparator("<br>\n");
+		List<String> full = new ArrayList<>(at.renderAsCollection());
+		String nl = "<br>\n";
+
+		assertEquals(3, at.getPageCount(2));
+		assertEquals(String.join(nl, full.subList(0, 6)) + nl + full.get(12), at.renderPage(0, 2));
+		assertEquals(String.join(nl, full.subList(0, 3)) + nl + String.join(nl, full.subList(7, 10)) + nl + full.get(12), at.renderPage(1, 2));
+		assertEquals(String.join(nl, full.subList(0, 3)) + nl + full.get(11) + nl + full.get(12), at.renderPage(2, 2));
+		assertEquals(Arrays.asList(at.renderPage(0, 2), at.renderPage(1, 2), at.renderPage(2, 2)), at.renderPages(2));
+
+		AT_RowCache cache = new AT_RowCache();
+		at.getRenderer().setRowCache(cache);
+		at.render();
+		assertEquals(6, cache.getRendered());
+		assertEquals(at.renderPages(2), Arrays.asList(at.renderPage(0, 2), at.renderPage(1, 2), at.renderPage(2, 2)));
+		at.render();
+		assertEquals(0, cache.getRendered());
+		assertEquals(6, cache.getReused());
+		at.getRenderer().setRowCache(null);
+
+		at.setHeaderRows(0);
+		assertEquals(6, at.getPageCount(1));
+		assertEquals(3, at.renderPage(1, 1).split(nl).length);
+		assertEquals(full.get(3), at.renderPage(1, 1).split(nl)[1]);
+
+		at.setHeaderRows(at.getRawContent().size());
+		assertEquals(1, at.getPageCount(2));
+		assertEquals(String.join(nl, full), at.renderPage(0, 2));
+	}
+}
@@ -0,0 +1,86 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import static org.junit.Assert.*;
+
+import java.util.ListIterator;
+
+import org.junit.Test;
+
+import de.vandermeer.skb.interfaces.document.TableRowStyle;
+import de.vandermeer.skb.interfaces.document.TableRowType;
+
+/**
+ * Tests for {@link AT_Row}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class Test_AT_Row {
+
+	@Test
+	public void test_CellArray(){
+		AT_Row row = AT_Row.createContentRow(new Object[]{"a", null, "c"});
+		AT_Cell[] cells = row.getCellArray();
+		assertEquals(3, cells.length);
+		assertSame(cells, row.getCellArray());
+		assertSame(row.getCells().get(2), cells[2]);
+
+		row.getCells().add(new AT_Cell("d"));
+		assertEquals(4, row.getCellArray().length);
+		assertEquals("d", row.getCellArray()[3].getContent());
+
+		row.getCells().set(0, new AT_Cell("x"));
+		assertEquals("x", row.getCellArray()[0].getContent());
+
+		assertNull(AT_Row.createRule(TableRowType.RULE, TableRowStyle.NORMAL).getCellArray());
+	}
+
+	@Test
+	public void test_CellArrayIterator(){
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		AT_Row row = at.addRow("alpha", "beta");
+		at.addRule();
+		row.getCellArray();
+
+		ListIterator<AT_Cell> it = row.getCells().listIterator();
+		it.next();
+		it.next();
+		it.set(new AT_Cell("DELTA"));
+		assertEquals("DELTA", row.getCellArray()[1].getContent());
+		assertTrue(at.render().contains("DELTA"));
+
+		row.getCells().replaceAll(cell -> new AT_Cell(cell.getContent() + "!"));
+		assertEquals("alpha!", row.getCellArray()[0].getContent());
+
+		row.getCells().sort((c1, c2) -> c1.getContent().toString().compareTo(c2.getContent().toString()));
+		assertEquals("DELTA!", row.getCellArray()[0].getContent());
+		assertEquals("alpha!", row.getCellArray()[1].getContent());
+	}
+
+	@Test
+	public void test_SharedRules(){
+		for(TableRowStyle style : new TableRowStyle[]{TableRowStyle.NORMAL, TableRowStyle.STRONG, TableRowStyle.LIGHT, TableRowStyle.HEAVY}){
+			AT_Row rule = AT_Row.createRule(TableRowType.RULE, style);
+			assertSame(rule, AT_Row.createRule(TableRowType.RULE, style));
+			assertEquals(TableRowType.RULE, rule.getType());
+			assertEquals(style, rule.getStyle());
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import de.vandermeer.skb.interfaces.document.TableRowStyle;
+import de.vandermeer.skb.interfaces.transformers.textformat.TextAlignment;
+
+/**
+ * Tests for {@link AT_TransposedView}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class Test_AT_TransposedView {
+
+	@Test
+	public void test_Transpose(){
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		at.addRow("name", "host", "port");
+		at.addRule();
+		AT_Row row = at.addRow("server", "example.org", 8080);
+		row.getCellArray()[2].getContext().setTextAlignment(TextAlignment.RIGHT);
+		row.getCellArray()[1].getContext().setPaddingLeft(2);
+		at.addRule();
+
+		AsciiTable expected = new AsciiTable();
+		expected.addRule();
+		expected.addRow("name", "server");
+		expected.addRule();
+		expected.addRow("host", "example.org").getCellArray()[1].getContext().setPaddingLeft(2);
+		expected.addRule();
+		expected.addRow("port", 8080).getCellArray()[1].getContext().setTextAlignment(TextAlignment.RIGHT);
+		expected.addRule();
+
+		AT_TransposedView view = at.transpose();
+		assertEquals(2, view.getColNumber());
+		assertSame(row.getCellArray()[1], view.getRawContent().get(3).getCellArray()[1]);
+		assertEquals(expected.render(), view.render());
+		assertEquals(expected.render(40), view.render(40));
+		assertEquals(expected.render(40), view.renderTo(new StringBuilder(), 40).toString());
+		assertEquals(expected.lines(40).collect(Collectors.toList()), view.lines(40).collect(Collectors.toList()));
+
+		row.getCellArray()[0].setContent("proxy");
+		expected.getRawContent().get(1).getCellArray()[1].setContent("proxy");
+		assertEquals(expected.render(), view.render());
+	}
+
+	@Test
+	public void test_RowCache(){
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		at.addRow("name", "host", "port");
+		at.addRule();
+		AT_Row row = at.addRow(null, "example.org", 8080);
+		at.addRule();
+
+		AT_TransposedView view = at.transpose();
+		AT_RowCache cache = new AT_RowCache();
+		at.getRenderer().setRowCache(cache);
+		view.render(40);
+		assertEquals(3, cache.getRendered());
+		assertSame(view.getRawContent(), view.getRawContent());
+		view.render(40);
+		assertEquals(0, cache.getRendered());
+		assertEquals(3, cache.getReused());
+
+		AT_Row host = view.getRawContent().get(3);
+		row.getCellArray()[2].setContent(443);
+		view.render(40);
+		assertEquals(1, cache.getRendered());
+		assertSame(host, view.getRawContent().get(3));
+
+		AT_Row name = view.getRawContent().get(1);
+		row.getCellArray()[0].setContent("proxy");
+		AsciiTable expected = new AsciiTable();
+		expected.addRule();
+		expected.addRow("name", "proxy");
+		expected.addRule();
+		expected.addRow("host", "example.org");
+		expected.addRule();
+		expected.addRow("port", 443);
+		expected.addRule();
+		assertEquals(expected.render(40), view.render(40));
+		assertEquals(1, cache.getRendered());
+		assertNotSame(name, view.getRawContent().get(1));
+
+		view.setRuleStyle(TableRowStyle.STRONG);
+		assertEquals(TableRowStyle.STRONG, view.getRawContent().getFirst().getStyle());
+		assertSame(host, view.getRawContent().get(3));
+	}
+}
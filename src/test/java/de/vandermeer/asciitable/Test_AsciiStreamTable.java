@@ -0,0 +1,109 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import de.vandermeer.skb.interfaces.render.DoesRenderToWidth;
+
+/**
+ * Tests for {@link AsciiStreamTable}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class Test_AsciiStreamTable {
+
+	@Test
+	public void test_SameAsTable(){
+		StringBuilder sb = new StringBuilder();
+		AsciiStreamTable st = new AsciiStreamTable(sb);
+		AsciiTable at = new AsciiTable();
+
+		st.addRule().addHeader("h1", "h2", "h3").addRule();
+		at.addRule();
+		at.addRow("h1", "h2", "h3");
+		at.addRule();
+		for(int i=0; i<10; i++){
+			st.addRow(null, "row " + i, "some text");
+			at.addRow(null, "row " + i, "some text");
+		}
+		st.addRule();
+		at.addRule();
+		st.finish();
+
+		assertEquals(at.render(), sb.toString());
+	}
+
+	@Test
+	public void test_Overflow(){
+		StringBuilder sb = new StringBuilder();
+		AsciiStreamTable st = new AsciiStreamTable(sb);
+		st.getContext().setLineSeparator("\n");
+		st.setCWC(new CWC_LongestLine()).setWarmup(2).setOverflowPolicy(AsciiStreamTable.OverflowPolicy.TRUNCATE);
+		st.addRule().addHeader("id", "name").addRule();
+		st.addRow(1, "alpha").addRow(2, "beta").addRow(3, "gamma delta");
+		st.close();
+		assertArrayEquals(new int[]{2, 5}, st.getColumnWidths());
+		assertEquals(6, StringUtils.split(sb.toString(), '\n').length);
+		assertTrue(sb.toString().contains("│3 │ga...│"));
+
+		sb = new StringBuilder();
+		st = new AsciiStreamTable(sb);
+		st.getContext().setLineSeparator("\n");
+		st.setCWC(new CWC_LongestLine()).setWarmup(1).setOverflowPolicy(AsciiStreamTable.OverflowPolicy.TRUNCATE);
+		st.addRule().addRow(1, "alpha");
+		st.addRow(2, "a<br>b").addRow(3, "x<br />");
+		st.addRule().close();
+		String[] lines = StringUtils.split(sb.toString(), '\n');
+		assertEquals(5, lines.length);
+		assertEquals("│2│a... │", lines[2]);
+		assertEquals("│3│x    │", lines[3]);
+
+		sb = new StringBuilder();
+		st = new AsciiStreamTable(sb);
+		st.getContext().setLineSeparator("\n");
+		st.setCWC(new CWC_LongestLine()).setWarmup(2).setOverflowPolicy(AsciiStreamTable.OverflowPolicy.WIDEN);
+		st.addRule().addHeader("id", "name").addRule();
+		st.addRow(1, "alpha").addRow(2, "beta").addRow(3, "gamma delta");
+		st.close();
+		assertArrayEquals(new int[]{2, 11}, st.getColumnWidths());
+		assertEquals(2, StringUtils.countMatches(sb.toString(), "name"));
+		assertTrue(sb.toString().contains("gamma delta"));
+	}
+
+	@Test
+	public void test_RenderToWidth(){
+		StringBuilder sb = new StringBuilder();
+		AsciiStreamTable st = new AsciiStreamTable(sb);
+		st.getContext().setLineSeparator("\n");
+		st.setCWC(new CWC_LongestLine()).setWarmup(1);
+		st.addRule().addRow("name", "value");
+		st.addRow("a", (DoesRenderToWidth)width -> "x");
+		st.addRow("b", (DoesRenderToWidth)width -> StringUtils.repeat('y', width + 2));
+		st.addRule().close();
+		String[] lines = StringUtils.split(sb.toString(), '\n');
+		assertEquals(5, lines.length);
+		assertEquals("│a   │x    │", lines[2]);
+		assertEquals("│b   │yyyyy│", lines[3]);
+	}
+}
@@ -0,0 +1,101 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link AsciiTableBatch}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class Test_AsciiTableBatch {
+
+	@Test
+	public void test_RenderAll(){
+		List<AsciiTable> tables = new ArrayList<>();
+		for(int i=0; i<25; i++){
+			AsciiTable at = new AsciiTable();
+			at.addRule();
+			at.addRow("table " + i, "with some text to wrap in the second column of the table, " + i);
+			at.addRule();
+			if(i%3==0){
+				at.setRenderer(new AT_CanvasRenderer());
+			}
+			tables.add(at);
+		}
+
+		AtomicInteger tasks = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try{
+			List<String> rendered = AsciiTableBatch.renderAll(tables, task -> {
+				tasks.incrementAndGet();
+				executor.execute(task);
+			}, 3).join();
+			assertEquals(3, tasks.get());
+			assertEquals(tables.size(), rendered.size());
+			for(int i=0; i<tables.size(); i++){
+				assertEquals(tables.get(i).render(), rendered.get(i));
+			}
+
+			assertEquals(tables.get(1).render(50), tables.get(1).renderAsync(executor, 50).join());
+			assertEquals(tables.get(2).render(), tables.get(2).renderAsync(null).join());
+			assertTrue(AsciiTableBatch.renderAll(new ArrayList<>()).join().isEmpty());
+		}
+		finally{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void test_RenderAllFailure(){
+		List<AsciiTable> tables = new ArrayList<>();
+		AsciiTable at = new AsciiTable();
+		at.addRule();
+		at.addRow("fine");
+		at.addRule();
+		tables.add(at);
+		AsciiTable broken = new AsciiTable();
+		broken.addRow(new Object(){
+			@Override
+			public String toString(){
+				throw new IllegalStateException("broken content");
+			}
+		});
+		tables.add(broken);
+
+		try{
+			AsciiTableBatch.renderAll(tables).join();
+			fail("broken table must fail the batch");
+		}
+		catch(CompletionException ex){
+			assertEquals("broken content", ex.getCause().getMessage());
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/* Copyright 2017 Sven van der Meer <vdmeer.sven@mykolab.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.vandermeer.asciitable;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AsciiTableComposition}.
+ *
+ * @author     Sven van der Meer &lt;vdmeer.sven@mykolab.com&gt;
+ * @version    v0.3.2 build 170502 (02-May-17) for Java 1.8
+ * @since      v0.3.2
+ */
+public class Test_AsciiTableComposition {
+
+	@Test
+	public void test_SideBySide(){
+		AsciiTable left = new AsciiTable();
+		left.addRule();
+		left.addRow("left", "table");
+		left.addRule();
+		AsciiTable right = new AsciiTable();
+		right.addRule();
+		right.addRow("right");
+		right.addRule();
+		right.addRow("table with more lines");
+		right.addRule();
+
+		AsciiTableComposition comp = new AsciiTableComposition().setWidth(60).setGutter(3).setGutterChar('|').setLineSeparator("<br>\n");
+		comp.addRow(left, right);
+		int[] widths = comp.getTableWidths(0);
+		assertEquals(60 - 3, widths[0] + widths[1]);
+
+		List<String> expected = new ArrayList<>();
+		List<String> l = new ArrayList<>(left.renderAsCollection(widths[0]));
+		List<String> r = new ArrayList<>(right.renderAsCollection(widths[1]));
+		for(int i=0; i<r.size(); i++){
+			expected.add(StringUtils.rightPad((i<l.size()) ? l.get(i) : "", widths[0]) + "|||" + r.get(i));
+		}
+		assertEquals(StringUtils.join(expected, "<br>\n"), comp.render());
+
+		comp.setRowGap(1);
+		comp.addRow(left);
+		assertEquals(StringUtils.join(expected, "<br>\n") + "<br>\n<br>\n" + StringUtils.join(left.renderAsCollection(60), "<br>\n"), comp.render());
+	}
+
+	@Test
+	public void test_SplitWidth(){
+		assertArrayEquals(new int[]{12, 11}, AsciiTableComposition.splitWidth(23, new int[]{5, 5}, new int[]{10, 9}));
+		assertArrayEquals(new int[]{10, 5}, AsciiTableComposition.splitWidth(15, new int[]{5, 5}, new int[]{15, 5}));
+		assertArrayEquals(new int[]{8, 7}, AsciiTableComposition.splitWidth(15, new int[]{5, 5}, new int[]{20, 20}));
+		assertArrayEquals(new int[]{5, 5}, AsciiTableComposition.splitWidth(8, new int[]{5, 5}, new int[]{20, 20}));
+	}
+}